@@ -0,0 +1,51 @@
+package ch.uzh.ifi.hase.soprafs24.benchmark;
+
+import ch.uzh.ifi.hase.soprafs24.Application;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the application for a benchmark, with the local generator instead of Vertex AI, and writes synthetic words
+ * and combinations directly with JDBC, since inserting up to a million rows through the services would take longer
+ * than the benchmark itself.
+ */
+public final class BenchmarkContext {
+
+    private static final int BATCH_SIZE = 1000;
+
+    // Far above the ids handed out by the combination sequence, so synthetic rows never collide with generated ones
+    private static final long FIRST_SYNTHETIC_COMBINATION_ID = 1_000_000_000L;
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(Application.class).run();
+    }
+
+    public static void insertWords(ConfigurableApplicationContext context, List<Object[]> words) {
+        // name, depth, reachability
+        batchUpdate(context, "INSERT INTO word (name, depth, reachability) VALUES (?, ?, ?)", words);
+    }
+
+    public static void insertCombinations(ConfigurableApplicationContext context, List<Object[]> combinations) {
+        // word1, word2, result, depth
+        List<Object[]> rows = new ArrayList<>(combinations.size());
+        long id = FIRST_SYNTHETIC_COMBINATION_ID;
+        for (Object[] combination : combinations) {
+            rows.add(new Object[]{id++, combination[0], combination[1], combination[2], combination[3]});
+        }
+        batchUpdate(context, "INSERT INTO combination (id, word1, word2, result, depth) VALUES (?, ?, ?, ?, ?)", rows);
+    }
+
+    private static void batchUpdate(ConfigurableApplicationContext context, String sql, List<Object[]> rows) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package ch.uzh.ifi.hase.soprafs24.entity;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Word set operations of a player holding wordCount words, without a database.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlayerBenchmark {
+
+    @Param({"4", "100", "1000"})
+    private int wordCount;
+
+    private List<Word> words;
+    private Player player;
+    private Word missingWord;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        words = new ArrayList<>();
+        for (int index = 0; index < wordCount; index++) {
+            words.add(new Word("word" + index, 0));
+        }
+        missingWord = new Word("missing");
+        player = new Player();
+        player.addWords(words, 10);
+    }
+
+    private Word nextWord() {
+        Word word = words.get(next);
+        next = (next + 1) % wordCount;
+        return word;
+    }
+
+    @Benchmark
+    public boolean hasWord_present() {
+        return player.hasWord(nextWord());
+    }
+
+    @Benchmark
+    public boolean hasWord_missing() {
+        return player.hasWord(missingWord);
+    }
+
+    @Benchmark
+    public PlayerWord getPlayerWord() {
+        return player.getPlayerWord(nextWord());
+    }
+
+    @Benchmark
+    public void addUses(Blackhole blackhole) {
+        player.addUses(nextWord(), 0);
+        blackhole.consume(player.getTotalUses());
+    }
+
+    @Benchmark
+    public List<Word> getWords() {
+        return player.getWords();
+    }
+
+    @Benchmark
+    public Player addWords_newPlayer() {
+        Player newPlayer = new Player();
+        newPlayer.addWords(words);
+        return newPlayer;
+    }
+}
@@ -0,0 +1,47 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import ch.uzh.ifi.hase.soprafs24.benchmark.BenchmarkContext;
+import ch.uzh.ifi.hase.soprafs24.entity.Combination;
+import ch.uzh.ifi.hase.soprafs24.entity.Word;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves pairs that are already in the combination table (warm) and pairs that have never been combined and have to
+ * be generated and saved (cold). Every cold invocation combines a new word, so it always creates a combination.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CombinationServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private CombinationService combinationService;
+    private long coldWords;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start();
+        combinationService = context.getBean(CombinationService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Combination getCombination_warm() {
+        return combinationService.getCombination(new Word("fire", 0), new Word("water", 0));
+    }
+
+    @Benchmark
+    public Combination getCombination_cold() {
+        return combinationService.getCombination(new Word("cold" + coldWords++, 0, null), new Word("fire", 0));
+    }
+}
@@ -0,0 +1,99 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import ch.uzh.ifi.hase.soprafs24.benchmark.BenchmarkContext;
+import ch.uzh.ifi.hase.soprafs24.entity.Word;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Propagates depth updates through a synthetic layered graph. Every word of a level is the result of combinations of
+ * words from the levels below, but is stored with twice its real depth, so propagating from a starting word updates
+ * every combination that depends on it. Each invocation rolls back, so the next one starts from the same graph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PropagateWordUpdatesBenchmark {
+
+    private static final int LEVELS = 10;
+    private static final int COMBINATIONS_PER_RESULT = 4;
+
+    @Param({"10000", "100000", "1000000"})
+    private int edges;
+
+    private ConfigurableApplicationContext context;
+    private CombinationService combinationService;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start();
+        combinationService = context.getBean(CombinationService.class);
+        entityManager = context.getBean(EntityManager.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        buildGraph();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private void buildGraph() {
+        int results = edges / COMBINATIONS_PER_RESULT;
+        int wordsPerLevel = Math.max(2, results / (LEVELS - 1));
+        Random random = new Random(42);
+
+        List<Object[]> words = new ArrayList<>();
+        for (int level = 0; level < LEVELS; level++) {
+            int storedDepth = 2 * level;
+            Double reachability = level == 0 ? null : COMBINATIONS_PER_RESULT * (1.0 / (1L << storedDepth));
+            for (int index = 0; index < wordsPerLevel; index++) {
+                words.add(new Object[]{name(level, index), storedDepth, reachability});
+            }
+        }
+
+        List<Object[]> combinations = new ArrayList<>();
+        Set<String> pairs = new HashSet<>();
+        for (int level = 1; level < LEVELS && combinations.size() < edges; level++) {
+            for (int index = 0; index < wordsPerLevel && combinations.size() < edges; index++) {
+                for (int combination = 0; combination < COMBINATIONS_PER_RESULT; combination++) {
+                    String word1;
+                    String word2;
+                    do {
+                        word1 = name(level - 1, random.nextInt(wordsPerLevel));
+                        word2 = name(random.nextInt(level), random.nextInt(wordsPerLevel));
+                    } while (!pairs.add(word1 + "+" + word2) || pairs.contains(word2 + "+" + word1));
+                    combinations.add(new Object[]{word1, word2, name(level, index), 2 * level});
+                }
+            }
+        }
+
+        BenchmarkContext.insertWords(context, words);
+        BenchmarkContext.insertCombinations(context, combinations);
+    }
+
+    private static String name(int level, int index) {
+        return "level" + level + "word" + index;
+    }
+
+    @Benchmark
+    public void propagateWordUpdates() {
+        transactionTemplate.execute(status -> {
+            Word startingWord = entityManager.find(Word.class, name(0, 0));
+            combinationService.propagateWordUpdates(startingWord);
+            status.setRollbackOnly();
+            return null;
+        });
+    }
+}
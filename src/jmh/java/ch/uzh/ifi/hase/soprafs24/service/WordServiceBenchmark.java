@@ -0,0 +1,66 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import ch.uzh.ifi.hase.soprafs24.benchmark.BenchmarkContext;
+import ch.uzh.ifi.hase.soprafs24.entity.Word;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks up words by name and selects target words from a vocabulary of synthetic words,
+ * whose depths are spread evenly between 1 and 10.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class WordServiceBenchmark {
+
+    private static final int MAX_DEPTH = 10;
+
+    @Param({"1000", "100000"})
+    private int vocabularySize;
+
+    private ConfigurableApplicationContext context;
+    private WordService wordService;
+    private int lookups;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start();
+        wordService = context.getBean(WordService.class);
+
+        List<Object[]> words = new ArrayList<>();
+        for (int index = 0; index < vocabularySize; index++) {
+            int depth = index % MAX_DEPTH + 1;
+            words.add(new Object[]{"word" + index, depth, 1.0 / (1L << depth)});
+        }
+        BenchmarkContext.insertWords(context, words);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Word findWord_existing() {
+        return wordService.findWord(new Word("word" + (lookups++ % vocabularySize)));
+    }
+
+    @Benchmark
+    public Word findWord_missing() {
+        return wordService.findWord(new Word("missing" + lookups++));
+    }
+
+    @Benchmark
+    public Word selectTargetWord() {
+        // Depths 3 to 5
+        return wordService.selectTargetWord(1.0 / (1L << 5), 1.0 / (1L << 3));
+    }
+}
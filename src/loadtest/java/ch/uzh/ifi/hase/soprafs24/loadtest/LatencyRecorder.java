@@ -0,0 +1,90 @@
+package ch.uzh.ifi.hase.soprafs24.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the latency of every request per endpoint and the STOMP messages received per instruction.
+ * All samples are kept, so the percentiles in the report are exact.
+ */
+class LatencyRecorder {
+
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.95, 0.99};
+
+    private static final class Samples {
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        private synchronized void add(long latency, boolean error) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+            if (error) errors++;
+        }
+
+        private synchronized long[] sorted() {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+
+        private synchronized int errors() {
+            return errors;
+        }
+    }
+
+    private final ConcurrentMap<String, Samples> samples = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicLong> messages = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long latencyNanos, boolean error) {
+        samples.computeIfAbsent(endpoint, key -> new Samples()).add(latencyNanos, error);
+    }
+
+    void recordMessage(String instruction) {
+        messages.computeIfAbsent(instruction, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    void clear() {
+        samples.clear();
+        messages.clear();
+    }
+
+    /**
+     * Formats the requests of every endpoint with their throughput over the given seconds and their latency percentiles.
+     */
+    String report(double seconds) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-40s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p95 ms", "p99 ms", "max ms"));
+        for (Map.Entry<String, Samples> entry : new TreeMap<>(samples).entrySet()) {
+            long[] sorted = entry.getValue().sorted();
+            if (sorted.length == 0) continue;
+            report.append(String.format("%-40s %8d %7d %9.1f", entry.getKey(), sorted.length, entry.getValue().errors(), sorted.length / seconds));
+            for (double percentile : PERCENTILES) {
+                report.append(String.format(" %9.2f", millis(sorted[percentileIndex(sorted.length, percentile)])));
+            }
+            report.append(String.format(" %9.2f%n", millis(sorted[sorted.length - 1])));
+        }
+
+        report.append(String.format("%n%-40s %8s %9s%n", "STOMP instruction", "messages", "msg/s"));
+        for (Map.Entry<String, AtomicLong> entry : new TreeMap<>(messages).entrySet()) {
+            report.append(String.format("%-40s %8d %9.1f%n", entry.getKey(), entry.getValue().get(), entry.getValue().get() / seconds));
+        }
+        return report.toString();
+    }
+
+    // Nearest rank
+    static int percentileIndex(int count, double percentile) {
+        return Math.max(0, (int) Math.ceil(percentile * count) - 1);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
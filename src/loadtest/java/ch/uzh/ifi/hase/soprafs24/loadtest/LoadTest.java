@@ -0,0 +1,84 @@
+package ch.uzh.ifi.hase.soprafs24.loadtest;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulates concurrent lobbies against a server: sets up all lobbies, starts their games and lets every player make
+ * moves at the configured rate for the configured duration. Prints the throughput and latency percentiles of every
+ * endpoint and the STOMP messages received. See LoadTestOptions for the arguments.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        }
+        catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadTestOptions.USAGE);
+            System.exit(1);
+            return;
+        }
+
+        ConfigurableApplicationContext server = null;
+        URI target = options.target();
+        if (target == null) {
+            server = LoadTestServer.start();
+            target = URI.create("http://localhost:" + LoadTestServer.getPort(server));
+        }
+        try {
+            run(options, target);
+        }
+        finally {
+            if (server != null) server.close();
+        }
+        System.exit(0);
+    }
+
+    private static void run(LoadTestOptions options, URI target) throws Exception {
+        System.out.printf("Load test against %s: %d lobbies with %d players, %.1f moves per second each, for %d seconds%n",
+                target, options.lobbies(), options.players(), options.moveRate(), options.duration());
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        LoadTestClient client = new LoadTestClient(target, recorder);
+        long setupStart = System.nanoTime();
+        List<SimulatedLobby> lobbies = new ArrayList<>();
+        for (int index = 0; index < options.lobbies(); index++) {
+            SimulatedLobby lobby = new SimulatedLobby(client, options, index);
+            lobby.setUp();
+            lobbies.add(lobby);
+        }
+        System.out.printf("%nSetup%n%s", recorder.report((System.nanoTime() - setupStart) / 1e9));
+        // The games are reported separately, so the setup does not dilute the throughput of the moves
+        recorder.clear();
+
+        int players = options.lobbies() * options.players();
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(Math.min(players, 256));
+        long period = Math.max(1, (long) (1_000_000 / options.moveRate()));
+        long gameStart = System.nanoTime();
+        for (SimulatedLobby lobby : lobbies) {
+            lobby.startGame();
+            for (SimulatedLobby.SimulatedPlayer player : lobby.getPlayers()) {
+                // Spread the first moves over one period, so the players do not all move at the same instant
+                scheduler.scheduleAtFixedRate(player::move, ThreadLocalRandom.current().nextLong(period), period, TimeUnit.MICROSECONDS);
+            }
+        }
+
+        Thread.sleep(TimeUnit.SECONDS.toMillis(options.duration()));
+        scheduler.shutdownNow();
+        scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        double seconds = (System.nanoTime() - gameStart) / 1e9;
+        lobbies.forEach(SimulatedLobby::tearDown);
+
+        System.out.printf("%nGames%n%s", recorder.report(seconds));
+    }
+}
@@ -0,0 +1,156 @@
+package ch.uzh.ifi.hase.soprafs24.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.*;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls the REST endpoints used by a game and opens the STOMP sessions of the players, timing every request.
+ * Requests are recorded under their path template, so all lobbies and players share one row in the report.
+ */
+class LoadTestClient {
+
+    static final class RequestFailedException extends RuntimeException {
+        private final int status;
+
+        RequestFailedException(String endpoint, int status, String body) {
+            super(String.format("%s returned %d: %s", endpoint, status, body));
+            this.status = status;
+        }
+
+        int getStatus() {
+            return status;
+        }
+    }
+
+    private final URI target;
+    private final LatencyRecorder recorder;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final WebSocketStompClient stompClient;
+
+    LoadTestClient(URI target, LatencyRecorder recorder) {
+        this.target = target;
+        this.recorder = recorder;
+        ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.initialize();
+        stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+        stompClient.setTaskScheduler(taskScheduler);
+    }
+
+    JsonNode createUser(String username, String password) {
+        return send("POST /users", "/users", "POST", Map.of(), Map.of("username", username, "password", password));
+    }
+
+    JsonNode logIn(String username, String password) {
+        return send("POST /logins", "/logins", "POST", Map.of(), Map.of("username", username, "password", password));
+    }
+
+    JsonNode createLobby(String userToken) {
+        return send("POST /lobbies", "/lobbies", "POST", Map.of("userToken", userToken), Map.of("publicAccess", true));
+    }
+
+    JsonNode updateLobbyMode(long code, String playerToken, String mode) {
+        return send("PUT /lobbies/{code}", "/lobbies/" + code, "PUT", Map.of("playerToken", playerToken), Map.of("mode", mode));
+    }
+
+    JsonNode joinLobby(long code, String userToken) {
+        return send("POST /lobbies/{code}/players", "/lobbies/" + code + "/players", "POST", Map.of("userToken", userToken), Map.of());
+    }
+
+    void startGame(long code, String playerToken) {
+        send("POST /lobbies/{code}/games", "/lobbies/" + code + "/games", "POST", Map.of("playerToken", playerToken), null);
+    }
+
+    JsonNode getPlayer(long code, long playerId, String playerToken) {
+        return send("GET /lobbies/{code}/players/{id}", "/lobbies/" + code + "/players/" + playerId, "GET",
+                Map.of("playerToken", playerToken), null);
+    }
+
+    JsonNode play(long code, long playerId, String playerToken, String word1, String word2) {
+        return send("PUT /lobbies/{code}/players/{id}", "/lobbies/" + code + "/players/" + playerId, "PUT",
+                Map.of("playerToken", playerToken), List.of(Map.of("name", word1), Map.of("name", word2)));
+    }
+
+    /**
+     * Connects to /welcome and subscribes to the game topic of the lobby, counting the received instructions.
+     */
+    StompSession subscribeToGame(long code) throws Exception {
+        URI uri = URI.create(target.toString().replaceFirst("^http", "ws") + "/welcome");
+        long start = System.nanoTime();
+        StompSession session;
+        try {
+            session = stompClient.connect(uri.toString(), new StompSessionHandlerAdapter() {}).get(10, TimeUnit.SECONDS);
+        }
+        catch (Exception e) {
+            recorder.record("STOMP CONNECT /welcome", System.nanoTime() - start, true);
+            throw e;
+        }
+        recorder.record("STOMP CONNECT /welcome", System.nanoTime() - start, false);
+
+        session.subscribe(String.format("/topic/lobbies/%d/game", code), new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Map.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                Object instruction = payload instanceof Map<?, ?> message ? message.get("instruction") : null;
+                recorder.recordMessage(String.format("/topic/lobbies/{code}/game %s", instruction));
+            }
+        });
+        return session;
+    }
+
+    private JsonNode send(String endpoint, String path, String method, Map<String, String> headers, Object body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(target + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json");
+        headers.forEach(request::header);
+        try {
+            request.method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                    : HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+
+            long start = System.nanoTime();
+            HttpResponse<String> response;
+            try {
+                response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            }
+            catch (IOException e) {
+                recorder.record(endpoint, System.nanoTime() - start, true);
+                throw e;
+            }
+            boolean failed = response.statusCode() >= 400;
+            recorder.record(endpoint, System.nanoTime() - start, failed);
+
+            if (failed) {
+                throw new RequestFailedException(endpoint, response.statusCode(), response.body());
+            }
+            return response.body().isEmpty() ? objectMapper.nullNode() : objectMapper.readTree(response.body());
+        }
+        catch (IOException e) {
+            throw new IllegalStateException(String.format("%s failed", endpoint), e);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(String.format("%s was interrupted", endpoint), e);
+        }
+    }
+}
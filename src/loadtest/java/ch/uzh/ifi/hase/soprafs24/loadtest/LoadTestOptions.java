@@ -0,0 +1,60 @@
+package ch.uzh.ifi.hase.soprafs24.loadtest;
+
+import java.net.URI;
+
+/**
+ * Settings of a load test run, parsed from arguments like --lobbies 20 --players 4.
+ *
+ * @param target     base URL of the server, null to start a local server
+ * @param lobbies    lobbies played concurrently
+ * @param players    players per lobby, including the owner
+ * @param moveRate   moves per second of every player
+ * @param duration   seconds the players keep making moves
+ * @param mode       game mode of the lobbies
+ * @param seed       seed of the random choices of the players, so runs are repeatable
+ */
+record LoadTestOptions(URI target, int lobbies, int players, double moveRate, int duration, String mode, long seed) {
+
+    static final String USAGE = """
+            Options:
+              --target <url>       server to test, e.g. http://localhost:8080 (default: start a local server)
+              --lobbies <n>        lobbies played concurrently (default: 10)
+              --players <n>        players per lobby, including the owner (default: 4)
+              --move-rate <n>      moves per second of every player (default: 1)
+              --duration <s>       seconds the players keep making moves (default: 60)
+              --mode <mode>        game mode of the lobbies (default: STANDARD)
+              --seed <n>           seed of the random choices of the players (default: 1)""";
+
+    static LoadTestOptions parse(String[] args) {
+        URI target = null;
+        int lobbies = 10;
+        int players = 4;
+        double moveRate = 1;
+        int duration = 60;
+        String mode = "STANDARD";
+        long seed = 1;
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException(String.format("Missing value for %s", option));
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--target" -> target = URI.create(value.endsWith("/") ? value.substring(0, value.length() - 1) : value);
+                case "--lobbies" -> lobbies = Integer.parseInt(value);
+                case "--players" -> players = Integer.parseInt(value);
+                case "--move-rate" -> moveRate = Double.parseDouble(value);
+                case "--duration" -> duration = Integer.parseInt(value);
+                case "--mode" -> mode = value.toUpperCase();
+                case "--seed" -> seed = Long.parseLong(value);
+                default -> throw new IllegalArgumentException(String.format("Unknown option %s", option));
+            }
+        }
+
+        if (lobbies < 1 || players < 1 || moveRate <= 0 || duration < 1) {
+            throw new IllegalArgumentException("Lobbies, players, move rate and duration must be positive");
+        }
+        return new LoadTestOptions(target, lobbies, players, moveRate, duration, mode, seed);
+    }
+}
@@ -0,0 +1,24 @@
+package ch.uzh.ifi.hase.soprafs24.loadtest;
+
+import ch.uzh.ifi.hase.soprafs24.Application;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the server in-process on an in-memory H2 database, with the local generator instead of Vertex AI.
+ * The result of a pair only depends on its words, so runs with the same seed make the same combinations.
+ */
+final class LoadTestServer {
+
+    private LoadTestServer() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(Application.class).run();
+    }
+
+    static int getPort(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+}
@@ -0,0 +1,124 @@
+package ch.uzh.ifi.hase.soprafs24.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.stomp.StompSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * One lobby of the load test: its players register, log in, join, subscribe to the game topic and then make moves
+ * with two random words they own. If a game ends, the owner starts the next one.
+ */
+class SimulatedLobby {
+    private final Logger log = LoggerFactory.getLogger(SimulatedLobby.class);
+
+    private static final String PASSWORD = "loadtest";
+
+    // Usernames have at most 20 characters, so runs are told apart by five base 36 digits of the start time
+    private static final String RUN_ID = Long.toString(System.currentTimeMillis() % 60_466_176L, 36);
+
+    private final LoadTestClient client;
+    private final LoadTestOptions options;
+    private final int index;
+    private final List<SimulatedPlayer> players = new ArrayList<>();
+    private final List<StompSession> sessions = new ArrayList<>();
+    private long code;
+
+    final class SimulatedPlayer {
+        private final long id;
+        private final String token;
+        private final Random random;
+        private volatile List<String> words = List.of();
+
+        private SimulatedPlayer(JsonNode playerJoined, long seed) {
+            this.id = playerJoined.path("playerId").asLong();
+            this.token = playerJoined.path("playerToken").asText();
+            this.random = new Random(seed);
+        }
+
+        /**
+         * Combines two random words of the player. Runs on one scheduler thread per player at a time.
+         */
+        void move() {
+            try {
+                if (words.isEmpty()) {
+                    updateWords(client.getPlayer(code, id, token));
+                }
+                String word1 = words.get(random.nextInt(words.size()));
+                String word2 = words.get(random.nextInt(words.size()));
+                updateWords(client.play(code, id, token, word1, word2));
+            }
+            catch (LoadTestClient.RequestFailedException e) {
+                // 404: the game of the lobby has ended
+                if (e.getStatus() == 404) restartGame();
+                else log.debug("Move of player {} failed: {}", id, e.getMessage());
+            }
+            catch (RuntimeException e) {
+                log.debug("Move of player {} failed: {}", id, e.getMessage());
+            }
+        }
+
+        private void updateWords(JsonNode player) {
+            List<String> playerWords = new ArrayList<>();
+            for (JsonNode playerWord : player.path("playerWords")) {
+                playerWords.add(playerWord.path("word").path("name").asText());
+            }
+            words = playerWords;
+        }
+    }
+
+    SimulatedLobby(LoadTestClient client, LoadTestOptions options, int index) {
+        this.client = client;
+        this.options = options;
+        this.index = index;
+    }
+
+    List<SimulatedPlayer> getPlayers() {
+        return players;
+    }
+
+    void setUp() throws Exception {
+        List<String> tokens = new ArrayList<>();
+        for (int player = 0; player < options.players(); player++) {
+            String username = String.format("load%s-%d-%d", RUN_ID, index, player);
+            client.createUser(username, PASSWORD);
+            tokens.add(client.logIn(username, PASSWORD).path("token").asText());
+        }
+
+        JsonNode owner = client.createLobby(tokens.get(0));
+        code = owner.path("lobby").path("code").asLong();
+        players.add(new SimulatedPlayer(owner, options.seed() * 31 + index * 1000L));
+        if (!"STANDARD".equals(options.mode())) {
+            client.updateLobbyMode(code, players.get(0).token, options.mode());
+        }
+        for (int player = 1; player < options.players(); player++) {
+            players.add(new SimulatedPlayer(client.joinLobby(code, tokens.get(player)), options.seed() * 31 + index * 1000L + player));
+        }
+        for (int player = 0; player < options.players(); player++) {
+            sessions.add(client.subscribeToGame(code));
+        }
+    }
+
+    void startGame() {
+        client.startGame(code, players.get(0).token);
+    }
+
+    private synchronized void restartGame() {
+        try {
+            client.startGame(code, players.get(0).token);
+            players.forEach(player -> player.words = List.of());
+        }
+        catch (LoadTestClient.RequestFailedException e) {
+            // Another player already started the next game
+            log.debug("Could not restart the game of lobby {}: {}", code, e.getMessage());
+        }
+    }
+
+    void tearDown() {
+        sessions.forEach(StompSession::disconnect);
+    }
+}
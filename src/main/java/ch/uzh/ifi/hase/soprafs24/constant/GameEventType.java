@@ -0,0 +1,5 @@
+package ch.uzh.ifi.hase.soprafs24.constant;
+
+public enum GameEventType {
+    COMBINATION_MADE, WORD_DISCOVERED, GAME_WON, GAME_LOST
+}
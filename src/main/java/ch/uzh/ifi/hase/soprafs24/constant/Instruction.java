@@ -1,7 +1,7 @@
 package ch.uzh.ifi.hase.soprafs24.constant;
 
 public enum Instruction {
-    START, STOP, KICK, UPDATE_LOBBY_LIST, UPDATE_LOBBY, UPDATE_PLAYERS, UPDATE_TIMER, ACHIEVEMENT, ABORT_GAME;
+    START, STOP, KICK, UPDATE_LOBBY, UPDATE_PLAYERS, UPDATE_TIMER, ACHIEVEMENT, ABORT_GAME, UPDATE_DIRECTORY_ENTRY, REMOVE_DIRECTORY_ENTRY;
 
     @Override
     public String toString() {
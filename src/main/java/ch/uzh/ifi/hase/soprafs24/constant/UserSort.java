@@ -0,0 +1,22 @@
+package ch.uzh.ifi.hase.soprafs24.constant;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+public enum UserSort {
+    ID("id"), WINS("wins"), COMBINATIONS_MADE("combinationsMade"), DISCOVERED_WORDS("discoveredWords");
+
+    private final String parameter;
+
+    UserSort(String parameter) {
+        this.parameter = parameter;
+    }
+
+    public String getParameter() {
+        return parameter;
+    }
+
+    public static Optional<UserSort> fromParameter(String parameter) {
+        return Arrays.stream(values()).filter(sort -> sort.parameter.equalsIgnoreCase(parameter)).findFirst();
+    }
+}
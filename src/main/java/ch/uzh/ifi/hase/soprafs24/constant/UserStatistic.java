@@ -0,0 +1,22 @@
+package ch.uzh.ifi.hase.soprafs24.constant;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+public enum UserStatistic {
+    WINS("wins"), COMBINATIONS_MADE("combinationsMade"), DISCOVERED_WORDS("discoveredWords"), RAREST_WORD("rarestWord");
+
+    private final String parameter;
+
+    UserStatistic(String parameter) {
+        this.parameter = parameter;
+    }
+
+    public String getParameter() {
+        return parameter;
+    }
+
+    public static Optional<UserStatistic> fromParameter(String parameter) {
+        return Arrays.stream(values()).filter(statistic -> statistic.parameter.equalsIgnoreCase(parameter)).findFirst();
+    }
+}
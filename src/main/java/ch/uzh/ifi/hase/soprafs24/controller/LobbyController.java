@@ -1,5 +1,6 @@
 package ch.uzh.ifi.hase.soprafs24.controller;
 
+import ch.uzh.ifi.hase.soprafs24.constant.GameMode;
 import ch.uzh.ifi.hase.soprafs24.constant.Instruction;
 import ch.uzh.ifi.hase.soprafs24.constant.LobbyStatus;
 import ch.uzh.ifi.hase.soprafs24.entity.*;
@@ -35,7 +36,6 @@ public class LobbyController {
     private final CombinationService combinationService;
     private final APIService apiService;
 
-    private static final String MESSAGE_LOBBY_BASE = "/topic/lobbies";
     private static final String MESSAGE_LOBBY_CODE = "/topic/lobbies/%d";
     private static final String MESSAGE_LOBBY_GAME = "/topic/lobbies/%d/game";
 
@@ -56,19 +56,28 @@ public class LobbyController {
         return getPublicLobbiesGetDTOList();
     }
 
+    @GetMapping("/lobbies/directory")
+    @ResponseStatus(HttpStatus.OK)
+    public LobbyDirectoryGetDTO getLobbyDirectory(@RequestParam(required = false) GameMode mode,
+                                                  @RequestParam(required = false) LobbyStatus status,
+                                                  @RequestParam(required = false) Integer minPlayers,
+                                                  @RequestParam(required = false) Integer maxPlayers,
+                                                  @RequestParam(required = false) Long after,
+                                                  @RequestParam(defaultValue = "20") int limit) {
+        return lobbyService.getLobbyDirectory(mode, status, minPlayers, maxPlayers, after, limit);
+    }
+
     @GetMapping("/lobbies/{code}")
     @ResponseStatus(HttpStatus.OK)
     public LobbyGetDTO getLobbyByCode(@PathVariable String code) {
         long parsedLobbyCode = parseLobbyCode(code);
-        Lobby lobby = lobbyService.getLobbyByCode(parsedLobbyCode);
-        return DTOMapper.INSTANCE.convertEntityToLobbyGetDTO(lobby);
+        return DTOMapper.INSTANCE.convertEntityToLobbyGetDTO(lobbyService.getLobbyForBroadcast(parsedLobbyCode));
     }
 
     @GetMapping("/lobbies/{code}/status")
     public LobbyStatusGetDTO getLobbyStatus(@PathVariable String code) {
         long parsedLobbyCode = parseLobbyCode(code);
-        Lobby lobby = lobbyService.getLobbyByCode(parsedLobbyCode);
-        return DTOMapper.INSTANCE.convertEntityToLobbyStatusGetDTO(lobby);
+        return lobbyService.getLobbyStatus(parsedLobbyCode);
     }
 
     @PostMapping("/lobbies")
@@ -80,7 +89,6 @@ public class LobbyController {
                 throw new ResponseStatusException(HttpStatus.CONFLICT, "Your user already has a lobby associated, leave it before creating a new one.");
             }
             Player player = lobbyService.createLobbyFromUser(user, lobbyPostDTO.getPublicAccess());
-            messagingTemplate.convertAndSend(MESSAGE_LOBBY_BASE, new InstructionDTO(Instruction.UPDATE_LOBBY_LIST, getPublicLobbiesGetDTOList()));
             return DTOMapper.INSTANCE.convertEntityToPlayerJoinedDTO(player);
         }
         else {
@@ -103,7 +111,7 @@ public class LobbyController {
             player = lobbyService.joinLobbyAnonymous(playerPostDTO.getPlayerName(), lobbyCodeLong);
         }
         messagingTemplate.convertAndSend(String.format(MESSAGE_LOBBY_CODE, lobbyCodeLong),
-                new InstructionDTO(Instruction.UPDATE_LOBBY, DTOMapper.INSTANCE.convertEntityToLobbyGetDTO(player.getLobby())));
+                new InstructionDTO(Instruction.UPDATE_LOBBY, DTOMapper.INSTANCE.convertEntityToLobbyGetDTO(lobbyService.getLobbyForBroadcast(lobbyCodeLong))));
         return DTOMapper.INSTANCE.convertEntityToPlayerJoinedDTO(player);
     }
 
@@ -111,8 +119,7 @@ public class LobbyController {
     @ResponseStatus(HttpStatus.OK)
     public List<PlayerGetDTO> getPlayers(@PathVariable String code) {
         long lobbyCodeLong = parseLobbyCode(code);
-        Lobby lobby = lobbyService.getLobbyByCode(lobbyCodeLong);
-        return lobby.getPlayers().stream().map(DTOMapper.INSTANCE::convertEntityToPlayerGetDTO).toList();
+        return lobbyService.getPlayersForBroadcast(lobbyCodeLong).stream().map(DTOMapper.INSTANCE::convertEntityToPlayerGetDTO).toList();
     }
 
     @PutMapping("/lobbies/{code}")
@@ -126,12 +133,9 @@ public class LobbyController {
 
         lobby = lobbyService.updateLobby(lobby, lobbyPutDTO);
         Map<String, Boolean> updates = lobby.getUpdatedFields();
-        if (updates.get("publicAccess") || updates.get("name")) {
-            messagingTemplate.convertAndSend(MESSAGE_LOBBY_BASE, new InstructionDTO(Instruction.UPDATE_LOBBY_LIST, getPublicLobbiesGetDTOList()));
-        }
         if (updates.containsValue(true)) {
             messagingTemplate.convertAndSend(String.format(MESSAGE_LOBBY_CODE, lobby.getCode()),
-                    new InstructionDTO(Instruction.UPDATE_LOBBY, DTOMapper.INSTANCE.convertEntityToLobbyGetDTO(lobby)));
+                    new InstructionDTO(Instruction.UPDATE_LOBBY, DTOMapper.INSTANCE.convertEntityToLobbyGetDTO(lobbyService.getLobbyForBroadcast(lobby.getCode()))));
         }
 
         return DTOMapper.INSTANCE.convertEntityToLobbyGetDTO(lobby);
@@ -147,7 +151,7 @@ public class LobbyController {
         }
         gameService.createNewGame(lobby);
         lobby.setStatus(LobbyStatus.INGAME);
-        messagingTemplate.convertAndSend(MESSAGE_LOBBY_BASE, new InstructionDTO(Instruction.UPDATE_LOBBY_LIST, getPublicLobbiesGetDTOList()));
+        lobbyService.publishDirectoryUpdate(lobby);
         messagingTemplate.convertAndSend(String.format(MESSAGE_LOBBY_GAME, lobby.getCode()), new InstructionDTO(Instruction.START));
     }
 
@@ -160,7 +164,6 @@ public class LobbyController {
                     "There is no ongoing game in this lobby");
         }
         gameService.abortGame(lobby, "The game was stopped by the owner");
-        messagingTemplate.convertAndSend(MESSAGE_LOBBY_BASE, new InstructionDTO(Instruction.UPDATE_LOBBY_LIST, getPublicLobbiesGetDTOList()));
         messagingTemplate.convertAndSend(String.format(MESSAGE_LOBBY_GAME, lobby.getCode()), new InstructionDTO(Instruction.ABORT_GAME));
     }
 
@@ -182,7 +185,7 @@ public class LobbyController {
         }
         Word result = gameService.play(player, words);
         messagingTemplate.convertAndSend(String.format(MESSAGE_LOBBY_GAME, lobbyCodeLong),
-                new InstructionDTO(Instruction.UPDATE_PLAYERS, player.getLobby().getPlayers().stream().map(DTOMapper.INSTANCE::convertEntityToPlayerGetDTO).toList()));
+                new InstructionDTO(Instruction.UPDATE_PLAYERS, lobbyService.getPlayersForBroadcast(lobbyCodeLong).stream().map(DTOMapper.INSTANCE::convertEntityToPlayerGetDTO).toList()));
         PlayerPlayedDTO playerPlayedDTO = DTOMapper.INSTANCE.convertEntityToPlayerPlayedDTO(player);
         playerPlayedDTO.setResultWord(DTOMapper.INSTANCE.convertEntityToWordDTO(result));
         return playerPlayedDTO;
@@ -196,12 +199,12 @@ public class LobbyController {
         if (player.getOwnedLobby() == null) {
             Lobby lobby = player.getLobby();
             playerService.removePlayer(player);
+            lobbyService.publishDirectoryUpdate(lobby);
             messagingTemplate.convertAndSend(String.format(MESSAGE_LOBBY_CODE, lobby.getCode()),
-                    new InstructionDTO(Instruction.UPDATE_LOBBY, DTOMapper.INSTANCE.convertEntityToLobbyGetDTO(lobby)));
+                    new InstructionDTO(Instruction.UPDATE_LOBBY, DTOMapper.INSTANCE.convertEntityToLobbyGetDTO(lobbyService.getLobbyForBroadcast(lobby.getCode()))));
         }
         else {
             lobbyService.removeLobby(player.getOwnedLobby());
-            messagingTemplate.convertAndSend(MESSAGE_LOBBY_BASE, new InstructionDTO(Instruction.UPDATE_LOBBY_LIST, getPublicLobbiesGetDTOList()));
             messagingTemplate.convertAndSend(String.format(MESSAGE_LOBBY_GAME, lobbyCodeLong),
                     new InstructionDTO(Instruction.KICK, null, "The lobby was closed by the owner"));
         }
@@ -216,11 +219,11 @@ public class LobbyController {
         }
         if (method.equalsIgnoreCase("vertex")){
             try {
-                Word result = new Word(apiService.getVertexAIWord(word1, word2));
+                Word result = new Word(apiService.getGeneratedWord(word1, word2));
                 return DTOMapper.INSTANCE.convertEntityToWordDTO(result);
             }
             catch (Exception e) {
-                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Something went wrong getting the result from VertexAI. Error message: " + e.getMessage());
+                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Something went wrong getting the result from the generator. Error message: " + e.getMessage());
             }
         }
         if (method.equalsIgnoreCase("random")){
@@ -8,7 +8,10 @@ import ch.uzh.ifi.hase.soprafs24.rest.dto.*;
 import ch.uzh.ifi.hase.soprafs24.rest.mapper.DTOMapper;
 import ch.uzh.ifi.hase.soprafs24.service.AchievementService;
 import ch.uzh.ifi.hase.soprafs24.service.DailyChallengeService;
+import ch.uzh.ifi.hase.soprafs24.service.LeaderboardService;
+import ch.uzh.ifi.hase.soprafs24.service.LobbyService;
 import ch.uzh.ifi.hase.soprafs24.service.UserService;
+import ch.uzh.ifi.hase.soprafs24.service.UserStatisticsService;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
@@ -31,24 +34,28 @@ public class UserController {
 
     private final DailyChallengeService dailyChallengeService;
 
-    UserController(UserService userService, AchievementService achievementService, DailyChallengeService dailyChallengeService) {
+    private final LobbyService lobbyService;
+
+    private final LeaderboardService leaderboardService;
+
+    private final UserStatisticsService userStatisticsService;
+
+    UserController(UserService userService, AchievementService achievementService, DailyChallengeService dailyChallengeService,
+                   LobbyService lobbyService, LeaderboardService leaderboardService, UserStatisticsService userStatisticsService) {
         this.userService = userService;
         this.achievementService = achievementService;
         this.dailyChallengeService = dailyChallengeService;
+        this.lobbyService = lobbyService;
+        this.leaderboardService = leaderboardService;
+        this.userStatisticsService = userStatisticsService;
     }
 
     @GetMapping("/users")
     @ResponseStatus(HttpStatus.OK)
-    public List<UserGetDTO> getAllUsers() {
-        // fetch all users in the internal representation
-        List<User> users = userService.getUsers();
-        List<UserGetDTO> userGetDTOs = new ArrayList<>();
-
-        // convert each user to the API representation
-        for (User user : users) {
-            userGetDTOs.add(DTOMapper.INSTANCE.convertEntityToUserGetDTO(user));
-        }
-        return userGetDTOs;
+    public UserPageGetDTO getAllUsers(@RequestParam(defaultValue = "id") String sort,
+                                      @RequestParam(required = false) String after,
+                                      @RequestParam(defaultValue = "20") int limit) {
+        return userService.getUserPage(sort, after, limit);
     }
 
     @GetMapping("/users/{id}")
@@ -56,7 +63,7 @@ public class UserController {
     public UserGetDTO getUser(@PathVariable String id) {
         long userIdLong = parseUserId(id);
         User foundUser = userService.getUserById(userIdLong);
-        return DTOMapper.INSTANCE.convertEntityToUserGetDTO(foundUser);
+        return userStatisticsService.addPendingStatistics(foundUser, DTOMapper.INSTANCE.convertEntityToUserGetDTO(foundUser));
     }
 
     @PostMapping("/users")
@@ -102,7 +109,7 @@ public class UserController {
         if (user.getPlayer() == null || (user.getPlayer() != null && user.getPlayer().getLobby() == null)) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User is not in a lobby");
         }
-        return DTOMapper.INSTANCE.convertEntityToLobbyGetDTO(user.getPlayer().getLobby());
+        return DTOMapper.INSTANCE.convertEntityToLobbyGetDTO(lobbyService.getLobbyForBroadcast(user.getPlayer().getLobby().getCode()));
     }
 
     @DeleteMapping("users/{id}")
@@ -147,4 +154,35 @@ public class UserController {
 
         return recordDTOs;
     }
+
+    @GetMapping("/users/challenges/leaderboard")
+    @ResponseStatus(HttpStatus.OK)
+    public List<DailyChallengeRankGetDTO> getLeaderboard(@RequestParam(defaultValue = "0") int page,
+                                                         @RequestParam(defaultValue = "20") int size) {
+        return dailyChallengeService.getLeaderboard(page, size);
+    }
+
+    @GetMapping("/users/{id}/challenges/rank")
+    @ResponseStatus(HttpStatus.OK)
+    public DailyChallengeRankGetDTO getRank(@PathVariable String id) {
+        long userIdLong = parseUserId(id);
+        User user = userService.getUserById(userIdLong);
+        return dailyChallengeService.getRank(user);
+    }
+
+    @GetMapping("/users/leaderboards/{statistic}")
+    @ResponseStatus(HttpStatus.OK)
+    public List<StatisticRankGetDTO> getStatisticLeaderboard(@PathVariable String statistic,
+                                                             @RequestParam(defaultValue = "0") int page,
+                                                             @RequestParam(defaultValue = "20") int size) {
+        return leaderboardService.getLeaderboard(statistic, page, size);
+    }
+
+    @GetMapping("/users/{id}/leaderboards/{statistic}/rank")
+    @ResponseStatus(HttpStatus.OK)
+    public StatisticRankGetDTO getStatisticRank(@PathVariable String id, @PathVariable String statistic) {
+        long userIdLong = parseUserId(id);
+        User user = userService.getUserById(userIdLong);
+        return leaderboardService.getRank(statistic, user);
+    }
 }
@@ -0,0 +1,49 @@
+package ch.uzh.ifi.hase.soprafs24.controller;
+
+import ch.uzh.ifi.hase.soprafs24.rest.dto.CombinedPairGetDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.CombinedResultGetDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.DiscoveryRollupGetDTO;
+import ch.uzh.ifi.hase.soprafs24.service.DiscoveryService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Word Controller
+ * This class is responsible for handling the REST requests about the words discovered by the players.
+ */
+@RestController
+public class WordController {
+
+    private final DiscoveryService discoveryService;
+
+    WordController(DiscoveryService discoveryService) {
+        this.discoveryService = discoveryService;
+    }
+
+    @GetMapping("/words/discoveries")
+    @ResponseStatus(HttpStatus.OK)
+    public List<DiscoveryRollupGetDTO> getDiscoveries(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return discoveryService.getRollups(from, to);
+    }
+
+    @GetMapping("/words/discoveries/pairs")
+    @ResponseStatus(HttpStatus.OK)
+    public List<CombinedPairGetDTO> getMostCombinedPairs(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                         @RequestParam(defaultValue = "10") int limit) {
+        return discoveryService.getMostCombinedPairs(from, to, limit);
+    }
+
+    @GetMapping("/words/discoveries/results")
+    @ResponseStatus(HttpStatus.OK)
+    public List<CombinedResultGetDTO> getMostCombinedResults(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                             @RequestParam(defaultValue = "10") int limit) {
+        return discoveryService.getMostCombinedResults(from, to, limit);
+    }
+}
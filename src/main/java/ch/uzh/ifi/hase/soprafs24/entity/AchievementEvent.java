@@ -0,0 +1,130 @@
+package ch.uzh.ifi.hase.soprafs24.entity;
+
+import ch.uzh.ifi.hase.soprafs24.constant.GameEventType;
+import ch.uzh.ifi.hase.soprafs24.constant.GameMode;
+import ch.uzh.ifi.hase.soprafs24.constant.PlayerStatus;
+import ch.uzh.ifi.hase.soprafs24.game.GameEvent;
+
+import javax.persistence.*;
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Internal AchievementEvent Representation
+ * A game event waiting for its achievements to be evaluated. It is written in the transaction of the move and removed
+ * once it has been evaluated, so no event is lost when the server stops or the evaluation fails.
+ */
+@Entity
+@Table(name = "ACHIEVEMENTEVENT", indexes = @Index(name = "achievement_event_time_index", columnList = "event_time"))
+public class AchievementEvent implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private GameEventType type;
+
+    @Column(name = "event_time", nullable = false)
+    private LocalDateTime time;
+
+    @Column(nullable = false)
+    private long userId;
+
+    @Column
+    private String result;
+
+    @Enumerated(EnumType.STRING)
+    @Column
+    private PlayerStatus status;
+
+    @Column(nullable = false)
+    private long points;
+
+    @Column(nullable = false)
+    private int wordCount;
+
+    @Enumerated(EnumType.STRING)
+    @Column
+    private GameMode mode;
+
+    @Column(nullable = false)
+    private int gameTime;
+
+    @Column
+    private LocalDateTime startTime;
+
+    @Column(nullable = false)
+    private int playerCount;
+
+    @Column(nullable = false)
+    private boolean owner;
+
+    @Column(nullable = false)
+    private int mostWordsOfOtherPlayers;
+
+    @Column(nullable = false)
+    private int wins;
+
+    @Column(nullable = false)
+    private int combinationsMade;
+
+    @Column(nullable = false)
+    private int discoveredWords;
+
+    // Failed evaluations, the event is dropped after too many of them
+    @Column(nullable = false)
+    private int attempts;
+
+    public AchievementEvent() {
+    }
+
+    public AchievementEvent(GameEvent event) {
+        this.type = event.type();
+        this.time = event.time();
+        this.userId = event.userId();
+        this.result = event.result();
+        this.status = event.status();
+        this.points = event.points();
+        this.wordCount = event.wordCount();
+        this.mode = event.mode();
+        this.gameTime = event.gameTime();
+        this.startTime = event.startTime();
+        this.playerCount = event.playerCount();
+        this.owner = event.owner();
+        this.mostWordsOfOtherPlayers = event.mostWordsOfOtherPlayers();
+        this.wins = event.wins();
+        this.combinationsMade = event.combinationsMade();
+        this.discoveredWords = event.discoveredWords();
+    }
+
+    public GameEvent toGameEvent() {
+        return new GameEvent(type, time, userId, result, status, points, wordCount, mode, gameTime, startTime, playerCount,
+                owner, mostWordsOfOtherPlayers, wins, combinationsMade, discoveredWords);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getTime() {
+        return time;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+}
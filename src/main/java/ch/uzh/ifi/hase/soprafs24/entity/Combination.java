@@ -17,8 +17,14 @@ public class Combination implements Serializable {
     @Serial
     private static final long serialVersionUID = 1L;
 
+    public static final String ID_SEQUENCE = "combination_sequence";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Pooled sequence so that new combinations do not need a sequence round trip per insert and can be batched.
+    // CombinationService moves the sequence past the existing ids on startup
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(optional = false)
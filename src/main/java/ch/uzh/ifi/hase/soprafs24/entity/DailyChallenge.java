@@ -4,13 +4,14 @@ import org.hibernate.proxy.HibernateProxy;
 
 import javax.persistence.*;
 import java.io.Serializable;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
 
 @Entity
-@Table(name = "DAILYCHALLENGE")
+@Table(name = "DAILYCHALLENGE", indexes = @Index(name = "daily_challenge_date_index", columnList = "challenge_date"))
 public class DailyChallenge implements Serializable {
 
     @Id
@@ -21,6 +22,9 @@ public class DailyChallenge implements Serializable {
     @JoinColumn(name="target_word")
     private Word targetWord;
 
+    @Column(name = "challenge_date")
+    private LocalDate date;
+
     @OneToMany(mappedBy = "dailyChallenge", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<DailyChallengeRecord> challengeRecords = new ArrayList<>();
 
@@ -65,6 +69,14 @@ public class DailyChallenge implements Serializable {
         this.targetWord = targetWord;
     }
 
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
     public List<DailyChallengeRecord> getChallengeRecords() {
         return challengeRecords;
     }
@@ -0,0 +1,68 @@
+package ch.uzh.ifi.hase.soprafs24.entity;
+
+import javax.persistence.*;
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Internal DiscoveryEvent Representation
+ * One combination made by a player, appended to the discovery log and never updated.
+ * The combination is stored by id instead of as a reference, which fixes both words and the result in one column,
+ * without a foreign key that would keep the combination from being removed.
+ */
+@Entity
+@Table(name = "DISCOVERYEVENT", indexes = @Index(name = "discovery_event_time_index", columnList = "event_time"))
+public class DiscoveryEvent implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @Column(name = "event_time", nullable = false, updatable = false)
+    private LocalDateTime time;
+
+    @Column(nullable = false, updatable = false)
+    private long combinationId;
+
+    // The result was added to the word database by this combination
+    @Column(nullable = false, updatable = false)
+    private boolean newlyDiscovered;
+
+    // The result was generated by the LLM instead of found in the combination table
+    @Column(nullable = false, updatable = false)
+    private boolean generated;
+
+    public DiscoveryEvent() {
+    }
+
+    public DiscoveryEvent(LocalDateTime time, long combinationId, boolean newlyDiscovered, boolean generated) {
+        this.time = time;
+        this.combinationId = combinationId;
+        this.newlyDiscovered = newlyDiscovered;
+        this.generated = generated;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDateTime getTime() {
+        return time;
+    }
+
+    public long getCombinationId() {
+        return combinationId;
+    }
+
+    public boolean isNewlyDiscovered() {
+        return newlyDiscovered;
+    }
+
+    public boolean isGenerated() {
+        return generated;
+    }
+}
@@ -0,0 +1,55 @@
+package ch.uzh.ifi.hase.soprafs24.entity;
+
+import javax.persistence.*;
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Internal DiscoveryPairRollup Representation
+ * How often a combination was made in one hour. There is one combination per pair of words, in either order,
+ * so it counts both orders of the pair and also tells the result the pair was combined into.
+ */
+@Entity
+@Table(name = "DISCOVERYPAIRROLLUP")
+@IdClass(DiscoveryPairRollupId.class)
+public class DiscoveryPairRollup implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    // Start of the hour, HOUR is a keyword in some databases
+    @Id
+    @Column(name = "rollup_hour")
+    private LocalDateTime hour;
+
+    @Id
+    private long combinationId;
+
+    @Column(nullable = false)
+    private int combinations;
+
+    public DiscoveryPairRollup() {
+    }
+
+    public DiscoveryPairRollup(LocalDateTime hour, long combinationId) {
+        this.hour = hour;
+        this.combinationId = combinationId;
+    }
+
+    public void add(int combinations) {
+        this.combinations += combinations;
+    }
+
+    public LocalDateTime getHour() {
+        return hour;
+    }
+
+    public long getCombinationId() {
+        return combinationId;
+    }
+
+    public int getCombinations() {
+        return combinations;
+    }
+}
@@ -0,0 +1,31 @@
+package ch.uzh.ifi.hase.soprafs24.entity;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+public class DiscoveryPairRollupId implements Serializable {
+    private LocalDateTime hour;
+
+    private long combinationId;
+
+    public DiscoveryPairRollupId() {
+    }
+
+    public DiscoveryPairRollupId(LocalDateTime hour, long combinationId) {
+        this.hour = hour;
+        this.combinationId = combinationId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DiscoveryPairRollupId that)) return false;
+        return Objects.equals(hour, that.hour) && combinationId == that.combinationId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(hour, combinationId);
+    }
+}
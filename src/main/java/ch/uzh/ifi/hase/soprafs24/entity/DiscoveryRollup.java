@@ -0,0 +1,69 @@
+package ch.uzh.ifi.hase.soprafs24.entity;
+
+import javax.persistence.*;
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Internal DiscoveryRollup Representation
+ * Totals of the discovery log for one minute, so time ranges are read without scanning the events.
+ */
+@Entity
+@Table(name = "DISCOVERYROLLUP")
+public class DiscoveryRollup implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    // Start of the minute, MINUTE is a keyword in some databases
+    @Id
+    @Column(name = "rollup_minute")
+    private LocalDateTime minute;
+
+    @Column(nullable = false)
+    private int combinations;
+
+    @Column(nullable = false)
+    private int newWords;
+
+    @Column(nullable = false)
+    private int generated;
+
+    @Column(nullable = false)
+    private int cached;
+
+    public DiscoveryRollup() {
+    }
+
+    public DiscoveryRollup(LocalDateTime minute) {
+        this.minute = minute;
+    }
+
+    public void add(DiscoveryEvent event) {
+        combinations++;
+        if (event.isNewlyDiscovered()) newWords++;
+        if (event.isGenerated()) generated++;
+        else cached++;
+    }
+
+    public LocalDateTime getMinute() {
+        return minute;
+    }
+
+    public int getCombinations() {
+        return combinations;
+    }
+
+    public int getNewWords() {
+        return newWords;
+    }
+
+    public int getGenerated() {
+        return generated;
+    }
+
+    public int getCached() {
+        return cached;
+    }
+}
@@ -17,7 +17,7 @@ import java.util.Objects;
  * This class composes the internal representation of the lobby and defines how the lobby is stored in the database.
  */
 @Entity
-@Table(name = "LOBBY")
+@Table(name = "LOBBY", indexes = @Index(name = "lobby_last_modified_index", columnList = "lastModified"))
 public class Lobby implements Serializable {
 
     @Serial
@@ -7,7 +7,6 @@ import javax.persistence.*;
 import java.io.Serial;
 import java.io.Serializable;
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.Objects;
 
 /**
@@ -37,9 +36,17 @@ public class Player implements Serializable {
     @OneToOne(mappedBy = "player")
     private User user;
 
-    @OneToMany(mappedBy = "player", cascade = CascadeType.ALL, orphanRemoval = true)
+    // No orphan removal: PlayerService deletes the words of reset players in bulk, clearing only updates the player in memory
+    @OneToMany(mappedBy = "player", cascade = CascadeType.ALL)
     private Set<PlayerWord> playerWords = new HashSet<>();
 
+    // Index of playerWords keyed by word name, built lazily since Hibernate populates playerWords directly
+    @Transient
+    private Map<String, PlayerWord> wordIndex;
+
+    @Transient
+    private int totalUses;
+
     @ManyToOne
     private Word targetWord;
 
@@ -134,48 +141,87 @@ public class Player implements Serializable {
         return playerWords;
     }
 
-    public PlayerWord getPlayerWord(Word word) {
-        for (PlayerWord playerWord : playerWords) {
-            if (Objects.equals(playerWord.getWord(), word)) {
-                return playerWord;
+    private Map<String, PlayerWord> getWordIndex() {
+        if (wordIndex == null) {
+            wordIndex = new LinkedHashMap<>();
+            totalUses = 0;
+            for (PlayerWord playerWord : playerWords) {
+                wordIndex.put(playerWord.getWord().getName(), playerWord);
+                totalUses += usesOf(playerWord);
             }
         }
-        return null;
+        return wordIndex;
+    }
+
+    private static int usesOf(PlayerWord playerWord) {
+        return Objects.requireNonNullElse(playerWord.getUses(), 0);
+    }
+
+    public PlayerWord getPlayerWord(Word word) {
+        if (word == null) return null;
+        return getWordIndex().get(word.getName());
+    }
+
+    public boolean hasWord(Word word) {
+        return getPlayerWord(word) != null;
     }
 
     public void clearPlayerWords() {
         playerWords.clear();
+        getWordIndex().clear();
+        totalUses = 0;
     }
 
     public List<Word> getWords() {
-        return playerWords.stream().map(PlayerWord::getWord).toList();
+        return getWordIndex().values().stream().map(PlayerWord::getWord).toList();
     }
 
     public void addWords(List<Word> words) {
-        playerWords.addAll(words.stream().map(word -> new PlayerWord(this, word)).collect(Collectors.toSet()));
+        for (Word word : words) {
+            addWord(word);
+        }
     }
 
     public void addWords(List<Word> words, Integer uses) {
         addWords(words);
         playerWords.forEach(playerWord -> playerWord.setUses(uses));
+        totalUses = Objects.requireNonNullElse(uses, 0) * playerWords.size();
     }
 
     public void addWord(Word word) {
-        playerWords.add(new PlayerWord(this, word));
+        if (!hasWord(word)) {
+            putPlayerWord(new PlayerWord(this, word));
+        }
     }
 
     public void addWord(Word word, int uses) {
         PlayerWord playerWord = getPlayerWord(word);
         if (playerWord != null) {
             playerWord.addUses(uses);
+            totalUses += uses;
         }
         else {
-            playerWords.add(new PlayerWord(this, word, uses));
+            putPlayerWord(new PlayerWord(this, word, uses));
+        }
+    }
+
+    public void addUses(Word word, int uses) {
+        PlayerWord playerWord = getPlayerWord(word);
+        if (playerWord != null) {
+            playerWord.addUses(uses);
+            totalUses += uses;
         }
     }
 
+    private void putPlayerWord(PlayerWord playerWord) {
+        getWordIndex().put(playerWord.getWord().getName(), playerWord);
+        playerWords.add(playerWord);
+        totalUses += usesOf(playerWord);
+    }
+
     public Integer getTotalUses() {
-        return playerWords.stream().mapToInt(PlayerWord::getUses).sum();
+        getWordIndex();
+        return totalUses;
     }
 
     public Word getTargetWord() {
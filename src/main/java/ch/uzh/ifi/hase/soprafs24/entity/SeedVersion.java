@@ -0,0 +1,47 @@
+package ch.uzh.ifi.hase.soprafs24.entity;
+
+import javax.persistence.*;
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Internal SeedVersion Representation
+ * Remembers which version of a seed dataset has been loaded into the database.
+ */
+@Entity
+@Table(name = "SEEDVERSION")
+public class SeedVersion implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private int version;
+
+    public SeedVersion() {
+    }
+
+    public SeedVersion(String name, int version) {
+        this.name = name;
+        this.version = version;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+}
@@ -2,6 +2,7 @@ package ch.uzh.ifi.hase.soprafs24.entity;
 
 import ch.uzh.ifi.hase.soprafs24.constant.UserStatus;
 import ch.uzh.ifi.hase.soprafs24.entity.achievements.Achievement;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.proxy.HibernateProxy;
 
 import javax.persistence.*;
@@ -25,7 +26,13 @@ import java.util.Set;
  * the primary key
  */
 @Entity
-@Table(name = "USERS")
+// Only changed columns are written, the statistics counters are incremented in the database by UserStatisticsService
+@DynamicUpdate
+@Table(name = "USERS", indexes = {
+        @Index(name = "user_wins_index", columnList = "wins, id"),
+        @Index(name = "user_combinations_made_index", columnList = "combinationsMade, id"),
+        @Index(name = "user_discovered_words_index", columnList = "discoveredWords, id")
+})
 public class User implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -1,7 +1,7 @@
 package ch.uzh.ifi.hase.soprafs24.entity.achievements;
 
-import ch.uzh.ifi.hase.soprafs24.entity.Combination;
-import ch.uzh.ifi.hase.soprafs24.entity.Player;
+import ch.uzh.ifi.hase.soprafs24.constant.GameEventType;
+import ch.uzh.ifi.hase.soprafs24.game.GameEvent;
 import org.hibernate.proxy.HibernateProxy;
 
 import javax.persistence.*;
@@ -33,7 +33,12 @@ public abstract class Achievement implements Serializable {
     @Column
     private boolean hidden = false;
 
-    public abstract boolean unlockConditionFulfilled(Player player, Combination combination);
+    /**
+     * The only event type after which the unlock condition is evaluated.
+     */
+    public abstract GameEventType triggeredBy();
+
+    public abstract boolean unlockConditionFulfilled(GameEvent event);
 
     @Override
     public final boolean equals(Object o) {
@@ -1,7 +1,7 @@
 package ch.uzh.ifi.hase.soprafs24.entity.achievements;
 
-import ch.uzh.ifi.hase.soprafs24.entity.Combination;
-import ch.uzh.ifi.hase.soprafs24.entity.Player;
+import ch.uzh.ifi.hase.soprafs24.constant.GameEventType;
+import ch.uzh.ifi.hase.soprafs24.game.GameEvent;
 
 import javax.persistence.Entity;
 
@@ -15,7 +15,11 @@ public class CreatedWordOver10Characters extends Achievement {
         setProfilePicture("architect");
     }
 
-    public boolean unlockConditionFulfilled(Player player, Combination combination) {
-        return combination.getResult().getName().length() >= 10;
+    public GameEventType triggeredBy() {
+        return GameEventType.COMBINATION_MADE;
+    }
+
+    public boolean unlockConditionFulfilled(GameEvent event) {
+        return event.result().length() >= 10;
     }
 }
@@ -1,8 +1,8 @@
 package ch.uzh.ifi.hase.soprafs24.entity.achievements;
 
+import ch.uzh.ifi.hase.soprafs24.constant.GameEventType;
 import ch.uzh.ifi.hase.soprafs24.constant.PlayerStatus;
-import ch.uzh.ifi.hase.soprafs24.entity.Combination;
-import ch.uzh.ifi.hase.soprafs24.entity.Player;
+import ch.uzh.ifi.hase.soprafs24.game.GameEvent;
 
 import javax.persistence.Entity;
 
@@ -16,9 +16,13 @@ public class LostAsOwner extends Achievement {
         setProfilePicture("crowned_sad_face");
     }
 
-    public boolean unlockConditionFulfilled(Player player, Combination combination) {
-        return player.getStatus() == PlayerStatus.LOST
-                && player.getLobby().getPlayers().size() >= 2
-                && player.getLobby().getOwner() == player;
+    public GameEventType triggeredBy() {
+        return GameEventType.GAME_LOST;
+    }
+
+    public boolean unlockConditionFulfilled(GameEvent event) {
+        return event.status() == PlayerStatus.LOST
+                && event.playerCount() >= 2
+                && event.owner();
     }
 }
@@ -1,11 +1,9 @@
 package ch.uzh.ifi.hase.soprafs24.entity.achievements;
 
-import ch.uzh.ifi.hase.soprafs24.entity.Combination;
-import ch.uzh.ifi.hase.soprafs24.entity.Lobby;
-import ch.uzh.ifi.hase.soprafs24.entity.Player;
+import ch.uzh.ifi.hase.soprafs24.constant.GameEventType;
+import ch.uzh.ifi.hase.soprafs24.game.GameEvent;
 
 import javax.persistence.Entity;
-import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 
 
@@ -18,11 +16,14 @@ public class MadeCombination3SecondsLeft extends Achievement {
         setProfilePicture("speedrunner");
     }
 
-    public boolean unlockConditionFulfilled(Player player, Combination combination) {
-        Lobby lobby = player.getLobby();
-        Integer gameTime = player.getLobby().getGameTime();
+    public GameEventType triggeredBy() {
+        return GameEventType.COMBINATION_MADE;
+    }
+
+    public boolean unlockConditionFulfilled(GameEvent event) {
+        int gameTime = event.gameTime();
         if (gameTime <= 0) return false;
-        long elapsedSeconds = ChronoUnit.SECONDS.between(lobby.getStartTime(), LocalDateTime.now());
+        long elapsedSeconds = ChronoUnit.SECONDS.between(event.startTime(), event.time());
         return gameTime - elapsedSeconds <= 3;
     }
 }
@@ -1,8 +1,8 @@
 package ch.uzh.ifi.hase.soprafs24.entity.achievements;
 
+import ch.uzh.ifi.hase.soprafs24.constant.GameEventType;
 import ch.uzh.ifi.hase.soprafs24.constant.PlayerStatus;
-import ch.uzh.ifi.hase.soprafs24.entity.Combination;
-import ch.uzh.ifi.hase.soprafs24.entity.Player;
+import ch.uzh.ifi.hase.soprafs24.game.GameEvent;
 
 import javax.persistence.Entity;
 
@@ -17,9 +17,13 @@ public class MadeNoNewWords extends Achievement {
         setHidden(true);
     }
 
-    public boolean unlockConditionFulfilled(Player player, Combination combination) {
-        return player.getLobby().getPlayers().size() >= 2
-                && player.getPlayerWords().size() == 4
-                && player.getStatus() == PlayerStatus.LOST;
+    public GameEventType triggeredBy() {
+        return GameEventType.COMBINATION_MADE;
+    }
+
+    public boolean unlockConditionFulfilled(GameEvent event) {
+        return event.playerCount() >= 2
+                && event.wordCount() == 4
+                && event.status() == PlayerStatus.LOST;
     }
 }
@@ -1,9 +1,9 @@
 package ch.uzh.ifi.hase.soprafs24.entity.achievements;
 
+import ch.uzh.ifi.hase.soprafs24.constant.GameEventType;
 import ch.uzh.ifi.hase.soprafs24.constant.GameMode;
 import ch.uzh.ifi.hase.soprafs24.constant.PlayerStatus;
-import ch.uzh.ifi.hase.soprafs24.entity.Combination;
-import ch.uzh.ifi.hase.soprafs24.entity.Player;
+import ch.uzh.ifi.hase.soprafs24.game.GameEvent;
 
 import javax.persistence.Entity;
 
@@ -17,9 +17,13 @@ public class PlayedSandboxInFiniteFusion extends Achievement {
         setProfilePicture("get_over_it");
     }
 
-    public boolean unlockConditionFulfilled(Player player, Combination combination) {
-        return player.getPoints() >= 5
-                && player.getStatus() == PlayerStatus.LOST
-                && player.getLobby().getMode() == GameMode.FINITEFUSION;
+    public GameEventType triggeredBy() {
+        return GameEventType.COMBINATION_MADE;
+    }
+
+    public boolean unlockConditionFulfilled(GameEvent event) {
+        return event.points() >= 5
+                && event.status() == PlayerStatus.LOST
+                && event.mode() == GameMode.FINITEFUSION;
     }
 }
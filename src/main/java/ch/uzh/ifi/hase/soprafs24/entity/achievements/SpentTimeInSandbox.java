@@ -1,12 +1,10 @@
 package ch.uzh.ifi.hase.soprafs24.entity.achievements;
 
+import ch.uzh.ifi.hase.soprafs24.constant.GameEventType;
 import ch.uzh.ifi.hase.soprafs24.constant.GameMode;
-import ch.uzh.ifi.hase.soprafs24.entity.Combination;
-import ch.uzh.ifi.hase.soprafs24.entity.Lobby;
-import ch.uzh.ifi.hase.soprafs24.entity.Player;
+import ch.uzh.ifi.hase.soprafs24.game.GameEvent;
 
 import javax.persistence.Entity;
-import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 
 
@@ -19,12 +17,15 @@ public class SpentTimeInSandbox extends Achievement {
         setProfilePicture("sandcastle_v2");
     }
 
-    public boolean unlockConditionFulfilled(Player player, Combination combination) {
-        Lobby lobby = player.getLobby();
-        long minutes = ChronoUnit.MINUTES.between(lobby.getStartTime(), LocalDateTime.now());
+    public GameEventType triggeredBy() {
+        return GameEventType.COMBINATION_MADE;
+    }
+
+    public boolean unlockConditionFulfilled(GameEvent event) {
+        long minutes = ChronoUnit.MINUTES.between(event.startTime(), event.time());
 
         return minutes >= 10
-                && lobby.getPlayers().size() == 1
-                && lobby.getMode() == GameMode.STANDARD;
+                && event.playerCount() == 1
+                && event.mode() == GameMode.STANDARD;
     }
 }
@@ -1,7 +1,7 @@
 package ch.uzh.ifi.hase.soprafs24.entity.achievements;
 
-import ch.uzh.ifi.hase.soprafs24.entity.Combination;
-import ch.uzh.ifi.hase.soprafs24.entity.Player;
+import ch.uzh.ifi.hase.soprafs24.constant.GameEventType;
+import ch.uzh.ifi.hase.soprafs24.game.GameEvent;
 
 import javax.persistence.Entity;
 
@@ -15,7 +15,11 @@ public class Won100Times extends Achievement {
         setProfilePicture("sunglasses_gorilla");
     }
 
-    public boolean unlockConditionFulfilled(Player player, Combination combination) {
-        return player.getUser().getWins() >= 100;
+    public GameEventType triggeredBy() {
+        return GameEventType.GAME_WON;
+    }
+
+    public boolean unlockConditionFulfilled(GameEvent event) {
+        return event.wins() >= 100;
     }
 }
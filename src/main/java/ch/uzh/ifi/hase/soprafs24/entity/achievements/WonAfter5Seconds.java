@@ -1,12 +1,10 @@
 package ch.uzh.ifi.hase.soprafs24.entity.achievements;
 
+import ch.uzh.ifi.hase.soprafs24.constant.GameEventType;
 import ch.uzh.ifi.hase.soprafs24.constant.PlayerStatus;
-import ch.uzh.ifi.hase.soprafs24.entity.Combination;
-import ch.uzh.ifi.hase.soprafs24.entity.Lobby;
-import ch.uzh.ifi.hase.soprafs24.entity.Player;
+import ch.uzh.ifi.hase.soprafs24.game.GameEvent;
 
 import javax.persistence.Entity;
-import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 
 
@@ -19,10 +17,13 @@ public class WonAfter5Seconds extends Achievement {
         setProfilePicture("i_am_speed");
     }
 
-    public boolean unlockConditionFulfilled(Player player, Combination combination) {
-        Lobby lobby = player.getLobby();
-        long elapsedSeconds = ChronoUnit.SECONDS.between(lobby.getStartTime(), LocalDateTime.now());
-        return player.getStatus() == PlayerStatus.WON
+    public GameEventType triggeredBy() {
+        return GameEventType.GAME_WON;
+    }
+
+    public boolean unlockConditionFulfilled(GameEvent event) {
+        long elapsedSeconds = ChronoUnit.SECONDS.between(event.startTime(), event.time());
+        return event.status() == PlayerStatus.WON
                 && elapsedSeconds <= 5;
     }
 }
@@ -1,8 +1,8 @@
 package ch.uzh.ifi.hase.soprafs24.entity.achievements;
 
+import ch.uzh.ifi.hase.soprafs24.constant.GameEventType;
 import ch.uzh.ifi.hase.soprafs24.constant.PlayerStatus;
-import ch.uzh.ifi.hase.soprafs24.entity.Combination;
-import ch.uzh.ifi.hase.soprafs24.entity.Player;
+import ch.uzh.ifi.hase.soprafs24.game.GameEvent;
 
 import javax.persistence.Entity;
 
@@ -16,8 +16,12 @@ public class WonAgainst7 extends Achievement {
         setProfilePicture("octopus");
     }
 
-    public boolean unlockConditionFulfilled(Player player, Combination combination) {
-        return player.getStatus() == PlayerStatus.WON
-                && player.getLobby().getPlayers().size() >= 8;
+    public GameEventType triggeredBy() {
+        return GameEventType.GAME_WON;
+    }
+
+    public boolean unlockConditionFulfilled(GameEvent event) {
+        return event.status() == PlayerStatus.WON
+                && event.playerCount() >= 8;
     }
 }
@@ -1,11 +1,10 @@
 package ch.uzh.ifi.hase.soprafs24.entity.achievements;
 
+import ch.uzh.ifi.hase.soprafs24.constant.GameEventType;
 import ch.uzh.ifi.hase.soprafs24.constant.PlayerStatus;
-import ch.uzh.ifi.hase.soprafs24.entity.Combination;
-import ch.uzh.ifi.hase.soprafs24.entity.Player;
+import ch.uzh.ifi.hase.soprafs24.game.GameEvent;
 
 import javax.persistence.Entity;
-import java.util.List;
 
 
 @Entity
@@ -17,14 +16,13 @@ public class WonBeforeOtherPlayersPlayed extends Achievement {
         setProfilePicture("flash_dc");
     }
 
-    public boolean unlockConditionFulfilled(Player player, Combination combination) {
-        List<Player> players = player.getLobby().getPlayers();
-        for (Player otherPlayer : players) {
-            if (otherPlayer != player && otherPlayer.getPlayerWords().size() >= 5) {
-                return false;
-            }
-        }
-        return player.getStatus() == PlayerStatus.WON
-                && players.size() >= 3;
+    public GameEventType triggeredBy() {
+        return GameEventType.GAME_WON;
+    }
+
+    public boolean unlockConditionFulfilled(GameEvent event) {
+        return event.mostWordsOfOtherPlayers() < 5
+                && event.status() == PlayerStatus.WON
+                && event.playerCount() >= 3;
     }
 }
@@ -1,9 +1,9 @@
 package ch.uzh.ifi.hase.soprafs24.entity.achievements;
 
+import ch.uzh.ifi.hase.soprafs24.constant.GameEventType;
 import ch.uzh.ifi.hase.soprafs24.constant.GameMode;
 import ch.uzh.ifi.hase.soprafs24.constant.PlayerStatus;
-import ch.uzh.ifi.hase.soprafs24.entity.Combination;
-import ch.uzh.ifi.hase.soprafs24.entity.Player;
+import ch.uzh.ifi.hase.soprafs24.game.GameEvent;
 
 import javax.persistence.Entity;
 
@@ -18,10 +18,14 @@ public class WonWomboComboWithoutTarget extends Achievement {
         setHidden(true);
     }
 
-    public boolean unlockConditionFulfilled(Player player, Combination combination) {
-        int mergedWords = player.getPlayerWords().size() - 4;
-        return player.getStatus() == PlayerStatus.WON
-                && player.getLobby().getMode() == GameMode.WOMBOCOMBO
-                && mergedWords == player.getPoints();
+    public GameEventType triggeredBy() {
+        return GameEventType.GAME_WON;
+    }
+
+    public boolean unlockConditionFulfilled(GameEvent event) {
+        int mergedWords = event.wordCount() - 4;
+        return event.status() == PlayerStatus.WON
+                && event.mode() == GameMode.WOMBOCOMBO
+                && mergedWords == event.points();
     }
 }
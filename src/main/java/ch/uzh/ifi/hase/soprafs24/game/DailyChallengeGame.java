@@ -25,8 +25,8 @@ public class DailyChallengeGame extends Game {
     public void setupPlayers(List<Player> players) {
         setupStartingWords();
         Word targetWord = dailyChallengeService.getTargetWord();
+        playerService.resetPlayers(players);
         for (Player player : players) {
-            playerService.resetPlayer(player);
             player.addWords(startingWords);
             player.setTargetWord(targetWord);
             player.setStatus(PlayerStatus.PLAYING);
@@ -39,7 +39,7 @@ public class DailyChallengeGame extends Game {
             Combination combination = combinationService.getCombination(words.get(0), words.get(1));
             Word result = combination.getResult();
             player.addPoints(1);
-            if (!player.getWords().contains(result)) {
+            if (!player.hasWord(result)) {
                 player.addWord(result);
             }
             return combination;
@@ -51,6 +51,6 @@ public class DailyChallengeGame extends Game {
 
     @Override
     public boolean winConditionReached(Player player) {
-        return player.getWords().contains(player.getTargetWord());
+        return player.hasWord(player.getTargetWord());
     }
 }
@@ -27,8 +27,8 @@ public class FiniteFusionGame extends Game {
         setupStartingWords();
         Word targetWord = wordService.selectTargetWord(minReachability, maxReachability, maxDepth);
         int starting_uses = 2 + targetWord.getDepth() * 2;
+        playerService.resetPlayers(players);
         for (Player player : players) {
-            playerService.resetPlayer(player);
             player.addWords(startingWords, starting_uses);
             player.setTargetWord(targetWord);
             player.setStatus(PlayerStatus.PLAYING);
@@ -55,11 +55,11 @@ public class FiniteFusionGame extends Game {
         PlayerWord playerWord1 = player.getPlayerWord(words.get(0));
         PlayerWord playerWord2 = player.getPlayerWord(words.get(1));
         if (playerWord1.getUses() > 0 && playerWord2.getUses() > 0) {
-            playerWord1.addUses(-1);
-            playerWord2.addUses(-1);
+            player.addUses(words.get(0), -1);
+            player.addUses(words.get(1), -1);
             Combination combination = combinationService.getCombination(words.get(0), words.get(1));
             Word result = combination.getResult();
-            if (!player.getWords().contains(result)) {
+            if (!player.hasWord(result)) {
                 player.addPoints(1);
             }
             player.addWord(result, 1);
@@ -82,7 +82,7 @@ public class FiniteFusionGame extends Game {
 
     private Combination playCasual(Player player, List<Word> words) {
         Combination combination = combinationService.getCombination(words.get(0), words.get(1));
-        if (!player.getWords().contains(combination.getResult())) {
+        if (!player.hasWord(combination.getResult())) {
             player.addPoints(1);
             player.addWord(combination.getResult());
         }
@@ -91,6 +91,6 @@ public class FiniteFusionGame extends Game {
 
     @Override
     public boolean winConditionReached(Player player) {
-        return player.getStatus() == PlayerStatus.PLAYING && player.getWords().contains(player.getTargetWord());
+        return player.getStatus() == PlayerStatus.PLAYING && player.hasWord(player.getTargetWord());
     }
 }
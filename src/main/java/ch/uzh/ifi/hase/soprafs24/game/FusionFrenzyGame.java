@@ -24,8 +24,8 @@ public class FusionFrenzyGame extends Game {
     public void setupPlayers(List<Player> players) {
         setupStartingWords();
         Word targetWord = wordService.selectTargetWord(minReachability, maxReachability);
+        playerService.resetPlayers(players);
         for (Player player : players) {
-            playerService.resetPlayer(player);
             player.addWords(startingWords);
             player.setTargetWord(targetWord);
             player.setStatus(PlayerStatus.PLAYING);
@@ -37,7 +37,7 @@ public class FusionFrenzyGame extends Game {
         if (words.size() == 2) {
             Combination combination = combinationService.getCombination(words.get(0), words.get(1));
             Word result = combination.getResult();
-            if (!player.getWords().contains(result)) {
+            if (!player.hasWord(result)) {
                 player.addPoints(1);
                 player.addWord(result);
             }
@@ -50,6 +50,6 @@ public class FusionFrenzyGame extends Game {
 
     @Override
     public boolean winConditionReached(Player player) {
-        return player.getWords().contains(player.getTargetWord());
+        return player.hasWord(player.getTargetWord());
     }
 }
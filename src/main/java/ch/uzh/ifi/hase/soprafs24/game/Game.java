@@ -35,8 +35,8 @@ public class Game {
 
     public void setupPlayers(List<Player> players) {
         setupStartingWords();
+        playerService.resetPlayers(players);
         for (Player player : players) {
-            playerService.resetPlayer(player);
             player.addWords(startingWords);
             player.setStatus(PlayerStatus.PLAYING);
         }
@@ -46,7 +46,7 @@ public class Game {
         if (words.size() == 2) {
             Combination combination = combinationService.getCombination(words.get(0), words.get(1));
             Word result = combination.getResult();
-            if (!player.getWords().contains(result)) {
+            if (!player.hasWord(result)) {
                 player.addPoints(1);
                 player.addWord(result);
             }
@@ -0,0 +1,55 @@
+package ch.uzh.ifi.hase.soprafs24.game;
+
+import ch.uzh.ifi.hase.soprafs24.constant.GameEventType;
+import ch.uzh.ifi.hase.soprafs24.constant.GameMode;
+import ch.uzh.ifi.hase.soprafs24.constant.PlayerStatus;
+import ch.uzh.ifi.hase.soprafs24.entity.Combination;
+import ch.uzh.ifi.hase.soprafs24.entity.Lobby;
+import ch.uzh.ifi.hase.soprafs24.entity.Player;
+import ch.uzh.ifi.hase.soprafs24.entity.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Snapshot of something that happened to a player during a game. Achievements are only evaluated for the event
+ * types they are triggered by, and since the snapshot holds no entities they can be evaluated after the move
+ * has been committed, on another thread.
+ * The result is null for GAME_WON and GAME_LOST, mostWordsOfOtherPlayers is only collected for those two types.
+ */
+public record GameEvent(GameEventType type, LocalDateTime time, long userId,
+                        String result, PlayerStatus status, long points, int wordCount,
+                        GameMode mode, int gameTime, LocalDateTime startTime, int playerCount, boolean owner,
+                        int mostWordsOfOtherPlayers,
+                        int wins, int combinationsMade, int discoveredWords) {
+
+    public static GameEvent of(GameEventType type, Player player, Combination combination) {
+        return of(type, player, combination, 0, 0);
+    }
+
+    /**
+     * Creates the event with the combinations and discovered words of the user that have not been flushed to it yet.
+     */
+    public static GameEvent of(GameEventType type, Player player, Combination combination,
+                               int pendingCombinationsMade, int pendingDiscoveredWords) {
+        User user = player.getUser();
+        Lobby lobby = player.getLobby();
+
+        int mostWordsOfOtherPlayers = 0;
+        if (type == GameEventType.GAME_WON || type == GameEventType.GAME_LOST) {
+            for (Player otherPlayer : lobby.getPlayers()) {
+                if (otherPlayer != player) {
+                    mostWordsOfOtherPlayers = Math.max(mostWordsOfOtherPlayers, otherPlayer.getPlayerWords().size());
+                }
+            }
+        }
+
+        return new GameEvent(type, LocalDateTime.now(), user.getId(),
+                combination == null ? null : combination.getResult().getName(),
+                player.getStatus(), player.getPoints(), player.getPlayerWords().size(),
+                lobby.getMode(), lobby.getGameTime() == null ? 0 : lobby.getGameTime(), lobby.getStartTime(),
+                lobby.getPlayers().size(), lobby.getOwner() == player,
+                mostWordsOfOtherPlayers,
+                user.getWins(), user.getCombinationsMade() + pendingCombinationsMade,
+                user.getDiscoveredWords() + pendingDiscoveredWords);
+    }
+}
@@ -23,8 +23,8 @@ public class WomboComboGame extends Game {
     @Override
     public void setupPlayers(List<Player> players) {
         setupStartingWords();
+        playerService.resetPlayers(players);
         for (Player player : players) {
-            playerService.resetPlayer(player);
             player.addWords(startingWords);
             Word targetWord = wordService.selectTargetWord(minReachability, maxReachability);
             player.setTargetWord(targetWord);
@@ -42,12 +42,12 @@ public class WomboComboGame extends Game {
         Combination combination = combinationService.getCombination(words.get(0), words.get(1));
         Word result = combination.getResult();
 
-        if (!player.getWords().contains(result)) {
+        if (!player.hasWord(result)) {
             player.addPoints(1);
             player.addWord(result);
         }
 
-        if (player.getWords().contains(player.getTargetWord())) {
+        if (player.hasWord(player.getTargetWord())) {
             player.addPoints(10);
             player.addWord(result);
             setNewTargetWord(player);
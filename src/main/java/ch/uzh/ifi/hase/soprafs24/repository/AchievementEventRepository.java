@@ -0,0 +1,27 @@
+package ch.uzh.ifi.hase.soprafs24.repository;
+
+import ch.uzh.ifi.hase.soprafs24.entity.AchievementEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository("achievementEventRepository")
+public interface AchievementEventRepository extends JpaRepository<AchievementEvent, Long> {
+
+    @Query("SELECT event.id FROM AchievementEvent event WHERE event.time < :time ORDER BY event.id")
+    List<Long> findIdsByTimeBefore(LocalDateTime time, Pageable pageable);
+
+    // Returns 0 if the event was already removed, so an event queued twice is not a failure
+    @Modifying
+    @Query("DELETE FROM AchievementEvent event WHERE event.id = :id")
+    int deleteEventById(long id);
+
+    @Modifying
+    @Query("UPDATE AchievementEvent event SET event.attempts = event.attempts + 1 WHERE event.id = :id")
+    int incrementAttempts(long id);
+}
@@ -1,13 +1,33 @@
 package ch.uzh.ifi.hase.soprafs24.repository;
 
+import ch.uzh.ifi.hase.soprafs24.entity.DailyChallenge;
 import ch.uzh.ifi.hase.soprafs24.entity.DailyChallengeRecord;
 import ch.uzh.ifi.hase.soprafs24.entity.DailyChallengeRecordId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 @Repository("dailyChallengeRecordRepository")
 public interface DailyChallengeRecordRepository extends JpaRepository<DailyChallengeRecord, DailyChallengeRecordId> {
     Optional<DailyChallengeRecord> findById(DailyChallengeRecordId id);
+
+    interface Score {
+        Long getUserId();
+        long getNumberOfCombinations();
+    }
+
+    @Query("SELECT record.user.id AS userId, record.numberOfCombinations AS numberOfCombinations FROM DailyChallengeRecord record WHERE record.dailyChallenge = :dailyChallenge")
+    List<Score> findScoresByDailyChallenge(DailyChallenge dailyChallenge);
+
+    List<DailyChallengeRecord> findAllByDailyChallenge(DailyChallenge dailyChallenge);
+
+    @Modifying
+    @Query("DELETE FROM DailyChallengeRecord record WHERE record.dailyChallenge IN (SELECT dailyChallenge FROM DailyChallenge dailyChallenge " +
+            "WHERE dailyChallenge.date < :date OR dailyChallenge.date IS NULL)")
+    int deleteAllByDailyChallengeDateBeforeOrUndated(LocalDate date);
 }
@@ -2,9 +2,22 @@ package ch.uzh.ifi.hase.soprafs24.repository;
 
 import ch.uzh.ifi.hase.soprafs24.entity.DailyChallenge;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+
 @Repository("dailyChallengeRepository")
 public interface DailyChallengeRepository extends JpaRepository<DailyChallenge, Long> {
     DailyChallenge findById(long id);
+
+    DailyChallenge findFirstByDateLessThanEqualOrderByDateDescIdDesc(LocalDate date);
+
+    DailyChallenge findFirstByDateOrderByIdDesc(LocalDate date);
+
+    // Challenges created before they had a date have none, they are removed as well
+    @Modifying
+    @Query("DELETE FROM DailyChallenge dailyChallenge WHERE dailyChallenge.date < :date OR dailyChallenge.date IS NULL")
+    int deleteAllByDateBeforeOrUndated(LocalDate date);
 }
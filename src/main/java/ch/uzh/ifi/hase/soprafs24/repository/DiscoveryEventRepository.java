@@ -0,0 +1,17 @@
+package ch.uzh.ifi.hase.soprafs24.repository;
+
+import ch.uzh.ifi.hase.soprafs24.entity.DiscoveryEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository("discoveryEventRepository")
+public interface DiscoveryEventRepository extends JpaRepository<DiscoveryEvent, Long> {
+
+    @Modifying
+    @Query("DELETE FROM DiscoveryEvent event WHERE event.time < :time")
+    int deleteAllByTimeBefore(LocalDateTime time);
+}
@@ -0,0 +1,45 @@
+package ch.uzh.ifi.hase.soprafs24.repository;
+
+import ch.uzh.ifi.hase.soprafs24.entity.DiscoveryPairRollup;
+import ch.uzh.ifi.hase.soprafs24.entity.DiscoveryPairRollupId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository("discoveryPairRollupRepository")
+public interface DiscoveryPairRollupRepository extends JpaRepository<DiscoveryPairRollup, DiscoveryPairRollupId> {
+
+    interface PairCount {
+        String getWord1();
+        String getWord2();
+        long getCombinations();
+    }
+
+    interface ResultCount {
+        String getWord();
+        long getCombinations();
+    }
+
+    // Rollups of combinations that were removed since are left out by the join
+    @Query("SELECT combination.word1.name AS word1, combination.word2.name AS word2, SUM(rollup.combinations) AS combinations " +
+            "FROM DiscoveryPairRollup rollup, Combination combination " +
+            "WHERE combination.id = rollup.combinationId AND rollup.hour >= :from AND rollup.hour < :to " +
+            "GROUP BY combination.id, combination.word1.name, combination.word2.name " +
+            "ORDER BY SUM(rollup.combinations) DESC, combination.id")
+    List<PairCount> findMostCombinedPairs(LocalDateTime from, LocalDateTime to, Pageable pageable);
+
+    @Query("SELECT combination.result.name AS word, SUM(rollup.combinations) AS combinations " +
+            "FROM DiscoveryPairRollup rollup, Combination combination " +
+            "WHERE combination.id = rollup.combinationId AND rollup.hour >= :from AND rollup.hour < :to " +
+            "GROUP BY combination.result.name ORDER BY SUM(rollup.combinations) DESC, combination.result.name")
+    List<ResultCount> findMostCombinedResults(LocalDateTime from, LocalDateTime to, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM DiscoveryPairRollup rollup WHERE rollup.hour < :hour")
+    int deleteAllByHourBefore(LocalDateTime hour);
+}
@@ -0,0 +1,21 @@
+package ch.uzh.ifi.hase.soprafs24.repository;
+
+import ch.uzh.ifi.hase.soprafs24.entity.DiscoveryRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository("discoveryRollupRepository")
+public interface DiscoveryRollupRepository extends JpaRepository<DiscoveryRollup, LocalDateTime> {
+
+    @Query("SELECT rollup FROM DiscoveryRollup rollup WHERE rollup.minute >= :from AND rollup.minute < :to ORDER BY rollup.minute")
+    List<DiscoveryRollup> findAllInRange(LocalDateTime from, LocalDateTime to);
+
+    @Modifying
+    @Query("DELETE FROM DiscoveryRollup rollup WHERE rollup.minute < :minute")
+    int deleteAllByMinuteBefore(LocalDateTime minute);
+}
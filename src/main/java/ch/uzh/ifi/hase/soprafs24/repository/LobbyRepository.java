@@ -4,17 +4,48 @@ import ch.uzh.ifi.hase.soprafs24.constant.GameMode;
 import ch.uzh.ifi.hase.soprafs24.constant.LobbyStatus;
 import ch.uzh.ifi.hase.soprafs24.entity.Lobby;
 import ch.uzh.ifi.hase.soprafs24.entity.Player;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository("lobbyRepository")
 public interface LobbyRepository extends JpaRepository<Lobby, Long> {
+
+    /**
+     * Directory entry of a lobby, read without loading the players.
+     */
+    interface LobbySummary {
+        long getCode();
+        String getName();
+        Integer getGameTime();
+        LobbyStatus getStatus();
+        GameMode getMode();
+        int getPlayerCount();
+    }
+
     Lobby findByCode(long code);
 
+    // Fetches what LobbyGetDTO reads, so mapping the lobbies does not load the players and users one by one.
+    // The achievements of the users are fetched separately, joining them would repeat each player in the players list
+    @Query("SELECT DISTINCT lobby FROM Lobby lobby LEFT JOIN FETCH lobby.owner LEFT JOIN FETCH lobby.players player LEFT JOIN FETCH player.targetWord " +
+            "LEFT JOIN FETCH player.user playerUser LEFT JOIN FETCH playerUser.rarestWordFound " +
+            "WHERE lobby.publicAccess = :publicAccess")
+    @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
     List<Lobby> findAllByPublicAccess(boolean publicAccess);
 
+    @Query("SELECT DISTINCT lobby FROM Lobby lobby LEFT JOIN FETCH lobby.owner LEFT JOIN FETCH lobby.players player LEFT JOIN FETCH player.targetWord " +
+            "LEFT JOIN FETCH player.user playerUser LEFT JOIN FETCH playerUser.rarestWordFound " +
+            "WHERE lobby.code = :code")
+    @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+    Optional<Lobby> findWithPlayersByCode(long code);
+
     Lobby findByOwner_Id(long ownerId);
 
     List<Lobby> findAllByMode(GameMode mode);
@@ -24,4 +55,21 @@ public interface LobbyRepository extends JpaRepository<Lobby, Long> {
     Lobby findByPlayersIsContaining(Player player);
 
     boolean existsByCode(long code);
+
+    @Query("SELECT lobby.status FROM Lobby lobby WHERE lobby.code = :code")
+    Optional<LobbyStatus> findStatusByCode(long code);
+
+    @Query("SELECT lobby.code FROM Lobby lobby")
+    List<Long> findAllCodes();
+
+    @Query("SELECT lobby.code FROM Lobby lobby WHERE lobby.lastModified < :threshold")
+    List<Long> findCodesByLastModifiedBefore(LocalDateTime threshold);
+
+    @Query("SELECT lobby.code AS code, lobby.name AS name, lobby.gameTime AS gameTime, lobby.status AS status, " +
+            "lobby.mode AS mode, SIZE(lobby.players) AS playerCount FROM Lobby lobby " +
+            "WHERE lobby.publicAccess = true AND lobby.code > :after " +
+            "AND (:mode IS NULL OR lobby.mode = :mode) AND (:status IS NULL OR lobby.status = :status) " +
+            "AND SIZE(lobby.players) BETWEEN :minPlayers AND :maxPlayers ORDER BY lobby.code")
+    List<LobbySummary> findPublicLobbySummaries(long after, GameMode mode, LobbyStatus status,
+                                                int minPlayers, int maxPlayers, Pageable pageable);
 }
@@ -2,12 +2,16 @@ package ch.uzh.ifi.hase.soprafs24.repository;
 
 import ch.uzh.ifi.hase.soprafs24.entity.Player;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 
 @Repository("playerRepository")
 public interface PlayerRepository extends JpaRepository<Player, Long> {
+
     Player findById(long id);
 
     Player findByToken(String token);
@@ -17,4 +21,10 @@ public interface PlayerRepository extends JpaRepository<Player, Long> {
     Player findByOwnedLobby_Code(long ownedLobby_code);
 
     List<Player> findAllByLobby_Code(long lobby_code);
+
+    // Words are fetched separately from the users of the lobby, joining both would multiply the rows
+    @Query("SELECT DISTINCT player FROM Player player LEFT JOIN FETCH player.playerWords playerWord LEFT JOIN FETCH playerWord.word " +
+            "WHERE player.lobby.code = :code ORDER BY player.id")
+    @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+    List<Player> findAllWithWordsByLobbyCode(long code);
 }
@@ -5,15 +5,23 @@ import ch.uzh.ifi.hase.soprafs24.entity.PlayerWord;
 import ch.uzh.ifi.hase.soprafs24.entity.PlayerWordId;
 import ch.uzh.ifi.hase.soprafs24.entity.Word;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository("playerWordRepository")
 public interface PlayerWordRepository extends JpaRepository<PlayerWord, PlayerWordId> {
+
     List<PlayerWord> findAllByPlayer(Player player);
 
     List<PlayerWord> findAllByWord(Word word);
 
     void deleteAllByPlayer(Player player);
+
+    @Modifying
+    @Query("DELETE FROM PlayerWord playerWord WHERE playerWord.player IN :players")
+    int deleteAllByPlayers(Collection<Player> players);
 }
@@ -0,0 +1,9 @@
+package ch.uzh.ifi.hase.soprafs24.repository;
+
+import ch.uzh.ifi.hase.soprafs24.entity.SeedVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository("seedVersionRepository")
+public interface SeedVersionRepository extends JpaRepository<SeedVersion, String> {
+}
@@ -1,13 +1,92 @@
 package ch.uzh.ifi.hase.soprafs24.repository;
 
+import ch.uzh.ifi.hase.soprafs24.constant.UserStatus;
 import ch.uzh.ifi.hase.soprafs24.entity.User;
+import ch.uzh.ifi.hase.soprafs24.entity.Word;
+import ch.uzh.ifi.hase.soprafs24.entity.achievements.Achievement;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+
 @Repository("userRepository")
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    /**
+     * Columns of a user shown in the user listing, without the achievements and the rarest word.
+     */
+    interface UserSummary {
+        Long getId();
+        String getUsername();
+        UserStatus getStatus();
+        String getProfilePicture();
+        int getWins();
+        int getLosses();
+        int getCombinationsMade();
+        int getDiscoveredWords();
+    }
+
+    /**
+     * Values of a user the statistic leaderboards rank by.
+     */
+    interface UserStatistics {
+        Long getId();
+        int getWins();
+        int getCombinationsMade();
+        int getDiscoveredWords();
+        Double getRarestWordReachability();
+    }
+
+    String SELECT_USER_SUMMARY = "SELECT user.id AS id, user.username AS username, user.status AS status, " +
+            "user.profilePicture AS profilePicture, user.wins AS wins, user.losses AS losses, " +
+            "user.combinationsMade AS combinationsMade, user.discoveredWords AS discoveredWords FROM User user ";
+
     User findByUsername(String username);
 
     User findByToken(String token);
+
+    @Query("SELECT DISTINCT user FROM User user LEFT JOIN FETCH user.achievements WHERE user.id IN :ids")
+    @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+    List<User> findAllWithAchievementsByIdIn(Collection<Long> ids);
+
+    // The listings below page by keyset, each sort is served by an index on (value, id)
+    @Query(SELECT_USER_SUMMARY + "WHERE user.id IN :ids")
+    List<UserSummary> findSummariesByIdIn(Collection<Long> ids);
+
+    @Query(SELECT_USER_SUMMARY + "WHERE user.id > :afterId ORDER BY user.id")
+    List<UserSummary> findSummariesById(long afterId, Pageable pageable);
+
+    @Query(SELECT_USER_SUMMARY + "WHERE user.wins < :afterValue OR (user.wins = :afterValue AND user.id < :afterId) " +
+            "ORDER BY user.wins DESC, user.id DESC")
+    List<UserSummary> findSummariesByWins(int afterValue, long afterId, Pageable pageable);
+
+    @Query(SELECT_USER_SUMMARY + "WHERE user.combinationsMade < :afterValue OR (user.combinationsMade = :afterValue AND user.id < :afterId) " +
+            "ORDER BY user.combinationsMade DESC, user.id DESC")
+    List<UserSummary> findSummariesByCombinationsMade(int afterValue, long afterId, Pageable pageable);
+
+    @Query(SELECT_USER_SUMMARY + "WHERE user.discoveredWords < :afterValue OR (user.discoveredWords = :afterValue AND user.id < :afterId) " +
+            "ORDER BY user.discoveredWords DESC, user.id DESC")
+    List<UserSummary> findSummariesByDiscoveredWords(int afterValue, long afterId, Pageable pageable);
+
+    @Query("SELECT user.id AS id, user.wins AS wins, user.combinationsMade AS combinationsMade, " +
+            "user.discoveredWords AS discoveredWords, rarestWord.reachability AS rarestWordReachability " +
+            "FROM User user LEFT JOIN user.rarestWordFound rarestWord")
+    List<UserStatistics> findAllStatistics();
+
+    @Modifying
+    @Query("UPDATE User user SET user.combinationsMade = user.combinationsMade + :combinationsMade, " +
+            "user.discoveredWords = user.discoveredWords + :discoveredWords WHERE user.id = :id")
+    int addStatistics(long id, int combinationsMade, int discoveredWords);
+
+    @Modifying
+    @Query("UPDATE User user SET user.rarestWordFound = :word WHERE user.id = :id AND (user.rarestWordFound IS NULL OR " +
+            "EXISTS (SELECT word FROM Word word WHERE word = user.rarestWordFound AND " +
+            "(word.reachability IS NULL OR word.reachability > :reachability)))")
+    int updateRarestWordFoundIfRarer(long id, Word word, Double reachability);
 }
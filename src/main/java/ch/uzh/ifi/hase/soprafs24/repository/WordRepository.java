@@ -5,12 +5,15 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository("wordRepository")
 public interface WordRepository extends JpaRepository<Word, Long> {
     Word findByName(String name);
 
+    List<Word> findAllByNameIn(Collection<String> names);
+
 
     @Query(
             "SELECT word FROM Word word " +
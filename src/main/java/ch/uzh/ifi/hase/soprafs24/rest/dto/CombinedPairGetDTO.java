@@ -0,0 +1,33 @@
+package ch.uzh.ifi.hase.soprafs24.rest.dto;
+
+public class CombinedPairGetDTO {
+    private String word1;
+
+    private String word2;
+
+    private long combinations;
+
+    public String getWord1() {
+        return word1;
+    }
+
+    public void setWord1(String word1) {
+        this.word1 = word1;
+    }
+
+    public String getWord2() {
+        return word2;
+    }
+
+    public void setWord2(String word2) {
+        this.word2 = word2;
+    }
+
+    public long getCombinations() {
+        return combinations;
+    }
+
+    public void setCombinations(long combinations) {
+        this.combinations = combinations;
+    }
+}
@@ -0,0 +1,23 @@
+package ch.uzh.ifi.hase.soprafs24.rest.dto;
+
+public class CombinedResultGetDTO {
+    private String word;
+
+    private long combinations;
+
+    public String getWord() {
+        return word;
+    }
+
+    public void setWord(String word) {
+        this.word = word;
+    }
+
+    public long getCombinations() {
+        return combinations;
+    }
+
+    public void setCombinations(long combinations) {
+        this.combinations = combinations;
+    }
+}
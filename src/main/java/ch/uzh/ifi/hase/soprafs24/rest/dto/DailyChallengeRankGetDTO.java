@@ -0,0 +1,53 @@
+package ch.uzh.ifi.hase.soprafs24.rest.dto;
+
+public class DailyChallengeRankGetDTO {
+    private int rank;
+
+    private long userId;
+
+    private String username;
+
+    private String profilePicture;
+
+    private long numberOfCombinations;
+
+    public int getRank() {
+        return rank;
+    }
+
+    public void setRank(int rank) {
+        this.rank = rank;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(long userId) {
+        this.userId = userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getProfilePicture() {
+        return profilePicture;
+    }
+
+    public void setProfilePicture(String profilePicture) {
+        this.profilePicture = profilePicture;
+    }
+
+    public long getNumberOfCombinations() {
+        return numberOfCombinations;
+    }
+
+    public void setNumberOfCombinations(long numberOfCombinations) {
+        this.numberOfCombinations = numberOfCombinations;
+    }
+}
@@ -0,0 +1,65 @@
+package ch.uzh.ifi.hase.soprafs24.rest.dto;
+
+import java.time.LocalDateTime;
+
+public class DiscoveryRollupGetDTO {
+    private LocalDateTime minute;
+
+    private int combinations;
+
+    private int newWords;
+
+    private int generated;
+
+    private int cached;
+
+    private double generatedRatio;
+
+    public LocalDateTime getMinute() {
+        return minute;
+    }
+
+    public void setMinute(LocalDateTime minute) {
+        this.minute = minute;
+    }
+
+    public int getCombinations() {
+        return combinations;
+    }
+
+    public void setCombinations(int combinations) {
+        this.combinations = combinations;
+    }
+
+    public int getNewWords() {
+        return newWords;
+    }
+
+    public void setNewWords(int newWords) {
+        this.newWords = newWords;
+    }
+
+    public int getGenerated() {
+        return generated;
+    }
+
+    public void setGenerated(int generated) {
+        this.generated = generated;
+    }
+
+    public int getCached() {
+        return cached;
+    }
+
+    public void setCached(int cached) {
+        this.cached = cached;
+    }
+
+    public double getGeneratedRatio() {
+        return generatedRatio;
+    }
+
+    public void setGeneratedRatio(double generatedRatio) {
+        this.generatedRatio = generatedRatio;
+    }
+}
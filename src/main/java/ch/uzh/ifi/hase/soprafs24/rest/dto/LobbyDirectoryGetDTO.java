@@ -0,0 +1,26 @@
+package ch.uzh.ifi.hase.soprafs24.rest.dto;
+
+import java.util.List;
+
+public class LobbyDirectoryGetDTO {
+
+    private List<LobbySummaryGetDTO> lobbies;
+
+    private Long nextCursor;
+
+    public List<LobbySummaryGetDTO> getLobbies() {
+        return lobbies;
+    }
+
+    public void setLobbies(List<LobbySummaryGetDTO> lobbies) {
+        this.lobbies = lobbies;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
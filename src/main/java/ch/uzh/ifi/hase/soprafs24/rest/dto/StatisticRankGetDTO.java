@@ -0,0 +1,64 @@
+package ch.uzh.ifi.hase.soprafs24.rest.dto;
+
+public class StatisticRankGetDTO {
+    private int rank;
+
+    private long userId;
+
+    private String username;
+
+    private String profilePicture;
+
+    private String statistic;
+
+    // Number of wins, combinations or discovered words, or the reachability of the rarest word found
+    private Number value;
+
+    public int getRank() {
+        return rank;
+    }
+
+    public void setRank(int rank) {
+        this.rank = rank;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(long userId) {
+        this.userId = userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getProfilePicture() {
+        return profilePicture;
+    }
+
+    public void setProfilePicture(String profilePicture) {
+        this.profilePicture = profilePicture;
+    }
+
+    public String getStatistic() {
+        return statistic;
+    }
+
+    public void setStatistic(String statistic) {
+        this.statistic = statistic;
+    }
+
+    public Number getValue() {
+        return value;
+    }
+
+    public void setValue(Number value) {
+        this.value = value;
+    }
+}
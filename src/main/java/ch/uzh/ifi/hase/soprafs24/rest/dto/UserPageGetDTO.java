@@ -0,0 +1,26 @@
+package ch.uzh.ifi.hase.soprafs24.rest.dto;
+
+import java.util.List;
+
+public class UserPageGetDTO {
+
+    private List<UserSummaryGetDTO> users;
+
+    private String nextCursor;
+
+    public List<UserSummaryGetDTO> getUsers() {
+        return users;
+    }
+
+    public void setUsers(List<UserSummaryGetDTO> users) {
+        this.users = users;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
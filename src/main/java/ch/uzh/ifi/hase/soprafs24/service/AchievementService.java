@@ -1,81 +1,288 @@
 package ch.uzh.ifi.hase.soprafs24.service;
 
+import ch.uzh.ifi.hase.soprafs24.constant.GameEventType;
 import ch.uzh.ifi.hase.soprafs24.constant.Instruction;
 import ch.uzh.ifi.hase.soprafs24.entity.achievements.*;
+import ch.uzh.ifi.hase.soprafs24.entity.AchievementEvent;
 import ch.uzh.ifi.hase.soprafs24.entity.Combination;
 import ch.uzh.ifi.hase.soprafs24.entity.Player;
 import ch.uzh.ifi.hase.soprafs24.entity.User;
+import ch.uzh.ifi.hase.soprafs24.game.GameEvent;
+import ch.uzh.ifi.hase.soprafs24.repository.AchievementEventRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.AchievementRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.UserRepository;
 import ch.uzh.ifi.hase.soprafs24.websocket.InstructionDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
-import org.reflections.Reflections;
-import org.reflections.scanners.Scanners;
-import org.reflections.util.ConfigurationBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.lang.reflect.InvocationTargetException;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
 
 
 @Service
 @Transactional
 public class AchievementService {
+    private final Logger log = LoggerFactory.getLogger(AchievementService.class);
     private final AchievementRepository achievementRepository;
+    private final AchievementEventRepository achievementEventRepository;
+    private final UserRepository userRepository;
     private final SimpMessagingTemplate messagingTemplate;
-    private final Set<Achievement> achievements = new HashSet<Achievement>();
+    private final EntityManager entityManager;
+    private final UserStatisticsService userStatisticsService;
+    private final TransactionTemplate transactionTemplate;
+    private final List<Achievement> achievements = new ArrayList<>();
+    private final Map<String, Integer> achievementIndices = new HashMap<>();
+    private final EnumMap<GameEventType, List<Achievement>> achievementsByEvent = new EnumMap<>(GameEventType.class);
+    // Bit i is set if the user has unlocked achievements.get(i)
+    private final Map<Long, BitSet> unlockedAchievements = new ConcurrentHashMap<>();
     private static final String MESSAGE_ACHIEVEMENT = "/topic/achievements/%d";
+    private static final int EVENT_QUEUE_CAPACITY = 1000;
+    private static final int MAX_EVENT_ATTEMPTS = 3;
+    private static final int EVENT_POLL_BATCH_SIZE = 100;
+    // Stored game events are evaluated one after another on a bounded queue. Events that do not fit, or that failed,
+    // stay in the table and are queued again by the poller, the publisher never evaluates them itself.
+    private final ThreadPoolExecutor eventExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(EVENT_QUEUE_CAPACITY));
+    private final Counter droppedEvents;
+
+    // Stored events younger than this are left to the queue, older ones are queued again by the poller
+    @Value("${achievements.event-poll-interval-ms:10000}")
+    private long eventPollIntervalMs = 10000;
 
     @Autowired
-    public AchievementService(@Qualifier("achievementRepository") AchievementRepository achievementRepository, SimpMessagingTemplate messagingTemplate) {
+    public AchievementService(@Qualifier("achievementRepository") AchievementRepository achievementRepository,
+                              @Qualifier("achievementEventRepository") AchievementEventRepository achievementEventRepository,
+                              @Qualifier("userRepository") UserRepository userRepository, SimpMessagingTemplate messagingTemplate,
+                              EntityManager entityManager, PlatformTransactionManager transactionManager,
+                              UserStatisticsService userStatisticsService, MeterRegistry meterRegistry) {
         this.achievementRepository = achievementRepository;
+        this.achievementEventRepository = achievementEventRepository;
+        this.userRepository = userRepository;
         this.messagingTemplate = messagingTemplate;
+        this.entityManager = entityManager;
+        this.userStatisticsService = userStatisticsService;
+        // Events are also evaluated from afterCommit callbacks, where the committed transaction is still bound
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.droppedEvents = Counter.builder("achievements.events.dropped")
+                .description("Game events that did not fit into the evaluation queue and were left to the poller")
+                .register(meterRegistry);
     }
 
     public Achievement get(Achievement achievement) {
-        return achievementRepository.findByName(achievement.getName())
-                .orElse(achievementRepository.saveAndFlush(achievement));
+        return achievementRepository.findById(achievement.getName())
+                .orElseGet(() -> achievementRepository.save(achievement));
     }
 
     public List<Achievement> getAchievements() {
-        return achievements.stream().toList();
+        return List.copyOf(achievements);
+    }
+
+    /**
+     * Achievement types are registered in META-INF/services, so no classpath scan is needed at startup.
+     */
+    static List<Achievement> loadRegisteredAchievements() {
+        List<Achievement> registeredAchievements = new ArrayList<>();
+        try {
+            ServiceLoader.load(Achievement.class).forEach(registeredAchievements::add);
+        } catch (ServiceConfigurationError e) {
+            String errorMessage = String.format("Achievements could not be instantiated! Exception: %s", e);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, errorMessage);
+        }
+        return registeredAchievements;
     }
 
     @EventListener(ApplicationReadyEvent.class)
     public void setup() {
-        Reflections reflections = new Reflections(new ConfigurationBuilder()
-                .forPackage("ch.uzh.ifi.hase.soprafs24.entity.achievements")
-                .setScanners(Scanners.SubTypes));
+        List<Achievement> registeredAchievements = loadRegisteredAchievements();
+
+        Map<String, Achievement> storedAchievements = new HashMap<>();
+        for (Achievement achievement : achievementRepository.findAllById(registeredAchievements.stream().map(Achievement::getName).toList())) {
+            storedAchievements.put(achievement.getName(), achievement);
+        }
+
+        achievements.clear();
+        achievementIndices.clear();
+        achievementsByEvent.clear();
+        unlockedAchievements.clear();
+
+        // Stored rows are updated through merge, new ones persisted; both are written in one batch on commit
+        for (Achievement achievement : registeredAchievements) {
+            if (storedAchievements.containsKey(achievement.getName())) {
+                achievement = entityManager.merge(achievement);
+            }
+            else {
+                entityManager.persist(achievement);
+            }
+            achievementIndices.put(achievement.getName(), achievements.size());
+            achievements.add(achievement);
+            achievementsByEvent.computeIfAbsent(achievement.triggeredBy(), type -> new ArrayList<>()).add(achievement);
+        }
+    }
+
+    /**
+     * Takes a snapshot of the event and stores it in the current transaction. Once the transaction has committed, the
+     * event is queued for evaluation, so neither the rules nor the achievement writes are part of the move.
+     */
+    public void publishGameEvent(GameEventType type, Player player, Combination combination) {
+        if (player.getUser() == null || !achievementsByEvent.containsKey(type)) return;
+
+        long userId = player.getUser().getId();
+        GameEvent event = GameEvent.of(type, player, combination,
+                userStatisticsService.getPendingCombinationsMade(userId), userStatisticsService.getPendingDiscoveredWords(userId));
+        AchievementEvent storedEvent = achievementEventRepository.save(new AchievementEvent(event));
+        long eventId = storedEvent.getId();
+        TransactionCallbacks.afterCommit(() -> submitGameEvent(eventId));
+    }
+
+    private void submitGameEvent(long eventId) {
+        try {
+            eventExecutor.execute(() -> processStoredGameEvent(eventId));
+        }
+        catch (RejectedExecutionException e) {
+            droppedEvents.increment();
+            log.debug("The achievement queue is full or shut down, event {} is left to the poller", eventId);
+        }
+    }
+
+    /**
+     * Queues the stored events that were not evaluated in time again, e.g. because the queue was full, the evaluation
+     * failed or the server stopped before it.
+     */
+    @Scheduled(fixedDelayString = "${achievements.event-poll-interval-ms:10000}",
+            initialDelayString = "${achievements.event-poll-interval-ms:10000}")
+    public void processPendingGameEvents() {
+        LocalDateTime before = LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(eventPollIntervalMs));
+        List<Long> eventIds = achievementEventRepository.findIdsByTimeBefore(before, PageRequest.of(0, EVENT_POLL_BATCH_SIZE));
+        eventIds.forEach(this::submitGameEvent);
+    }
 
-        Set<Class<? extends Achievement>> achievementClasses = reflections.getSubTypesOf(Achievement.class);
+    /**
+     * Evaluates a stored event and removes it. An event that fails stays stored and is retried by the poller, until
+     * it failed MAX_EVENT_ATTEMPTS times.
+     */
+    void processStoredGameEvent(long eventId) {
+        AchievementEvent storedEvent = achievementEventRepository.findById(eventId).orElse(null);
+        // Already evaluated, e.g. when it was queued by the poller as well
+        if (storedEvent == null) return;
 
-        for (Class<? extends Achievement> achievementClass : achievementClasses) {
+        if (storedEvent.getAttempts() >= MAX_EVENT_ATTEMPTS) {
+            log.error("Achievements for event {} could not be evaluated after {} attempts, it is dropped", eventId, storedEvent.getAttempts());
+            transactionTemplate.execute(status -> achievementEventRepository.deleteEventById(eventId));
+            return;
+        }
+        try {
+            processGameEvent(storedEvent.toGameEvent());
+            transactionTemplate.execute(status -> achievementEventRepository.deleteEventById(eventId));
+        }
+        catch (Exception e) {
+            log.warn("Achievements for event {} could not be evaluated (attempt {}), it is retried later: {}", eventId, storedEvent.getAttempts() + 1, e.toString());
             try {
-                achievements.add(get(achievementClass.getDeclaredConstructor().newInstance()));
-            } catch (InstantiationException | IllegalAccessException | NoSuchMethodException | InvocationTargetException e) {
-                String errorMessage = String.format("Achievement %s could not be instantiated! Exception: %s", achievementClass.getSimpleName(), e);
-                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, errorMessage);
+                transactionTemplate.execute(status -> achievementEventRepository.incrementAttempts(eventId));
+            }
+            catch (Exception countException) {
+                log.warn("The failed attempt of event {} could not be counted: {}", eventId, countException.toString());
+            }
+        }
+    }
+
+    /**
+     * Awards the achievements unlocked by the event. Processing the same event again awards nothing, since the
+     * unlocked achievements are checked both in the cache and on the user, so an event evaluated again after a crash
+     * between awarding and removing it is harmless.
+     */
+    synchronized void processGameEvent(GameEvent event) {
+        BitSet unlocked = unlockedAchievements.get(event.userId());
+        List<Achievement> fulfilledAchievements = new ArrayList<>();
+        for (Achievement achievement : achievementsByEvent.getOrDefault(event.type(), List.of())) {
+            boolean cachedAsUnlocked = unlocked != null && unlocked.get(achievementIndices.get(achievement.getName()));
+            if (!cachedAsUnlocked && achievement.unlockConditionFulfilled(event)) {
+                fulfilledAchievements.add(achievement);
+            }
+        }
+        if (fulfilledAchievements.isEmpty()) return;
+
+        List<Achievement> newAchievements = new ArrayList<>();
+        BitSet unlockedAfterCommit = transactionTemplate.execute(status -> {
+            User user = userRepository.findById(event.userId()).orElse(null);
+            if (user == null) return null;
+
+            for (Achievement achievement : fulfilledAchievements) {
+                if (!user.hasAchievement(achievement)) {
+                    user.addAchievement(achievement);
+                    newAchievements.add(achievement);
+                }
             }
+            return toBitSet(user.getAchievements());
+        });
+        if (unlockedAfterCommit == null) return;
+
+        unlockedAchievements.put(event.userId(), unlockedAfterCommit);
+        for (Achievement achievement : newAchievements) {
+            sendAchievement(event.userId(), achievement, 1);
         }
     }
 
-    public void awardAchievements(Player player, Combination combination) {
-        User user = player.getUser();
-        if (user == null) return;
+    /**
+     * The achievement is already stored, so processing the event again would not send it. Failed pushes are
+     * retried on their own instead. Pushes are only a notification and are not stored, they are best-effort.
+     */
+    private void sendAchievement(long userId, Achievement achievement, int attempt) {
+        try {
+            messagingTemplate.convertAndSend(String.format(MESSAGE_ACHIEVEMENT, userId), new InstructionDTO(Instruction.ACHIEVEMENT, achievement));
+        }
+        catch (Exception e) {
+            if (attempt < MAX_EVENT_ATTEMPTS) {
+                log.warn("Achievement {} could not be sent to user {} (attempt {}), retrying: {}", achievement.getName(), userId, attempt, e.toString());
+                try {
+                    eventExecutor.execute(() -> sendAchievement(userId, achievement, attempt + 1));
+                }
+                catch (RejectedExecutionException rejected) {
+                    log.warn("Achievement {} could not be sent to user {}, the queue is full", achievement.getName(), userId);
+                }
+            }
+            else {
+                log.error("Achievement {} could not be sent to user {}: ", achievement.getName(), userId, e);
+            }
+        }
+    }
 
-        for (Achievement achievement : achievements) {
-            if (!user.hasAchievement(achievement) && achievement.unlockConditionFulfilled(player, combination)) {
-                user.addAchievement(achievement);
-                messagingTemplate.convertAndSend(String.format(MESSAGE_ACHIEVEMENT, user.getId()), new InstructionDTO(Instruction.ACHIEVEMENT, achievement));
+    private BitSet toBitSet(Collection<Achievement> userAchievements) {
+        BitSet unlocked = new BitSet(achievements.size());
+        for (Achievement achievement : userAchievements) {
+            Integer index = achievementIndices.get(achievement.getName());
+            if (index != null) {
+                unlocked.set(index);
             }
         }
+        return unlocked;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        eventExecutor.shutdown();
+        if (!eventExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+            log.warn("{} achievement events were not evaluated before shutdown, they are evaluated after the next start", eventExecutor.getQueue().size());
+        }
     }
 }
@@ -0,0 +1,161 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Collects the pairs that callers want generated and sends them to the generator in batches.
+ * A batch is sent when it is full or when the window has passed since its first pair, and each caller waits for the
+ * result of its own pair. Up to maxConcurrentBatches batches are sent at the same time.
+ * Callers fail with an IOException instead of waiting when maxQueuedPairs pairs are already waiting to be sent, or
+ * when their result did not arrive within the timeout.
+ */
+final class CombinationBatcher {
+    private final Logger log = LoggerFactory.getLogger(CombinationBatcher.class);
+
+    /**
+     * Generates the results of several pairs in one request, in the order of the pairs.
+     * A pair without a result is null, only its caller fails.
+     */
+    interface BatchGenerator {
+        List<String> generate(List<Pair> pairs) throws IOException;
+    }
+
+    record Pair(String word1, String word2) {
+    }
+
+    private record Pending(Pair pair, CompletableFuture<String> result) {
+    }
+
+    private final BatchGenerator batchGenerator;
+    private final int maxBatchSize;
+    private final long windowNanos;
+    private final long timeoutNanos;
+    private final BlockingQueue<Pending> queue;
+    private final ExecutorService senders;
+    // A batch is only collected once a sender is free, so that pairs wait in the bounded queue and not in the executor
+    private final Semaphore freeSenders;
+    private final Thread dispatcher;
+    private volatile boolean closed = false;
+
+    CombinationBatcher(BatchGenerator batchGenerator, int maxBatchSize, long windowMillis, int maxConcurrentBatches,
+                       int maxQueuedPairs, long timeoutMillis) {
+        if (maxBatchSize < 1 || windowMillis < 0 || maxConcurrentBatches < 1 || maxQueuedPairs < 1 || timeoutMillis < 1) {
+            throw new IllegalArgumentException("The batch size, the number of concurrent batches, the queue size and the timeout must be positive");
+        }
+        this.batchGenerator = batchGenerator;
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.queue = new ArrayBlockingQueue<>(maxQueuedPairs);
+        this.senders = Executors.newFixedThreadPool(maxConcurrentBatches);
+        this.freeSenders = new Semaphore(maxConcurrentBatches);
+        this.dispatcher = new Thread(this::dispatch, "combination-batcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    String generate(String word1, String word2) throws IOException {
+        if (closed) throw new IOException("The combination batcher is closed");
+
+        Pending pending = new Pending(new Pair(word1, word2), new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            throw new IOException(String.format("Too many pairs are waiting to be generated, %s + %s is not queued", word1, word2));
+        }
+        if (closed && queue.remove(pending)) throw new IOException("The combination batcher is closed");
+        try {
+            return pending.result().get(timeoutNanos, TimeUnit.NANOSECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.result().cancel(false);
+            throw new InterruptedIOException("Interrupted while waiting for a batched combination");
+        }
+        catch (TimeoutException e) {
+            // A batch that is sent later skips the pair
+            pending.result().cancel(false);
+            throw new IOException(String.format("Timed out waiting for the result of %s + %s", word1, word2));
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) throw ioException;
+            if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            throw new IOException("Could not generate a batched combination", e.getCause());
+        }
+    }
+
+    void close() {
+        closed = true;
+        dispatcher.interrupt();
+        senders.shutdown();
+        List<Pending> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        fail(remaining, new IOException("The combination batcher is closed"));
+    }
+
+    private void dispatch() {
+        List<Pending> batch = new ArrayList<>();
+        try {
+            while (!closed) {
+                freeSenders.acquire();
+                batch = new ArrayList<>(maxBatchSize);
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    Pending next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                List<Pending> collected = batch;
+                senders.execute(() -> {
+                    try {
+                        send(collected);
+                    }
+                    finally {
+                        freeSenders.release();
+                    }
+                });
+            }
+        }
+        catch (InterruptedException | RejectedExecutionException e) {
+            // Closed while collecting or handing over a batch
+            fail(batch, new IOException("The combination batcher is closed"));
+            log.debug("Stopped batching combinations");
+        }
+    }
+
+    private void send(List<Pending> batch) {
+        // Callers that gave up while the batch was collected do not need a result anymore
+        List<Pending> waiting = batch.stream().filter(pending -> !pending.result().isDone()).toList();
+        if (waiting.isEmpty()) return;
+
+        try {
+            List<String> results = batchGenerator.generate(waiting.stream().map(Pending::pair).toList());
+            for (int i = 0; i < waiting.size(); i++) {
+                if (i < results.size() && results.get(i) != null) {
+                    waiting.get(i).result().complete(results.get(i));
+                }
+                else if (i < results.size()) {
+                    waiting.get(i).result().completeExceptionally(new IOException(String.format("The generator returned no result for %s + %s", waiting.get(i).pair().word1(), waiting.get(i).pair().word2())));
+                }
+                else {
+                    waiting.get(i).result().completeExceptionally(new IOException(String.format("The generator returned %d results for %d pairs", results.size(), waiting.size())));
+                }
+            }
+        }
+        catch (Exception e) {
+            fail(waiting, e);
+        }
+    }
+
+    private static void fail(List<Pending> batch, Exception e) {
+        for (Pending pending : batch) {
+            pending.result().completeExceptionally(e);
+        }
+    }
+}
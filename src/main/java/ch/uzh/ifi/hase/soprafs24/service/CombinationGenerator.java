@@ -0,0 +1,22 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import java.io.IOException;
+
+/**
+ * Source of new words: the result of combining two words and random words.
+ * APIService uses the implementation of the active profile, see VertexAICombinationGenerator and LocalCombinationGenerator.
+ */
+public interface CombinationGenerator {
+
+    /**
+     * Returns the raw response for the pair, which may still be rejected by CombinationService.validResult.
+     */
+    String generateCombinationResult(String word1, String word2) throws IOException;
+
+    /**
+     * Identifies the prompt, the model and its parameters. Cached responses are only reused for the same prompt version.
+     */
+    String getPromptVersion();
+
+    String getRandomWord();
+}
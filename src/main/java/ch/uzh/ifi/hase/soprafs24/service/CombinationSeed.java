@@ -0,0 +1,178 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import ch.uzh.ifi.hase.soprafs24.entity.Combination;
+import ch.uzh.ifi.hase.soprafs24.entity.Word;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static java.lang.Math.max;
+
+/**
+ * Versioned seed dataset of starting words and combinations, read from a classpath resource.
+ * Lines have the form "version: n", "word" for a starting word or "word1 + word2 = result" for a combination.
+ * The combination graph can be resolved in memory with the same depth and reachability rules as
+ * CombinationService#saveCombination, so an empty database can be filled in a single batch.
+ */
+class CombinationSeed {
+
+    record Entry(String word1, String word2, String result) {}
+
+    private final int version;
+    private final List<String> startingWords;
+    private final List<Entry> entries;
+
+    private final Map<String, Combination> combinationsByPair = new HashMap<>();
+    private final Map<String, List<Combination>> combinationsByWord1 = new HashMap<>();
+    private final Map<String, List<Combination>> combinationsByWord2 = new HashMap<>();
+
+    CombinationSeed(int version, List<String> startingWords, List<Entry> entries) {
+        this.version = version;
+        this.startingWords = startingWords;
+        this.entries = entries;
+    }
+
+    static CombinationSeed load(String resource) {
+        int version = 0;
+        List<String> startingWords = new ArrayList<>();
+        List<Entry> entries = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ClassPathResource(resource).getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+
+                if (line.startsWith("version:")) {
+                    version = Integer.parseInt(line.substring("version:".length()).strip());
+                }
+                else if (line.contains("=")) {
+                    String[] sides = line.split("=");
+                    String[] ingredients = sides[0].split("\\+");
+                    if (sides.length != 2 || ingredients.length != 2) {
+                        throw new IllegalStateException(String.format("Malformed seed combination: %s", line));
+                    }
+                    entries.add(new Entry(normalize(ingredients[0]), normalize(ingredients[1]), normalize(sides[1])));
+                }
+                else {
+                    startingWords.add(normalize(line));
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(String.format("Seed %s could not be read", resource), e);
+        }
+        return new CombinationSeed(version, startingWords, entries);
+    }
+
+    private static String normalize(String name) {
+        return new Word(name).getName();
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    List<String> getStartingWords() {
+        return startingWords;
+    }
+
+    List<Entry> getEntries() {
+        return entries;
+    }
+
+    Set<String> getWordNames() {
+        Set<String> names = new LinkedHashSet<>(startingWords);
+        for (Entry entry : entries) {
+            names.add(entry.word1());
+            names.add(entry.word2());
+            names.add(entry.result());
+        }
+        return names;
+    }
+
+    /**
+     * Builds the seed combinations on the given word instances (one per name of getWordNames) and sets the
+     * depth and reachability of every word as if the entries had been saved one after another.
+     */
+    List<Combination> resolve(Map<String, Word> words) {
+        for (Word word : words.values()) {
+            word.setDepth(null);
+            word.setReachability(null);
+        }
+        for (String startingWord : startingWords) {
+            words.get(startingWord).setDepth(0);
+        }
+
+        List<Combination> combinations = new ArrayList<>();
+        for (Entry entry : entries) {
+            Word word1 = words.get(entry.word1());
+            Word word2 = words.get(entry.word2());
+            if (word1.getDepth() == null || word2.getDepth() == null) {
+                throw new IllegalStateException(String.format("Seed combination %s + %s uses a word that is not created before", entry.word1(), entry.word2()));
+            }
+
+            Combination combination = combinationsByPair.get(pairKey(word1, word2));
+            if (combination == null) {
+                combination = new Combination(word1, word2, words.get(entry.result()));
+                save(combination, true);
+                combinations.add(combination);
+            }
+            else {
+                save(combination, false);
+            }
+        }
+        return combinations;
+    }
+
+    private void save(Combination combination, boolean isNewCombination) {
+        Word resultWord = combination.getResult();
+        resultWord.updateDepth(combination.getWord1().getDepth(), combination.getWord2().getDepth());
+        if (!isNewCombination && resultWord.getDepth() != 0) {
+            double oldReachability = 1.0 / (1L << combination.getDepth());
+            resultWord.setReachability(resultWord.getReachability() - oldReachability);
+        }
+        resultWord.updateReachability();
+
+        combination.setDepth(resultWord.getDepth());
+
+        if (isNewCombination) {
+            combinationsByPair.put(pairKey(combination.getWord1(), combination.getWord2()), combination);
+            combinationsByPair.put(pairKey(combination.getWord2(), combination.getWord1()), combination);
+            combinationsByWord1.computeIfAbsent(combination.getWord1().getName(), name -> new ArrayList<>()).add(combination);
+            combinationsByWord2.computeIfAbsent(combination.getWord2().getName(), name -> new ArrayList<>()).add(combination);
+        }
+
+        propagateWordUpdates(resultWord);
+    }
+
+    private void propagateWordUpdates(Word startingWord) {
+        Queue<Word> queue = new LinkedList<>();
+        queue.add(startingWord);
+
+        while (!queue.isEmpty()) {
+            Word firstWord = queue.remove();
+            List<Combination> adjacencyList = new ArrayList<>();
+            adjacencyList.addAll(combinationsByWord1.getOrDefault(firstWord.getName(), List.of()));
+            adjacencyList.addAll(combinationsByWord2.getOrDefault(firstWord.getName(), List.of()));
+
+            for (Combination combination : adjacencyList) {
+                Word secondWord = (firstWord == combination.getWord1()) ? combination.getWord2() : combination.getWord1();
+                Word resultWord = combination.getResult();
+                if (max(firstWord.getDepth(), secondWord.getDepth()) + 1 < resultWord.getDepth()) {
+                    save(combination, false);
+                    queue.add(resultWord);
+                }
+            }
+        }
+    }
+
+    private static String pairKey(Word word1, Word word2) {
+        return word1.getName() + "+" + word2.getName();
+    }
+}
@@ -1,54 +1,221 @@
 package ch.uzh.ifi.hase.soprafs24.service;
 
 import ch.uzh.ifi.hase.soprafs24.entity.Combination;
+import ch.uzh.ifi.hase.soprafs24.entity.SeedVersion;
 import ch.uzh.ifi.hase.soprafs24.entity.Word;
 import ch.uzh.ifi.hase.soprafs24.exceptions.CombinationNotFoundException;
 import ch.uzh.ifi.hase.soprafs24.exceptions.WordNotFoundException;
 import ch.uzh.ifi.hase.soprafs24.repository.CombinationRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.SeedVersionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Queue;
-import java.util.Random;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static java.lang.Math.max;
 
 @Service
 @Transactional(noRollbackFor = WordNotFoundException.class)
 public class CombinationService {
+    private final Logger log = LoggerFactory.getLogger(CombinationService.class);
     private final CombinationRepository combinationRepository;
+    private final SeedVersionRepository seedVersionRepository;
     private final APIService apiService;
     private final WordService wordService;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final DiscoveryService discoveryService;
     private final List<Word> deadEndWords = List.of(new Word("zaddy"), new Word("daddy"), new Word("swag"));
 
+    // Time to resolve a pair, by whether the combination was found in the table or had to be generated
+    private final Timer foundCombinationTimer;
+    private final Timer generatedCombinationTimer;
+    private final DistributionSummary generationAttempts;
+    private final Counter invalidResults;
+    private final Counter generationFallbacks;
+    private final DistributionSummary propagationFanOut;
+
+    private static final String SEED_NAME = "combinations";
+    private static final String SEED_RESOURCE = "seed/combinations.txt";
+    private static final int GENERATION_THREADS = 8;
+
+    // Results of several new pairs are generated at the same time, so that the generator can send them in one batch
+    private final ExecutorService generationExecutor = Executors.newFixedThreadPool(GENERATION_THREADS);
+
+    @Value("${combinations.background-seed-count:20}")
+    private int backgroundSeedCount = 20;
+
+    @Value("${combinations.generation-batch-size:8}")
+    private int generationBatchSize = 8;
+
     @Autowired
-    public CombinationService(@Qualifier("combinationRepository") CombinationRepository combinationRepository, APIService apiService, WordService wordService) {
+    public CombinationService(@Qualifier("combinationRepository") CombinationRepository combinationRepository,
+                              @Qualifier("seedVersionRepository") SeedVersionRepository seedVersionRepository,
+                              APIService apiService, WordService wordService, EntityManager entityManager,
+                              PlatformTransactionManager transactionManager, DiscoveryService discoveryService,
+                              MeterRegistry meterRegistry) {
         this.combinationRepository = combinationRepository;
+        this.seedVersionRepository = seedVersionRepository;
         this.apiService = apiService;
         this.wordService = wordService;
+        this.entityManager = entityManager;
+        this.transactionManager = transactionManager;
+        this.discoveryService = discoveryService;
+        this.foundCombinationTimer = Timer.builder("combinations.resolve")
+                .description("Time to resolve a pair of words into a combination")
+                .tag("source", "table")
+                .register(meterRegistry);
+        this.generatedCombinationTimer = Timer.builder("combinations.resolve")
+                .description("Time to resolve a pair of words into a combination")
+                .tag("source", "generated")
+                .register(meterRegistry);
+        this.generationAttempts = DistributionSummary.builder("combinations.generate.attempts")
+                .description("Requests to the generator until a valid result was returned")
+                .register(meterRegistry);
+        this.invalidResults = Counter.builder("combinations.generate.invalid")
+                .description("Generated results rejected by validResult")
+                .register(meterRegistry);
+        this.generationFallbacks = Counter.builder("combinations.generate.fallbacks")
+                .description("Generations that gave up and returned one of the input words")
+                .register(meterRegistry);
+        this.propagationFanOut = DistributionSummary.builder("combinations.propagate.fanout")
+                .description("Combinations visited when propagating the depth of a word")
+                .register(meterRegistry);
     }
 
     @EventListener(ApplicationReadyEvent.class)
+    public void setupCombinationDatabaseStartup() {
+        alignCombinationSequence();
+        setupCombinationDatabase();
+        // The background thread uses its own transactions, so it has to wait until the seed is committed
+        TransactionCallbacks.afterCommit(() -> makeCombinationsInBackground(backgroundSeedCount));
+    }
+
+    /**
+     * Moves the combination sequence past the ids in the table, e.g. the ones generated with hibernate_sequence before
+     * combinations had their own sequence. The pooled optimizer hands out the ids below the value it reads from the
+     * sequence, so the sequence has to be at least the largest id plus the allocation size.
+     */
+    public void alignCombinationSequence() {
+        Long maxId = combinationRepository.findMaxId();
+        if (maxId == null) return;
+
+        Dialect dialect = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        long nextValue = ((Number) entityManager.createNativeQuery(dialect.getSequenceNextValString(Combination.ID_SEQUENCE)).getSingleResult()).longValue();
+        if (nextValue >= maxId) return;
+
+        long restartValue = maxId + Combination.ID_ALLOCATION_SIZE;
+        entityManager.createNativeQuery("ALTER SEQUENCE " + Combination.ID_SEQUENCE + " RESTART WITH " + restartValue).executeUpdate();
+        log.info("Moved {} from {} to {}, past the largest combination id {}", Combination.ID_SEQUENCE, nextValue, restartValue, maxId);
+    }
+
     public void setupCombinationDatabase() {
-        makeDefaultCombinations();
-        makeZaddyChain();
-        makeExtraCombinations();
-        makeCombinations(20);
+        CombinationSeed seed = CombinationSeed.load(SEED_RESOURCE);
+        Optional<SeedVersion> loadedVersion = seedVersionRepository.findById(SEED_NAME);
+
+        if (combinationRepository.count() == 0) {
+            loadSeedIntoEmptyDatabase(seed);
+        }
+        else if (loadedVersion.isEmpty() || loadedVersion.get().getVersion() != seed.getVersion()) {
+            loadSeedIntoExistingDatabase(seed);
+        }
+        else {
+            log.debug("Seed combinations version {} already loaded", seed.getVersion());
+            return;
+        }
+        seedVersionRepository.save(new SeedVersion(SEED_NAME, seed.getVersion()));
+    }
+
+    private void loadSeedIntoEmptyDatabase(CombinationSeed seed) {
+        Set<String> wordNames = seed.getWordNames();
+        Map<String, Word> words = new HashMap<>();
+        for (Word word : wordService.findWordsByName(wordNames)) {
+            words.put(word.getName(), word);
+        }
+        List<Word> newWords = new ArrayList<>();
+        for (String name : wordNames) {
+            if (!words.containsKey(name)) {
+                Word word = new Word(name);
+                words.put(name, word);
+                newWords.add(word);
+            }
+        }
+
+        List<Combination> combinations = seed.resolve(words);
+        newWords.forEach(entityManager::persist);
+        combinationRepository.saveAll(combinations);
+        log.info("Loaded {} seed combinations (version {}) into an empty database", combinations.size(), seed.getVersion());
     }
 
+    private void loadSeedIntoExistingDatabase(CombinationSeed seed) {
+        for (String startingWord : seed.getStartingWords()) {
+            wordService.saveWord(new Word(startingWord, 0, null));
+        }
+        for (CombinationSeed.Entry entry : seed.getEntries()) {
+            createCustomCombination(new Word(entry.word1()), new Word(entry.word2()), new Word(entry.result()));
+        }
+        log.info("Merged {} seed combinations (version {}) into the existing database", seed.getEntries().size(), seed.getVersion());
+    }
+
+    void makeCombinationsInBackground(int numberOfCombinations) {
+        if (numberOfCombinations <= 0) return;
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        executorService.execute(() -> {
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            try {
+                for (int made = 0; made < numberOfCombinations; made += generationBatchSize) {
+                    int count = Math.min(generationBatchSize, numberOfCombinations - made);
+                    transactionTemplate.execute(status -> {
+                        makeCombinations(count);
+                        return null;
+                    });
+                }
+                log.debug("Generated {} random combinations in the background", numberOfCombinations);
+            }
+            catch (Exception e) {
+                log.error("Could not generate random combinations in the background: ", e);
+            }
+        });
+        executorService.shutdown();
+    }
+
+
     public Combination getCombination(Word word1, Word word2) {
+        long start = System.nanoTime();
+        Combination combination;
+        boolean generated = false;
         try {
-            return findCombination(word1, word2);
+            combination = findCombination(word1, word2);
         }
         catch (CombinationNotFoundException e) {
-            return createCombination(word1, word2);
+            combination = createCombination(word1, word2);
+            generated = true;
         }
+        (generated ? generatedCombinationTimer : foundCombinationTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        discoveryService.recordCombination(combination, generated);
+        return combination;
     }
 
     public Combination findCombination(Word word1, Word word2) {
@@ -62,13 +229,43 @@ public class CombinationService {
     }
 
     public Combination createCombination(Word word1, Word word2) {
-        Word combinationResult = deadEndWords.contains(word1) ? word1 : deadEndWords.contains(word2) ? word2 : generateCombinationResult(word1, word2);
+        return createCombination(word1, word2, resolveCombinationResult(word1, word2));
+    }
 
+    Combination createCombination(Word word1, Word word2, Word combinationResult) {
         Combination combination = new Combination(wordService.getWord(word1), wordService.getWord(word2), wordService.getWord(combinationResult));
         combination = saveCombination(combination);
         return combination;
     }
 
+    /**
+     * Creates the combinations of several new pairs. Their results are generated concurrently, outside of the
+     * transaction, and the combinations are then saved one after another in the order of the pairs.
+     */
+    List<Combination> createCombinations(List<WordPair> pairs) {
+        List<Word> results = resolveCombinationResults(pairs);
+        List<Combination> combinations = new ArrayList<>(pairs.size());
+        for (int i = 0; i < pairs.size(); i++) {
+            combinations.add(createCombination(pairs.get(i).word1(), pairs.get(i).word2(), results.get(i)));
+        }
+        return combinations;
+    }
+
+    private List<Word> resolveCombinationResults(List<WordPair> pairs) {
+        if (pairs.size() == 1) {
+            return List.of(resolveCombinationResult(pairs.get(0).word1(), pairs.get(0).word2()));
+        }
+        List<CompletableFuture<Word>> results = new ArrayList<>(pairs.size());
+        for (WordPair pair : pairs) {
+            results.add(CompletableFuture.supplyAsync(() -> resolveCombinationResult(pair.word1(), pair.word2()), generationExecutor));
+        }
+        return results.stream().map(CompletableFuture::join).toList();
+    }
+
+    private Word resolveCombinationResult(Word word1, Word word2) {
+        return deadEndWords.contains(word1) ? word1 : deadEndWords.contains(word2) ? word2 : generateCombinationResult(word1, word2);
+    }
+
     public Combination saveCombination(Combination combination) {
         boolean isNewCombination;
         try {
@@ -90,7 +287,7 @@ public class CombinationService {
 
         combination.setDepth(resultWord.getDepth());
 
-        combinationRepository.saveAndFlush(combination);
+        combinationRepository.save(combination);
         wordService.saveWord(resultWord);
 
         propagateWordUpdates(resultWord);
@@ -106,11 +303,13 @@ public class CombinationService {
         Word secondWord;
         Word resultWord;
         List<Combination> adjacencyList;
+        int visited = 0;
         while (!queue.isEmpty()) {
             firstWord = queue.remove();
             adjacencyList = new LinkedList<>();
             adjacencyList.addAll(combinationRepository.findByWord1(firstWord));
             adjacencyList.addAll(combinationRepository.findByWord2(firstWord));
+            visited += adjacencyList.size();
 
             for (Combination combination : adjacencyList) {
                 secondWord = (firstWord == combination.getWord1()) ? combination.getWord2() : combination.getWord1();
@@ -121,6 +320,8 @@ public class CombinationService {
                 }
             }
         }
+        // saveCombination propagates again, so nested propagations are recorded on their own
+        propagationFanOut.record(visited);
     }
 
     public Combination createCustomCombination(Word word1, Word word2, Word result) {
@@ -130,21 +331,26 @@ public class CombinationService {
     }
 
     Word generateCombinationResult(Word word1, Word word2) {
-        String resultString = apiService.generateCombinationResult(word1.getName(), word2.getName());
+        String resultString = apiService.generateCombinationResult(word1.getName(), word2.getName(), 0);
         Word word = new Word(resultString);
 
         int maxIter = 10;
         int iter = 0;
         while (!validResult(word)) {
-            resultString = apiService.generateCombinationResult(word1.getName(), word2.getName());
+            invalidResults.increment();
+            resultString = apiService.generateCombinationResult(word1.getName(), word2.getName(), iter + 1);
             word = new Word(resultString);
 
             iter += 1;
             if (iter >= maxIter) {
+                if (!validResult(word)) invalidResults.increment();
+                generationAttempts.record(iter + 1.0);
+                generationFallbacks.increment();
                 return new Random().nextBoolean() ? word1 : word2;
             }
         }
 
+        generationAttempts.record(iter + 1.0);
         return word;
     }
 
@@ -154,27 +360,31 @@ public class CombinationService {
     }
 
     public void makeCombinations(int numberOfCombinations) {
-        for (int step = 1; step <= numberOfCombinations; step++) {
-            int maxIter = 1000;
-            int iter = 0;
-            boolean newCombinationFound = false;
-            while (!newCombinationFound) {
-                Word word1 = wordService.getRandomWord();
-                Word word2 = wordService.getRandomWord();
-
-                try {
-                    findCombination(word1, word2);
-                }
-                catch (CombinationNotFoundException e) {
-                    createCombination(word1, word2);
-                    newCombinationFound = true;
-                }
-
-                iter += 1;
-                if (iter >= maxIter) {
-                    throw new RuntimeException("Maximum iteration exceeded");
+        int made = 0;
+        while (made < numberOfCombinations) {
+            int batchSize = Math.min(generationBatchSize, numberOfCombinations - made);
+            List<WordPair> pairs = new ArrayList<>(batchSize);
+            while (pairs.size() < batchSize) {
+                int maxIter = 1000;
+                int iter = 0;
+                boolean newCombinationFound = false;
+                while (!newCombinationFound) {
+                    Word word1 = wordService.getRandomWord();
+                    Word word2 = wordService.getRandomWord();
+
+                    if (isNewPair(word1, word2, pairs)) {
+                        pairs.add(new WordPair(word1, word2));
+                        newCombinationFound = true;
+                    }
+
+                    iter += 1;
+                    if (iter >= maxIter) {
+                        throw new RuntimeException("Maximum iteration exceeded");
+                    }
                 }
             }
+            createCombinations(pairs);
+            made += pairs.size();
         }
     }
 
@@ -184,20 +394,27 @@ public class CombinationService {
         int maxDepth = wordService.depthFromReachability(minReachability) + 1;  // since it's floor when casting to int
         int minDepth = wordService.depthFromReachability(maxReachability);
 
-        for (int i = 0; i <= 100; i += 1) {
-            Word word1 = wordService.getRandomWordWithinDepth(minDepth - 1, maxDepth - 1);
-            if (word1 == null) {
-                word1 = wordService.getRandomWord();
-            }
-            Word word2 = wordService.getRandomWordWithinDepth(minDepth - 1, maxDepth - 1);
-            if (word2 == null) {
-                word2 = wordService.getRandomWord();
-            }
-            try {
-                findCombination(word1, word2);
+        // Up to generationBatchSize new pairs are generated at once. Their combinations are saved one after another until
+        // the first result within the reachability, the results of the other pairs stay in the response cache only
+        int i = 0;
+        while (i <= 100) {
+            List<WordPair> pairs = new ArrayList<>(generationBatchSize);
+            for (; i <= 100 && pairs.size() < generationBatchSize; i += 1) {
+                Word word1 = wordService.getRandomWordWithinDepth(minDepth - 1, maxDepth - 1);
+                if (word1 == null) {
+                    word1 = wordService.getRandomWord();
+                }
+                Word word2 = wordService.getRandomWordWithinDepth(minDepth - 1, maxDepth - 1);
+                if (word2 == null) {
+                    word2 = wordService.getRandomWord();
+                }
+                if (isNewPair(word1, word2, pairs)) {
+                    pairs.add(new WordPair(word1, word2));
+                }
             }
-            catch (CombinationNotFoundException e) {
-                Word result = createCombination(word1, word2).getResult();
+            List<Word> results = resolveCombinationResults(pairs);
+            for (int j = 0; j < pairs.size(); j++) {
+                Word result = createCombination(pairs.get(j).word1(), pairs.get(j).word2(), results.get(j)).getResult();
                 if (result.getReachability() != null && result.getReachability() >= minReachability && result.getReachability() <= maxReachability) {
                     return result;
                 }
@@ -206,84 +423,24 @@ public class CombinationService {
         throw new WordNotFoundException("within reachability");
     }
 
-    private void makeDefaultCombinations() {
-        wordService.saveWord(new Word("water", 0, null));
-        wordService.saveWord(new Word("earth", 0, null));
-        wordService.saveWord(new Word("fire", 0, null));
-        wordService.saveWord(new Word("air", 0, null));
-
-        createCustomCombination(new Word("water"), new Word("water"), new Word("lake"));
-        createCustomCombination(new Word("water"), new Word("earth"), new Word("mud"));
-        createCustomCombination(new Word("water"), new Word("fire"), new Word("steam"));
-        createCustomCombination(new Word("water"), new Word("air"), new Word("mist"));
-        createCustomCombination(new Word("earth"), new Word("earth"), new Word("hill"));
-        createCustomCombination(new Word("earth"), new Word("fire"), new Word("lava"));
-        createCustomCombination(new Word("earth"), new Word("air"), new Word("dust"));
-        createCustomCombination(new Word("fire"), new Word("fire"), new Word("wildfire"));
-        createCustomCombination(new Word("fire"), new Word("air"), new Word("smoke"));
-        createCustomCombination(new Word("air"), new Word("air"), new Word("wind"));
+    private boolean isNewPair(Word word1, Word word2, List<WordPair> pairs) {
+        try {
+            findCombination(word1, word2);
+            return false;
+        }
+        catch (CombinationNotFoundException e) {
+            return pairs.stream().noneMatch(pair -> pair.matches(word1, word2));
+        }
     }
 
-    private void makeZaddyChain() {
-        createCustomCombination(new Word("fire"), new Word("dust"), new Word("ash"));
-        createCustomCombination(new Word("lake"), new Word("lake"), new Word("ocean"));
-        createCustomCombination(new Word("hill"), new Word("hill"), new Word("mountain"));
-        createCustomCombination(new Word("lava"), new Word("lava"), new Word("magma"));
-
-        createCustomCombination(new Word("fire"), new Word("ash"), new Word("charcoal"));
-        createCustomCombination(new Word("earth"), new Word("magma"), new Word("rock"));
-        createCustomCombination(new Word("ocean"), new Word("mountain"), new Word("island"));
-
-        createCustomCombination(new Word("fire"), new Word("rock"), new Word("metal"));
-        createCustomCombination(new Word("charcoal"), new Word("charcoal"), new Word("coal"));
-        createCustomCombination(new Word("island"), new Word("island"), new Word("continent"));
-
-        createCustomCombination(new Word("ocean"), new Word("continent"), new Word("planet"));
-        createCustomCombination(new Word("coal"), new Word("coal"), new Word("carbon"));
-
-        createCustomCombination(new Word("fire"), new Word("planet"), new Word("sun"));
-        createCustomCombination(new Word("carbon"), new Word("carbon"), new Word("diamond"));
-
-        createCustomCombination(new Word("water"), new Word("sun"), new Word("life"));
-        createCustomCombination(new Word("metal"), new Word("sun"), new Word("gold"));
-
-        createCustomCombination(new Word("air"), new Word("life"), new Word("animal"));
-        createCustomCombination(new Word("diamond"), new Word("gold"), new Word("swag"));
-
-        createCustomCombination(new Word("animal"), new Word("animal"), new Word("human"));
-
-        createCustomCombination(new Word("earth"), new Word("human"), new Word("man"));
-        createCustomCombination(new Word("human"), new Word("human"), new Word("family"));
-
-        createCustomCombination(new Word("man"), new Word("family"), new Word("father"));
-
-        createCustomCombination(new Word("man"), new Word("father"), new Word("dad"));
-
-        createCustomCombination(new Word("dad"), new Word("dad"), new Word("daddy"));
-
-        createCustomCombination(new Word("swag"), new Word("daddy"), new Word("zaddy"));
+    @PreDestroy
+    void shutdown() {
+        generationExecutor.shutdown();
     }
 
-    private void makeExtraCombinations() {
-        createCustomCombination(new Word("earth"), new Word("mud"), new Word("soil"));
-        createCustomCombination(new Word("steam"), new Word("steam"), new Word("fog"));
-
-        createCustomCombination(new Word("air"), new Word("soil"), new Word("plant"));
-        createCustomCombination(new Word("water"), new Word("soil"), new Word("plant"));
-        createCustomCombination(new Word("soil"), new Word("soil"), new Word("plant"));
-
-        createCustomCombination(new Word("water"), new Word("plant"), new Word("growth"));
-        createCustomCombination(new Word("plant"), new Word("sun"), new Word("growth"));
-
-        createCustomCombination(new Word("earth"), new Word("growth"), new Word("life"));
-        createCustomCombination(new Word("growth"), new Word("growth"), new Word("life"));
-
-        createCustomCombination(new Word("earth"), new Word("life"), new Word("animal"));
-
-        createCustomCombination(new Word("fog"), new Word("planet"), new Word("venus"));
-        createCustomCombination(new Word("smoke"), new Word("planet"), new Word("venus"));
-        createCustomCombination(new Word("human"), new Word("venus"), new Word("woman"));
-        createCustomCombination(new Word("venus"), new Word("venus"), new Word("woman"));
-
+    record WordPair(Word word1, Word word2) {
+        boolean matches(Word first, Word second) {
+            return (word1.equals(first) && word2.equals(second)) || (word1.equals(second) && word2.equals(first));
+        }
     }
 }
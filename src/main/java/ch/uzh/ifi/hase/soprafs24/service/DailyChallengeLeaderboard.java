@@ -0,0 +1,115 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import java.util.*;
+
+/**
+ * In-memory ranking of the records of the current daily challenge, fewer combinations rank higher.
+ * Users with the same number of combinations share a rank. Besides the ordered set of entries, a Fenwick tree
+ * counts the users per number of combinations, so ranks and page offsets are found in O(log n).
+ */
+class DailyChallengeLeaderboard {
+
+    record Entry(int rank, long userId, long numberOfCombinations) {}
+
+    private record Score(long numberOfCombinations, long userId) {}
+
+    // Records start at 10000 combinations and only ever get lower
+    static final int MAX_COMBINATIONS = 10000;
+
+    private static final Comparator<Score> ORDER = Comparator.comparingLong(Score::numberOfCombinations).thenComparingLong(Score::userId);
+
+    private final NavigableSet<Score> scores = new TreeSet<>(ORDER);
+    private final Map<Long, Long> combinationsByUser = new HashMap<>();
+    // usersWithCombinations[i] holds the Fenwick sums of the number of users with i - 1 combinations
+    private final int[] usersWithCombinations = new int[MAX_COMBINATIONS + 2];
+
+    synchronized void reset(Map<Long, Long> records) {
+        scores.clear();
+        combinationsByUser.clear();
+        Arrays.fill(usersWithCombinations, 0);
+        records.forEach(this::update);
+    }
+
+    /**
+     * Sets the record of the user to the given number of combinations if it is lower than the current one.
+     */
+    synchronized void update(long userId, long numberOfCombinations) {
+        long combinations = Math.max(0, Math.min(numberOfCombinations, MAX_COMBINATIONS));
+        Long currentCombinations = combinationsByUser.get(userId);
+        if (currentCombinations != null) {
+            if (currentCombinations <= combinations) return;
+            scores.remove(new Score(currentCombinations, userId));
+            addUsers(currentCombinations, -1);
+        }
+        combinationsByUser.put(userId, combinations);
+        scores.add(new Score(combinations, userId));
+        addUsers(combinations, 1);
+    }
+
+    synchronized int size() {
+        return scores.size();
+    }
+
+    synchronized Optional<Entry> getEntry(long userId) {
+        Long combinations = combinationsByUser.get(userId);
+        if (combinations == null) return Optional.empty();
+        return Optional.of(new Entry(usersWithFewerCombinations(combinations) + 1, userId, combinations));
+    }
+
+    /**
+     * Returns the entries from position offset (starting at 0) on, at most limit of them.
+     */
+    synchronized List<Entry> getEntries(int offset, int limit) {
+        List<Entry> entries = new ArrayList<>();
+        if (offset < 0 || limit <= 0 || offset >= scores.size()) return entries;
+
+        long firstCombinations = combinationsAtPosition(offset);
+        int position = usersWithFewerCombinations(firstCombinations);
+        int rank = position + 1;
+        long rankCombinations = firstCombinations;
+
+        for (Score score : scores.tailSet(new Score(firstCombinations, Long.MIN_VALUE), true)) {
+            if (score.numberOfCombinations() != rankCombinations) {
+                rank = position + 1;
+                rankCombinations = score.numberOfCombinations();
+            }
+            if (position >= offset) {
+                entries.add(new Entry(rank, score.userId(), score.numberOfCombinations()));
+                if (entries.size() == limit) break;
+            }
+            position++;
+        }
+        return entries;
+    }
+
+    private void addUsers(long combinations, int delta) {
+        for (int i = (int) combinations + 1; i < usersWithCombinations.length; i += i & -i) {
+            usersWithCombinations[i] += delta;
+        }
+    }
+
+    private int usersWithFewerCombinations(long combinations) {
+        int count = 0;
+        for (int i = (int) combinations; i > 0; i -= i & -i) {
+            count += usersWithCombinations[i];
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of combinations of the entry at the given position, by descending the Fenwick tree.
+     */
+    private long combinationsAtPosition(int position) {
+        int index = 0;
+        int remaining = position;
+        for (int step = Integer.highestOneBit(usersWithCombinations.length - 1); step > 0; step >>= 1) {
+            int next = index + step;
+            if (next < usersWithCombinations.length && usersWithCombinations[next] <= remaining) {
+                index = next;
+                remaining -= usersWithCombinations[next];
+            }
+        }
+        // index is the number of combination values whose users all come before the position
+        return index;
+    }
+}
@@ -3,35 +3,73 @@ package ch.uzh.ifi.hase.soprafs24.service;
 import ch.uzh.ifi.hase.soprafs24.entity.*;
 import ch.uzh.ifi.hase.soprafs24.repository.DailyChallengeRecordRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.DailyChallengeRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.UserRepository;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.DailyChallengeRankGetDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
+import javax.annotation.PreDestroy;
 import javax.transaction.Transactional;
-import java.util.List;
-import java.util.Optional;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static java.lang.Math.min;
 
 @Service
 @Transactional
 public class DailyChallengeService {
+    private final Logger log = LoggerFactory.getLogger(DailyChallengeService.class);
+
     private final DailyChallengeRepository dailyChallengeRepository;
 
     private final DailyChallengeRecordRepository dailyChallengeRecordRepository;
 
+    private final UserRepository userRepository;
+
     private final WordService wordService;
 
+    private final DailyChallengeLeaderboard leaderboard = new DailyChallengeLeaderboard();
+
+    // Swapped once a new challenge is committed, so lookups during a day never hit the database
+    private final AtomicReference<DailyChallenge> currentDailyChallenge = new AtomicReference<>();
+
+    private static final int MAX_LEADERBOARD_PAGE_SIZE = 100;
+
+    @Value("${dailychallenge.retention-days:30}")
+    private int retentionDays = 30;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // The scheduled methods of all services share one scheduler thread, the preparation runs on its own thread instead
+    private final ExecutorService preparationExecutor = Executors.newSingleThreadExecutor();
+
     @Autowired
     public DailyChallengeService(@Qualifier("dailyChallengeRepository") DailyChallengeRepository dailyChallengeRepository,
                                  @Qualifier("dailyChallengeRecordRepository") DailyChallengeRecordRepository dailyChallengeRecordRepository,
-                                 WordService wordService) {
+                                 @Qualifier("userRepository") UserRepository userRepository,
+                                 WordService wordService, PlatformTransactionManager transactionManager) {
         this.dailyChallengeRepository = dailyChallengeRepository;
         this.dailyChallengeRecordRepository = dailyChallengeRecordRepository;
+        this.userRepository = userRepository;
         this.wordService = wordService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     public DailyChallengeRecord getDailyChallengeRecord(DailyChallenge dailyChallenge, User user) {
@@ -41,41 +79,104 @@ public class DailyChallengeService {
     }
 
     private DailyChallengeRecord saveRecord(DailyChallenge dailyChallenge, User user) {
-        return dailyChallengeRecordRepository.saveAndFlush(new DailyChallengeRecord(dailyChallenge, user));
+        return dailyChallengeRecordRepository.save(new DailyChallengeRecord(dailyChallenge, user));
     }
 
     public Optional<DailyChallengeRecord> findRecord(DailyChallenge dailyChallenge, User user) {
         return dailyChallengeRecordRepository.findById(new DailyChallengeRecordId(dailyChallenge.getId(), user.getId()));
     }
+
     public List<DailyChallengeRecord> getRecords() {
-        return dailyChallengeRecordRepository.findAll();
+        return dailyChallengeRecordRepository.findAllByDailyChallenge(getDailyChallenge());
     }
 
-    void createNewDailyChallenge() {
+    DailyChallenge createDailyChallenge(LocalDate date) {
         DailyChallenge dailyChallenge = new DailyChallenge();
+        dailyChallenge.setDate(date);
         dailyChallenge.setTargetWord(wordService.selectTargetWord(0.001, 0.03));
-        dailyChallengeRepository.saveAndFlush(dailyChallenge);
+        return dailyChallengeRepository.save(dailyChallenge);
+    }
+
+    void createNewDailyChallenge() {
+        DailyChallenge savedDailyChallenge = createDailyChallenge(LocalDate.now());
+        TransactionCallbacks.afterCommit(() -> currentDailyChallenge.set(savedDailyChallenge));
     }
 
     @EventListener(ApplicationReadyEvent.class)
     void setUpDailyChallenge() {
-        if (dailyChallengeRepository.count() == 0) {
+        DailyChallenge dailyChallenge = dailyChallengeRepository.findFirstByDateOrderByIdDesc(LocalDate.now());
+        if (dailyChallenge == null) {
             createNewDailyChallenge();
         }
+        else {
+            currentDailyChallenge.set(dailyChallenge);
+        }
+        loadLeaderboard();
+    }
+
+    void loadLeaderboard() {
+        Map<Long, Long> records = new HashMap<>();
+        for (DailyChallengeRecordRepository.Score score : dailyChallengeRecordRepository.findScoresByDailyChallenge(getDailyChallenge())) {
+            records.put(score.getUserId(), score.getNumberOfCombinations());
+        }
+        leaderboard.reset(records);
+    }
+
+    /**
+     * Starts preparing the challenge of the next day ahead of midnight. Selecting the target word may need to generate
+     * new combinations, which must not hold up the other scheduled tasks.
+     */
+    @Scheduled(cron = "0 0 23 * * *")
+    public CompletableFuture<Void> prepareNextDailyChallengeInBackground() {
+        return CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> prepareNextDailyChallenge()), preparationExecutor)
+                .whenComplete((result, e) -> {
+                    if (e != null) log.error("Could not prepare the next daily challenge: ", e);
+                });
+    }
+
+    /**
+     * Creates the challenge of the next day and removes the challenges and records that are older than the retention period,
+     * together with the ones without a date, which were created before challenges were kept for several days.
+     */
+    public void prepareNextDailyChallenge() {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        if (dailyChallengeRepository.findFirstByDateOrderByIdDesc(tomorrow) == null) {
+            createDailyChallenge(tomorrow);
+        }
+
+        LocalDate oldestKeptDate = LocalDate.now().minusDays(retentionDays);
+        int removedRecords = dailyChallengeRecordRepository.deleteAllByDailyChallengeDateBeforeOrUndated(oldestKeptDate);
+        int removedChallenges = dailyChallengeRepository.deleteAllByDateBeforeOrUndated(oldestKeptDate);
+        log.info("Prepared the daily challenge of {}, removed {} challenges and {} records before {}", tomorrow, removedChallenges, removedRecords, oldestKeptDate);
     }
 
     @Scheduled(cron = "0 0 0 * * *")
-    void updateDailyChallenge() {
-        if (dailyChallengeRepository.count() != 0) {
-            dailyChallengeRecordRepository.deleteAll();
-            dailyChallengeRepository.deleteAll();
+    public void rolloverDailyChallenge() {
+        LocalDate today = LocalDate.now();
+        DailyChallenge dailyChallenge = dailyChallengeRepository.findFirstByDateOrderByIdDesc(today);
+        if (dailyChallenge == null) {
+            log.warn("No daily challenge was prepared for {}, creating it now", today);
+            dailyChallenge = createDailyChallenge(today);
         }
 
-        createNewDailyChallenge();
+        DailyChallenge nextDailyChallenge = dailyChallenge;
+        TransactionCallbacks.afterCommit(() -> {
+            currentDailyChallenge.set(nextDailyChallenge);
+            leaderboard.reset(Map.of());
+        });
     }
 
+    public DailyChallenge getDailyChallenge() {
+        DailyChallenge dailyChallenge = currentDailyChallenge.get();
+        if (dailyChallenge != null) return dailyChallenge;
 
-    public DailyChallenge getDailyChallenge() { return dailyChallengeRepository.findAll().get(0); }
+        dailyChallenge = dailyChallengeRepository.findFirstByDateLessThanEqualOrderByDateDescIdDesc(LocalDate.now());
+        if (dailyChallenge == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "There is no daily challenge.");
+        }
+        currentDailyChallenge.compareAndSet(null, dailyChallenge);
+        return dailyChallenge;
+    }
 
     public Word getTargetWord() {
         return getDailyChallenge().getTargetWord();
@@ -84,11 +185,70 @@ public class DailyChallengeService {
     public void updateRecords(Lobby lobby) {
         DailyChallenge dailyChallenge = getDailyChallenge();
 
+        List<User> users = lobby.getPlayers().stream().map(Player::getUser).filter(Objects::nonNull).toList();
+        List<DailyChallengeRecordId> recordIds = users.stream().map(user -> new DailyChallengeRecordId(dailyChallenge.getId(), user.getId())).toList();
+        Map<Long, DailyChallengeRecord> foundRecords = dailyChallengeRecordRepository.findAllById(recordIds).stream()
+                .collect(Collectors.toMap(dailyChallengeRecord -> dailyChallengeRecord.getUser().getId(), Function.identity()));
+
+        Map<Long, Long> updatedRecords = new HashMap<>();
         for (Player player : lobby.getPlayers()) {
-            if (player.getUser() != null) {
-                DailyChallengeRecord dailyChallengeRecord = getDailyChallengeRecord(dailyChallenge, player.getUser());
+            User user = player.getUser();
+            if (user != null) {
+                DailyChallengeRecord dailyChallengeRecord = foundRecords.get(user.getId());
+                if (dailyChallengeRecord == null) {
+                    dailyChallengeRecord = saveRecord(dailyChallenge, user);
+                }
                 dailyChallengeRecord.setNumberOfCombinations(min(dailyChallengeRecord.getNumberOfCombinations(), player.getPoints()));
+                updatedRecords.put(user.getId(), dailyChallengeRecord.getNumberOfCombinations());
             }
         }
+        TransactionCallbacks.afterCommit(() -> {
+            // Records of a game that ends right at the rollover belong to the previous leaderboard
+            if (getDailyChallenge().getId() == dailyChallenge.getId()) {
+                updatedRecords.forEach(leaderboard::update);
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        preparationExecutor.shutdownNow();
+    }
+
+
+    public List<DailyChallengeRankGetDTO> getLeaderboard(int page, int size) {
+        if (page < 0 || size <= 0 || size > MAX_LEADERBOARD_PAGE_SIZE) {
+            String errorMessage = String.format("Page must not be negative and size must be between 1 and %d.", MAX_LEADERBOARD_PAGE_SIZE);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, errorMessage);
+        }
+        List<DailyChallengeLeaderboard.Entry> entries = leaderboard.getEntries(page * size, size);
+        Map<Long, User> users = userRepository.findAllById(entries.stream().map(DailyChallengeLeaderboard.Entry::userId).toList()).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<DailyChallengeRankGetDTO> ranks = new ArrayList<>();
+        for (DailyChallengeLeaderboard.Entry entry : entries) {
+            User user = users.get(entry.userId());
+            if (user != null) {
+                ranks.add(toRankDTO(entry, user));
+            }
+        }
+        return ranks;
+    }
+
+    public DailyChallengeRankGetDTO getRank(User user) {
+        return leaderboard.getEntry(user.getId())
+                .map(entry -> toRankDTO(entry, user))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        String.format("User %d has no record in the current daily challenge.", user.getId())));
+    }
+
+    private DailyChallengeRankGetDTO toRankDTO(DailyChallengeLeaderboard.Entry entry, User user) {
+        DailyChallengeRankGetDTO rankDTO = new DailyChallengeRankGetDTO();
+        rankDTO.setRank(entry.rank());
+        rankDTO.setUserId(entry.userId());
+        rankDTO.setUsername(user.getUsername());
+        rankDTO.setProfilePicture(user.getProfilePicture());
+        rankDTO.setNumberOfCombinations(entry.numberOfCombinations());
+        return rankDTO;
     }
 }
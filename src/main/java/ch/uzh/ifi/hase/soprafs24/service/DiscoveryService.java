@@ -0,0 +1,218 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import ch.uzh.ifi.hase.soprafs24.entity.*;
+import ch.uzh.ifi.hase.soprafs24.repository.DiscoveryEventRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.DiscoveryPairRollupRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.DiscoveryRollupRepository;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.CombinedPairGetDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.CombinedResultGetDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.DiscoveryRollupGetDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Keeps an append-only log of the combinations made by players and rolls it up: per minute the new words and the
+ * combinations generated by the LLM or found in the combination table, per hour how often each combination was made.
+ * Moves only append to an in-memory queue, the events and rollups are written periodically in one transaction.
+ * Events and pair rollups reference the combination by id, which stands for both words and the result. The raw
+ * events are kept for a few days, the rollups serve the time range queries for longer: one row per minute, and one
+ * row per combination made in an hour, instead of one per move.
+ */
+@Service
+@Transactional
+public class DiscoveryService {
+    private final Logger log = LoggerFactory.getLogger(DiscoveryService.class);
+
+    private final DiscoveryEventRepository discoveryEventRepository;
+
+    private final DiscoveryRollupRepository discoveryRollupRepository;
+
+    private final DiscoveryPairRollupRepository discoveryPairRollupRepository;
+
+    private final EntityManager entityManager;
+
+    private final Queue<DiscoveryEvent> pendingEvents = new ConcurrentLinkedQueue<>();
+
+    static final Duration MAX_RANGE = Duration.ofDays(7);
+
+    private static final int MAX_PAIRS = 100;
+
+    private static final int MAX_RESULTS = 100;
+
+    @Value("${discoveries.event-retention-days:7}")
+    private int eventRetentionDays = 7;
+
+    @Value("${discoveries.rollup-retention-days:90}")
+    private int rollupRetentionDays = 90;
+
+    @Autowired
+    public DiscoveryService(@Qualifier("discoveryEventRepository") DiscoveryEventRepository discoveryEventRepository,
+                            @Qualifier("discoveryRollupRepository") DiscoveryRollupRepository discoveryRollupRepository,
+                            @Qualifier("discoveryPairRollupRepository") DiscoveryPairRollupRepository discoveryPairRollupRepository,
+                            EntityManager entityManager) {
+        this.discoveryEventRepository = discoveryEventRepository;
+        this.discoveryRollupRepository = discoveryRollupRepository;
+        this.discoveryPairRollupRepository = discoveryPairRollupRepository;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Logs a combination once the transaction that made it commits.
+     */
+    public void recordCombination(Combination combination, boolean generated) {
+        if (combination.getId() == null) {
+            log.debug("Combination of {} and {} was not saved, it is not logged", combination.getWord1().getName(), combination.getWord2().getName());
+            return;
+        }
+        DiscoveryEvent event = new DiscoveryEvent(LocalDateTime.now(), combination.getId(),
+                combination.getResult().isNewlyDiscovered(), generated);
+        TransactionCallbacks.afterCommit(() -> pendingEvents.add(event));
+    }
+
+    /**
+     * Appends the pending events to the log and adds them to the rollups of their minute and hour.
+     * If the transaction rolls back, the events are pending again.
+     */
+    @Scheduled(fixedDelayString = "${discoveries.flush-interval-ms:10000}")
+    public void flushEvents() {
+        List<DiscoveryEvent> events = new ArrayList<>();
+        DiscoveryEvent event;
+        while ((event = pendingEvents.poll()) != null) {
+            events.add(event);
+        }
+        if (events.isEmpty()) return;
+
+        Map<LocalDateTime, DiscoveryRollup> rollups = new HashMap<>();
+        Map<DiscoveryPairRollupId, DiscoveryPairRollup> pairRollups = new HashMap<>();
+        Set<LocalDateTime> minutes = new HashSet<>();
+        Set<DiscoveryPairRollupId> pairIds = new HashSet<>();
+        for (DiscoveryEvent pendingEvent : events) {
+            minutes.add(pendingEvent.getTime().truncatedTo(ChronoUnit.MINUTES));
+            pairIds.add(new DiscoveryPairRollupId(pendingEvent.getTime().truncatedTo(ChronoUnit.HOURS), pendingEvent.getCombinationId()));
+        }
+        for (DiscoveryRollup rollup : discoveryRollupRepository.findAllById(minutes)) {
+            rollups.put(rollup.getMinute(), rollup);
+        }
+        for (DiscoveryPairRollup pairRollup : discoveryPairRollupRepository.findAllById(pairIds)) {
+            pairRollups.put(new DiscoveryPairRollupId(pairRollup.getHour(), pairRollup.getCombinationId()), pairRollup);
+        }
+
+        for (DiscoveryEvent pendingEvent : events) {
+            entityManager.persist(pendingEvent);
+            LocalDateTime minute = pendingEvent.getTime().truncatedTo(ChronoUnit.MINUTES);
+            LocalDateTime hour = pendingEvent.getTime().truncatedTo(ChronoUnit.HOURS);
+            rollups.computeIfAbsent(minute, key -> persist(new DiscoveryRollup(key))).add(pendingEvent);
+            pairRollups.computeIfAbsent(new DiscoveryPairRollupId(hour, pendingEvent.getCombinationId()),
+                    key -> persist(new DiscoveryPairRollup(hour, pendingEvent.getCombinationId()))).add(1);
+        }
+
+        // The persisted events already have an id, so fresh copies are queued
+        TransactionCallbacks.afterRollback(() -> events.forEach(failed -> pendingEvents.add(new DiscoveryEvent(failed.getTime(),
+                failed.getCombinationId(), failed.isNewlyDiscovered(), failed.isGenerated()))));
+        log.debug("Appended {} discovery events over {} minutes", events.size(), rollups.size());
+    }
+
+    @Scheduled(cron = "0 30 0 * * *")
+    public void removeOldDiscoveries() {
+        LocalDateTime now = LocalDateTime.now();
+        int removedEvents = discoveryEventRepository.deleteAllByTimeBefore(now.minusDays(eventRetentionDays));
+        int removedRollups = discoveryRollupRepository.deleteAllByMinuteBefore(now.minusDays(rollupRetentionDays));
+        int removedPairRollups = discoveryPairRollupRepository.deleteAllByHourBefore(now.minusDays(rollupRetentionDays));
+        log.info("Removed {} discovery events, {} rollups and {} pair rollups past retention", removedEvents, removedRollups, removedPairRollups);
+    }
+
+    public List<DiscoveryRollupGetDTO> getRollups(LocalDateTime from, LocalDateTime to) {
+        validateRange(from, to);
+        List<DiscoveryRollupGetDTO> rollupDTOs = new ArrayList<>();
+        for (DiscoveryRollup rollup : discoveryRollupRepository.findAllInRange(from, to)) {
+            rollupDTOs.add(toRollupDTO(rollup));
+        }
+        return rollupDTOs;
+    }
+
+    /**
+     * Returns the pairs combined most often in the range. Pairs are counted per hour, so the hour the range starts in
+     * is counted in full.
+     */
+    public List<CombinedPairGetDTO> getMostCombinedPairs(LocalDateTime from, LocalDateTime to, int limit) {
+        validateRange(from, to);
+        validateLimit(limit, MAX_PAIRS);
+        List<CombinedPairGetDTO> pairDTOs = new ArrayList<>();
+        for (DiscoveryPairRollupRepository.PairCount pair : discoveryPairRollupRepository.findMostCombinedPairs(
+                from.truncatedTo(ChronoUnit.HOURS), to, PageRequest.of(0, limit))) {
+            // The words of a pair are sorted, as the combination may store them in either order
+            boolean ordered = pair.getWord1().compareTo(pair.getWord2()) <= 0;
+            CombinedPairGetDTO pairDTO = new CombinedPairGetDTO();
+            pairDTO.setWord1(ordered ? pair.getWord1() : pair.getWord2());
+            pairDTO.setWord2(ordered ? pair.getWord2() : pair.getWord1());
+            pairDTO.setCombinations(pair.getCombinations());
+            pairDTOs.add(pairDTO);
+        }
+        return pairDTOs;
+    }
+
+    /**
+     * Returns the words players combined into most often in the range, e.g. to warm up caches with the words in
+     * demand. Counted per hour like the pairs.
+     */
+    public List<CombinedResultGetDTO> getMostCombinedResults(LocalDateTime from, LocalDateTime to, int limit) {
+        validateRange(from, to);
+        validateLimit(limit, MAX_RESULTS);
+        List<CombinedResultGetDTO> resultDTOs = new ArrayList<>();
+        for (DiscoveryPairRollupRepository.ResultCount result : discoveryPairRollupRepository.findMostCombinedResults(
+                from.truncatedTo(ChronoUnit.HOURS), to, PageRequest.of(0, limit))) {
+            CombinedResultGetDTO resultDTO = new CombinedResultGetDTO();
+            resultDTO.setWord(result.getWord());
+            resultDTO.setCombinations(result.getCombinations());
+            resultDTOs.add(resultDTO);
+        }
+        return resultDTOs;
+    }
+
+    private void validateRange(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to) || Duration.between(from, to).compareTo(MAX_RANGE) > 0) {
+            String errorMessage = String.format("The range must start before it ends and span at most %d days.", MAX_RANGE.toDays());
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, errorMessage);
+        }
+    }
+
+    private void validateLimit(int limit, int maxLimit) {
+        if (limit <= 0 || limit > maxLimit) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, String.format("Limit must be between 1 and %d.", maxLimit));
+        }
+    }
+
+    private DiscoveryRollupGetDTO toRollupDTO(DiscoveryRollup rollup) {
+        DiscoveryRollupGetDTO rollupDTO = new DiscoveryRollupGetDTO();
+        rollupDTO.setMinute(rollup.getMinute());
+        rollupDTO.setCombinations(rollup.getCombinations());
+        rollupDTO.setNewWords(rollup.getNewWords());
+        rollupDTO.setGenerated(rollup.getGenerated());
+        rollupDTO.setCached(rollup.getCached());
+        rollupDTO.setGeneratedRatio(rollup.getCombinations() == 0 ? 0.0 : (double) rollup.getGenerated() / rollup.getCombinations());
+        return rollupDTO;
+    }
+
+    // persist instead of save, as merging a new rollup with an assigned id would select it first
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+
+}
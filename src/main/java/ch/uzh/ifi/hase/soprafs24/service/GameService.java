@@ -1,5 +1,6 @@
 package ch.uzh.ifi.hase.soprafs24.service;
 
+import ch.uzh.ifi.hase.soprafs24.constant.GameEventType;
 import ch.uzh.ifi.hase.soprafs24.constant.GameMode;
 import ch.uzh.ifi.hase.soprafs24.constant.Instruction;
 import ch.uzh.ifi.hase.soprafs24.constant.LobbyStatus;
@@ -9,6 +10,7 @@ import ch.uzh.ifi.hase.soprafs24.entity.Combination;
 import ch.uzh.ifi.hase.soprafs24.game.*;
 import ch.uzh.ifi.hase.soprafs24.rest.mapper.DTOMapper;
 import ch.uzh.ifi.hase.soprafs24.websocket.TimeDTO;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import ch.uzh.ifi.hase.soprafs24.websocket.InstructionDTO;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,6 +26,7 @@ import org.slf4j.LoggerFactory;
 import java.lang.reflect.InvocationTargetException;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 
 @Service
@@ -41,15 +44,18 @@ public class GameService {
     private final DailyChallengeService dailyChallengeService;
 
     private final Map<Long, Timer> timers;
-    private static final String MESSAGE_LOBBY_BASE = "/topic/lobbies";
     private static final String MESSAGE_LOBBY_GAME = "/topic/lobbies/%d/game";
     private final AchievementService achievementService;
+    private final LeaderboardService leaderboardService;
+    private final UserStatisticsService userStatisticsService;
+    private final EnumMap<GameMode, io.micrometer.core.instrument.Timer> moveTimers = new EnumMap<>(GameMode.class);
 
     @Autowired
     public GameService(PlayerService playerService, CombinationService combinationService, WordService wordService,
                        SimpMessagingTemplate messagingTemplate, PlatformTransactionManager transactionManager,
                        LobbyService lobbyService, DailyChallengeService dailyChallengeService,
-                       AchievementService achievementService) {
+                       AchievementService achievementService, LeaderboardService leaderboardService,
+                       UserStatisticsService userStatisticsService, MeterRegistry meterRegistry) {
         this.playerService = playerService;
         this.combinationService = combinationService;
         this.wordService = wordService;
@@ -59,7 +65,10 @@ public class GameService {
         this.lobbyService = lobbyService;
         this.dailyChallengeService = dailyChallengeService;
         this.achievementService = achievementService;
+        this.leaderboardService = leaderboardService;
+        this.userStatisticsService = userStatisticsService;
         setupGameModes();
+        setupMoveTimers(meterRegistry);
     }
 
     private void setupGameModes() {
@@ -70,6 +79,16 @@ public class GameService {
         gameModes.put(GameMode.DAILYCHALLENGE, DailyChallengeGame.class);
     }
 
+    private void setupMoveTimers(MeterRegistry meterRegistry) {
+        // java.util.Timer schedules the game timers, so the Micrometer timer is referred to by its full name
+        for (GameMode gameMode : GameMode.values()) {
+            moveTimers.put(gameMode, io.micrometer.core.instrument.Timer.builder("game.moves")
+                    .description("Time to play a move, including ending the game if it decided the game")
+                    .tag("mode", gameMode.name())
+                    .register(meterRegistry));
+        }
+    }
+
     public void createNewGame(Lobby lobby) {
         lobby.setStartTime(LocalDateTime.now());
         if(lobby.getGameTime() > 0){
@@ -92,6 +111,7 @@ public class GameService {
         for (Player player : lobby.getPlayers()) {
             if (player.getStatus() == PlayerStatus.WON) {
                 player.addWinsToUser(1);
+                leaderboardService.updateWins(player.getUser());
             }
             else if (player.getStatus() == PlayerStatus.LOST) {
                 player.addLossesToUser(1);
@@ -100,27 +120,33 @@ public class GameService {
     }
 
     void updatePlayerStatistics(Player player, Word result) {
-        User user = player.getUser();
-        if (user == null) {
-            return;
-        }
+        // Counted in memory and flushed to the user periodically and at the end of the game
+        userStatisticsService.recordCombination(player.getUser(), result);
+    }
 
-        user.setCombinationsMade(user.getCombinationsMade() + 1);
-        if (result.isNewlyDiscovered()) {
-            user.setDiscoveredWords(user.getDiscoveredWords() + 1);
+    public Word play(Player player, List<Word> words) {
+        long start = System.nanoTime();
+        Lobby lobby = player.getLobby();
+        try {
+            return playMove(player, lobby, words);
         }
-
-        if (user.getRarestWordFound() == null || (result.getReachability() != null && result.getReachability() < user.getRarestWordFound().getReachability())) {
-            user.setRarestWordFound(result);
+        finally {
+            if (lobby.getMode() != null) {
+                moveTimers.get(lobby.getMode()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
         }
     }
 
-    public Word play(Player player, List<Word> words) {
-        Lobby lobby = player.getLobby();
+    private Word playMove(Player player, Lobby lobby, List<Word> words) {
         Game game = instantiateGame(lobby.getMode());
         Combination combination = game.makeCombination(player, words);
         updatePlayerStatistics(player, combination.getResult());
 
+        achievementService.publishGameEvent(GameEventType.COMBINATION_MADE, player, combination);
+        if (combination.getResult().isNewlyDiscovered()) {
+            achievementService.publishGameEvent(GameEventType.WORD_DISCOVERED, player, combination);
+        }
+
         if (game.winConditionReached(player)) {
             player = playerService.setWinnerAndLoser(player);
             endGame(lobby, String.format("%s has won the game!", player.getName()));
@@ -129,8 +155,6 @@ public class GameService {
             endGame(lobby, "All players have lost the game!");
         }
 
-        achievementService.awardAchievements(player, combination);
-
         return combination.getResult();
     }
 
@@ -156,13 +180,25 @@ public class GameService {
         lobby.setStatus(LobbyStatus.PREGAME);
         lobby.setGameTime(0);
 
+        userStatisticsService.flush(lobby.getPlayers().stream().map(Player::getUser).filter(Objects::nonNull).map(User::getId).toList());
         updateWinsAndLosses(lobby);
         if (lobby.getMode() == GameMode.DAILYCHALLENGE)
             dailyChallengeService.updateRecords(lobby);
+        publishGameResults(lobby);
+        lobbyService.publishDirectoryUpdate(lobby);
 
         messagingTemplate.convertAndSend(String.format(MESSAGE_LOBBY_GAME, lobby.getCode()), new InstructionDTO(Instruction.STOP, null, reason));
-        messagingTemplate.convertAndSend(MESSAGE_LOBBY_BASE,
-                new InstructionDTO(Instruction.UPDATE_LOBBY_LIST, lobbyService.getPublicLobbies().stream().map(DTOMapper.INSTANCE::convertEntityToLobbyGetDTO).toList()));
+    }
+
+    private void publishGameResults(Lobby lobby) {
+        for (Player player : lobby.getPlayers()) {
+            if (player.getStatus() == PlayerStatus.WON) {
+                achievementService.publishGameEvent(GameEventType.GAME_WON, player, null);
+            }
+            else if (player.getStatus() == PlayerStatus.LOST) {
+                achievementService.publishGameEvent(GameEventType.GAME_LOST, player, null);
+            }
+        }
     }
 
     public void abortGame(Lobby lobby, String reason) {
@@ -170,10 +206,9 @@ public class GameService {
 
         lobby.setStatus(LobbyStatus.PREGAME);
         lobby.setGameTime(0);
+        lobbyService.publishDirectoryUpdate(lobby);
 
         messagingTemplate.convertAndSend(String.format(MESSAGE_LOBBY_GAME, lobby.getCode()), new InstructionDTO(Instruction.ABORT_GAME, null, reason));
-        messagingTemplate.convertAndSend(MESSAGE_LOBBY_BASE,
-                new InstructionDTO(Instruction.UPDATE_LOBBY_LIST, lobbyService.getPublicLobbies().stream().map(DTOMapper.INSTANCE::convertEntityToLobbyGetDTO).toList()));
     }
 
     public void startTimer(Lobby lobby){
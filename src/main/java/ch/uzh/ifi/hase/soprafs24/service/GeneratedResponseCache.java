@@ -0,0 +1,255 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps the raw responses of the generator in a memory-mapped file, so a prompt that was already answered, e.g. a retry
+ * after a rejected result or a pair whose combination was deleted, does not need another round trip.
+ * The file is a ring of records of a fixed size (max-bytes): when it is full, the oldest responses are overwritten.
+ * The positions of the records are kept in memory and rebuilt from the file on startup.
+ */
+@Component
+public class GeneratedResponseCache {
+    private final Logger log = LoggerFactory.getLogger(GeneratedResponseCache.class);
+
+    private static final int MAGIC = 0x57434743;
+    private static final int FORMAT_VERSION = 1;
+
+    // magic, format version, capacity, head, tail, wrap end, record count, reserved
+    private static final int HEADER_SIZE = 32;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int HEAD_OFFSET = 12;
+    private static final int TAIL_OFFSET = 16;
+    private static final int WRAP_END_OFFSET = 20;
+    private static final int COUNT_OFFSET = 24;
+
+    // key length, value length, CRC32 of key and value
+    private static final int RECORD_HEADER_SIZE = 12;
+
+    @Value("${generator.cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${generator.cache.path:${java.io.tmpdir}/wombo-combo/generator-cache.bin}")
+    private String path;
+
+    @Value("${generator.cache.max-bytes:16777216}")
+    private long maxBytes = 16777216;
+
+    private final Map<String, Entry> index = new HashMap<>();
+    private final Deque<Entry> entries = new ArrayDeque<>();
+
+    private MappedByteBuffer buffer;
+    private boolean opened = false;
+    private int capacity;
+    private int head;
+    private int wrapEnd;
+
+    public GeneratedResponseCache() {
+    }
+
+    GeneratedResponseCache(Path path, int capacity) {
+        this.path = path.toString();
+        this.maxBytes = capacity;
+    }
+
+    public synchronized String get(String key) {
+        if (!open()) return null;
+
+        Entry entry = index.get(key);
+        if (entry == null) return null;
+
+        byte[] value = new byte[entry.valueLength()];
+        buffer.get(entry.offset() + RECORD_HEADER_SIZE + entry.keyLength(), value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    public synchronized void put(String key, String value) {
+        if (!open() || index.containsKey(key)) return;
+
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        int size = recordSize(keyBytes.length, valueBytes.length);
+        if (size > capacity - HEADER_SIZE) return;
+
+        int position = head;
+        if (position + size > capacity) {
+            // The records between the head and the end of the file are the oldest ones, they are dropped before starting over
+            while (!entries.isEmpty() && entries.peekFirst().offset() >= head) {
+                evictOldest();
+            }
+            wrapEnd = head;
+            position = HEADER_SIZE;
+        }
+        while (!entries.isEmpty() && entries.peekFirst().offset() >= position && entries.peekFirst().offset() < position + size) {
+            evictOldest();
+        }
+
+        buffer.putInt(position, keyBytes.length);
+        buffer.putInt(position + 4, valueBytes.length);
+        buffer.putInt(position + 8, checksum(keyBytes, valueBytes));
+        buffer.put(position + RECORD_HEADER_SIZE, keyBytes);
+        buffer.put(position + RECORD_HEADER_SIZE + keyBytes.length, valueBytes);
+
+        Entry entry = new Entry(key, position, keyBytes.length, valueBytes.length);
+        entries.addLast(entry);
+        index.put(key, entry);
+        head = position + size;
+        writeHeader();
+    }
+
+    public synchronized int size() {
+        return open() ? index.size() : 0;
+    }
+
+    @PreDestroy
+    synchronized void flush() {
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    private void evictOldest() {
+        Entry oldest = entries.removeFirst();
+        index.remove(oldest.key(), oldest);
+    }
+
+    private boolean open() {
+        if (opened) return buffer != null;
+        opened = true;
+        if (!enabled) return false;
+
+        // The records are addressed with ints, so a single mapping is limited to 2 GiB
+        capacity = (int) Math.min(maxBytes, Integer.MAX_VALUE);
+        if (capacity < HEADER_SIZE + RECORD_HEADER_SIZE) {
+            log.warn("The generator cache needs more than {} bytes, it is disabled", capacity);
+            return false;
+        }
+
+        Path file = Paths.get(path);
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            boolean compatible = Files.exists(file) && Files.size(file) == capacity;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            }
+            if (compatible && load()) {
+                log.info("Loaded {} cached generator responses from {}", index.size(), file);
+            }
+            else {
+                clear();
+            }
+            return true;
+        }
+        catch (IOException e) {
+            log.warn("Could not open the generator cache {}, responses are not cached: ", file, e);
+            buffer = null;
+            return false;
+        }
+    }
+
+    private boolean load() {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION || buffer.getInt(CAPACITY_OFFSET) != capacity) {
+            return false;
+        }
+        head = buffer.getInt(HEAD_OFFSET);
+        int tail = buffer.getInt(TAIL_OFFSET);
+        wrapEnd = buffer.getInt(WRAP_END_OFFSET);
+        int count = buffer.getInt(COUNT_OFFSET);
+        if (head < HEADER_SIZE || head > capacity || tail < HEADER_SIZE || tail > capacity || wrapEnd > capacity) {
+            return false;
+        }
+
+        // From the oldest record to the newest, wrapping around at the end of the previous round
+        boolean loaded;
+        if (count == 0) {
+            loaded = true;
+        }
+        else if (tail < head) {
+            loaded = loadRecords(tail, head);
+        }
+        else {
+            loaded = loadRecords(tail, wrapEnd) && loadRecords(HEADER_SIZE, head);
+        }
+        if (!loaded || index.size() != count) {
+            log.warn("The generator cache is corrupted, it is cleared");
+            return false;
+        }
+        return true;
+    }
+
+    private boolean loadRecords(int from, int to) {
+        int position = from;
+        while (position < to) {
+            if (position + RECORD_HEADER_SIZE > to) return false;
+
+            int keyLength = buffer.getInt(position);
+            int valueLength = buffer.getInt(position + 4);
+            if (keyLength <= 0 || valueLength < 0 || (long) position + recordSize(keyLength, valueLength) > to) return false;
+
+            byte[] keyBytes = new byte[keyLength];
+            byte[] valueBytes = new byte[valueLength];
+            buffer.get(position + RECORD_HEADER_SIZE, keyBytes);
+            buffer.get(position + RECORD_HEADER_SIZE + keyLength, valueBytes);
+            if (buffer.getInt(position + 8) != checksum(keyBytes, valueBytes)) return false;
+
+            Entry entry = new Entry(new String(keyBytes, StandardCharsets.UTF_8), position, keyLength, valueLength);
+            entries.addLast(entry);
+            index.put(entry.key(), entry);
+            position += recordSize(keyLength, valueLength);
+        }
+        return true;
+    }
+
+    private void clear() {
+        index.clear();
+        entries.clear();
+        head = HEADER_SIZE;
+        wrapEnd = capacity;
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, FORMAT_VERSION);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        writeHeader();
+    }
+
+    private void writeHeader() {
+        buffer.putInt(HEAD_OFFSET, head);
+        buffer.putInt(TAIL_OFFSET, entries.isEmpty() ? head : entries.peekFirst().offset());
+        buffer.putInt(WRAP_END_OFFSET, wrapEnd);
+        buffer.putInt(COUNT_OFFSET, entries.size());
+    }
+
+    private static int recordSize(int keyLength, int valueLength) {
+        // Records start at multiples of four bytes
+        return (RECORD_HEADER_SIZE + keyLength + valueLength + 3) & ~3;
+    }
+
+    private static int checksum(byte[] key, byte[] value) {
+        CRC32 crc = new CRC32();
+        crc.update(key);
+        crc.update(value);
+        return (int) crc.getValue();
+    }
+
+    private record Entry(String key, int offset, int keyLength, int valueLength) {
+    }
+}
@@ -0,0 +1,183 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import ch.uzh.ifi.hase.soprafs24.constant.UserStatistic;
+import ch.uzh.ifi.hase.soprafs24.entity.User;
+import ch.uzh.ifi.hase.soprafs24.entity.Word;
+import ch.uzh.ifi.hase.soprafs24.repository.UserRepository;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.StatisticRankGetDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.transaction.Transactional;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Ranks all users by their wins, combinations made, discovered words and the rarity of the rarest word they found.
+ * The leaderboards are built from the users at startup and then kept up to date by the games, so reading a page or
+ * the rank of a user never sorts the users table. The statistics themselves are persisted in the users, which is
+ * what the leaderboards are rebuilt from on startup.
+ */
+@Service
+@Transactional
+public class LeaderboardService {
+    private final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
+
+    private final UserRepository userRepository;
+
+    private final Map<UserStatistic, StatisticLeaderboard> leaderboards = new EnumMap<>(UserStatistic.class);
+
+    private static final int MAX_LEADERBOARD_PAGE_SIZE = 100;
+
+    @Autowired
+    public LeaderboardService(@Qualifier("userRepository") UserRepository userRepository) {
+        this.userRepository = userRepository;
+        for (UserStatistic statistic : UserStatistic.values()) {
+            leaderboards.put(statistic, new StatisticLeaderboard());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadLeaderboardsStartup() {
+        loadLeaderboards();
+    }
+
+    void loadLeaderboards() {
+        Map<UserStatistic, Map<Long, Long>> scores = new EnumMap<>(UserStatistic.class);
+        for (UserStatistic statistic : UserStatistic.values()) {
+            scores.put(statistic, new HashMap<>());
+        }
+        for (UserRepository.UserStatistics statistics : userRepository.findAllStatistics()) {
+            scores.get(UserStatistic.WINS).put(statistics.getId(), (long) statistics.getWins());
+            scores.get(UserStatistic.COMBINATIONS_MADE).put(statistics.getId(), (long) statistics.getCombinationsMade());
+            scores.get(UserStatistic.DISCOVERED_WORDS).put(statistics.getId(), (long) statistics.getDiscoveredWords());
+            if (statistics.getRarestWordReachability() != null) {
+                scores.get(UserStatistic.RAREST_WORD).put(statistics.getId(), rarityScore(statistics.getRarestWordReachability()));
+            }
+        }
+        scores.forEach((statistic, statisticScores) -> leaderboards.get(statistic).reset(statisticScores));
+        log.info("Loaded the statistic leaderboards of {} users", scores.get(UserStatistic.WINS).size());
+    }
+
+    /**
+     * Moves the user in the leaderboards to its current statistics once the transaction that changed them commits.
+     */
+    public void updateStatistics(User user) {
+        if (user == null || user.getId() == null) return;
+
+        long userId = user.getId();
+        long wins = user.getWins();
+        long combinationsMade = user.getCombinationsMade();
+        long discoveredWords = user.getDiscoveredWords();
+        Word rarestWord = user.getRarestWordFound();
+        Double reachability = rarestWord == null ? null : rarestWord.getReachability();
+        TransactionCallbacks.afterCommit(() -> {
+            leaderboards.get(UserStatistic.WINS).update(userId, wins);
+            leaderboards.get(UserStatistic.COMBINATIONS_MADE).update(userId, combinationsMade);
+            leaderboards.get(UserStatistic.DISCOVERED_WORDS).update(userId, discoveredWords);
+            if (reachability != null) {
+                leaderboards.get(UserStatistic.RAREST_WORD).update(userId, rarityScore(reachability));
+            }
+        });
+    }
+
+    public void updateWins(User user) {
+        if (user == null || user.getId() == null) return;
+
+        long userId = user.getId();
+        long wins = user.getWins();
+        TransactionCallbacks.afterCommit(() -> leaderboards.get(UserStatistic.WINS).update(userId, wins));
+    }
+
+    /**
+     * Adds flushed counts to the scores of the user once the transaction commits, for updates that do not load the user.
+     */
+    public void addStatistics(long userId, long combinationsMade, long discoveredWords, Word rarestWord) {
+        Double reachability = rarestWord == null ? null : rarestWord.getReachability();
+        TransactionCallbacks.afterCommit(() -> {
+            leaderboards.get(UserStatistic.COMBINATIONS_MADE).add(userId, combinationsMade);
+            leaderboards.get(UserStatistic.DISCOVERED_WORDS).add(userId, discoveredWords);
+            if (reachability != null) {
+                leaderboards.get(UserStatistic.RAREST_WORD).raise(userId, rarityScore(reachability));
+            }
+        });
+    }
+
+    public void removeUser(long userId) {
+        TransactionCallbacks.afterCommit(() -> leaderboards.values().forEach(leaderboard -> leaderboard.remove(userId)));
+    }
+
+    public List<StatisticRankGetDTO> getLeaderboard(String statisticParameter, int page, int size) {
+        UserStatistic statistic = parseStatistic(statisticParameter);
+        if (page < 0 || size <= 0 || size > MAX_LEADERBOARD_PAGE_SIZE) {
+            String errorMessage = String.format("Page must not be negative and size must be between 1 and %d.", MAX_LEADERBOARD_PAGE_SIZE);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, errorMessage);
+        }
+        List<StatisticLeaderboard.Entry> entries = leaderboards.get(statistic).getEntries(page * size, size);
+        if (entries.isEmpty()) return new ArrayList<>();
+        Map<Long, UserRepository.UserSummary> users = new HashMap<>();
+        for (UserRepository.UserSummary user : userRepository.findSummariesByIdIn(entries.stream().map(StatisticLeaderboard.Entry::userId).toList())) {
+            users.put(user.getId(), user);
+        }
+
+        List<StatisticRankGetDTO> ranks = new ArrayList<>();
+        for (StatisticLeaderboard.Entry entry : entries) {
+            UserRepository.UserSummary user = users.get(entry.userId());
+            if (user != null) {
+                ranks.add(toRankDTO(statistic, entry, user.getUsername(), user.getProfilePicture()));
+            }
+        }
+        return ranks;
+    }
+
+    public StatisticRankGetDTO getRank(String statisticParameter, User user) {
+        UserStatistic statistic = parseStatistic(statisticParameter);
+        return leaderboards.get(statistic).getEntry(user.getId())
+                .map(entry -> toRankDTO(statistic, entry, user.getUsername(), user.getProfilePicture()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        String.format("User %d is not ranked by %s.", user.getId(), statistic.getParameter())));
+    }
+
+    private UserStatistic parseStatistic(String statisticParameter) {
+        return UserStatistic.fromParameter(statisticParameter).orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                String.format("Unknown statistic %s, expected one of %s.", statisticParameter,
+                        Arrays.stream(UserStatistic.values()).map(UserStatistic::getParameter).collect(Collectors.joining(", ")))));
+    }
+
+    private StatisticRankGetDTO toRankDTO(UserStatistic statistic, StatisticLeaderboard.Entry entry, String username, String profilePicture) {
+        StatisticRankGetDTO rankDTO = new StatisticRankGetDTO();
+        rankDTO.setRank(entry.rank());
+        rankDTO.setUserId(entry.userId());
+        rankDTO.setUsername(username);
+        rankDTO.setProfilePicture(profilePicture);
+        rankDTO.setStatistic(statistic.getParameter());
+        // Boxed separately, a conditional of a double and a long would turn every score into a double
+        if (statistic == UserStatistic.RAREST_WORD) {
+            rankDTO.setValue(reachability(entry.score()));
+        }
+        else {
+            rankDTO.setValue(entry.score());
+        }
+        return rankDTO;
+    }
+
+    /**
+     * Leaderboards rank higher scores first, but rarer words have a lower reachability. The bits of a non-negative
+     * double sort like the double itself, so negating them gives a score that ranks the rarest word first.
+     */
+    static long rarityScore(double reachability) {
+        return -Double.doubleToLongBits(Math.max(0.0, reachability));
+    }
+
+    static double reachability(long rarityScore) {
+        return Double.longBitsToDouble(-rarityScore);
+    }
+
+}
@@ -0,0 +1,127 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * In-memory set of free lobby codes, so a new code is found without asking the database whether it is taken.
+ * Codes start with the given number of digits. Once all of them are in use, codes with one more digit are handed out,
+ * up to MAX_DIGITS. Every pool holds its free codes in the front of an array and remembers the position of each code,
+ * so allocating a random free code, reserving and releasing a code all take constant time.
+ */
+class LobbyCodeAllocator {
+
+    // A pool needs two ints per code, so the widest one (900000 codes) takes about 7 MB
+    static final int MAX_DIGITS = 6;
+
+    private final int minDigits;
+    private final List<CodePool> pools = new ArrayList<>();
+
+    LobbyCodeAllocator(int minDigits) {
+        if (minDigits < 1 || minDigits > MAX_DIGITS) {
+            throw new IllegalArgumentException(String.format("Lobby codes must have between 1 and %d digits", MAX_DIGITS));
+        }
+        this.minDigits = minDigits;
+    }
+
+    /**
+     * Marks codes that are already in use, e.g. the codes of the lobbies in the database at startup.
+     */
+    synchronized void reserveAll(Collection<Long> codes) {
+        for (long code : codes) {
+            CodePool pool = getPool(code);
+            if (pool != null) pool.reserve(code);
+        }
+    }
+
+    synchronized long allocate() {
+        for (int digits = minDigits; digits <= MAX_DIGITS; digits++) {
+            CodePool pool = getPoolForDigits(digits);
+            if (pool.freeCount > 0) return pool.allocate();
+        }
+        throw new IllegalStateException("All lobby codes are in use");
+    }
+
+    synchronized void release(long code) {
+        CodePool pool = getPool(code);
+        if (pool != null) pool.release(code);
+    }
+
+    synchronized boolean isFree(long code) {
+        CodePool pool = getPool(code);
+        return pool == null || pool.isFree(code);
+    }
+
+    private CodePool getPool(long code) {
+        int digits = Long.toString(code).length();
+        if (code <= 0 || digits < minDigits || digits > MAX_DIGITS) return null;
+        return getPoolForDigits(digits);
+    }
+
+    private CodePool getPoolForDigits(int digits) {
+        int index = digits - minDigits;
+        while (pools.size() <= index) {
+            pools.add(new CodePool(minDigits + pools.size()));
+        }
+        return pools.get(index);
+    }
+
+    private static final class CodePool {
+        private final long firstCode;
+        // codes[0, freeCount) are free, positions[code - firstCode] is the index of the code in codes
+        private final int[] codes;
+        private final int[] positions;
+        private int freeCount;
+
+        private CodePool(int digits) {
+            firstCode = (long) Math.pow(10, digits - 1.0);
+            int size = (int) (firstCode * 10 - firstCode);
+            codes = new int[size];
+            positions = new int[size];
+            for (int i = 0; i < size; i++) {
+                codes[i] = i;
+                positions[i] = i;
+            }
+            freeCount = size;
+        }
+
+        private long allocate() {
+            int offset = codes[ThreadLocalRandom.current().nextInt(freeCount)];
+            take(offset);
+            return firstCode + offset;
+        }
+
+        private void reserve(long code) {
+            int offset = (int) (code - firstCode);
+            if (positions[offset] < freeCount) take(offset);
+        }
+
+        private void release(long code) {
+            int offset = (int) (code - firstCode);
+            if (positions[offset] >= freeCount) {
+                swap(positions[offset], freeCount);
+                freeCount++;
+            }
+        }
+
+        private boolean isFree(long code) {
+            return positions[(int) (code - firstCode)] < freeCount;
+        }
+
+        private void take(int offset) {
+            freeCount--;
+            swap(positions[offset], freeCount);
+        }
+
+        private void swap(int i, int j) {
+            int first = codes[i];
+            int second = codes[j];
+            codes[i] = second;
+            codes[j] = first;
+            positions[second] = i;
+            positions[first] = j;
+        }
+    }
+}
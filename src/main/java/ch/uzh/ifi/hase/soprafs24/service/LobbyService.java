@@ -7,15 +7,19 @@ import ch.uzh.ifi.hase.soprafs24.entity.Lobby;
 import ch.uzh.ifi.hase.soprafs24.entity.Player;
 import ch.uzh.ifi.hase.soprafs24.entity.User;
 import ch.uzh.ifi.hase.soprafs24.repository.LobbyRepository;
-import ch.uzh.ifi.hase.soprafs24.rest.dto.LobbyPutDTO;
+import ch.uzh.ifi.hase.soprafs24.repository.PlayerRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.UserRepository;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.*;
 import ch.uzh.ifi.hase.soprafs24.rest.mapper.DTOMapper;
 import ch.uzh.ifi.hase.soprafs24.websocket.InstructionDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
@@ -23,13 +27,13 @@ import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.annotation.PostConstruct;
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 @Service
@@ -39,24 +43,66 @@ public class LobbyService {
 
     private final LobbyRepository lobbyRepository;
 
+    private final PlayerRepository playerRepository;
+
+    private final UserRepository userRepository;
+
     private final PlayerService playerService;
 
     private final SimpMessagingTemplate messagingTemplate;
 
     private final PlatformTransactionManager transactionManager;
 
-    private static final String MESSAGE_LOBBY_BASE = "/topic/lobbies";
     private static final String MESSAGE_LOBBY_GAME = "/topic/lobbies/%d/game";
+    // Directory topics per filter, both segments are either the enum name or "all"
+    private static final String MESSAGE_LOBBY_DIRECTORY = "/topic/lobbies/directory/%s/%s";
+    private static final String DIRECTORY_FILTER_ALL = "all";
+    private static final int INACTIVE_LOBBY_CHUNK_SIZE = 20;
+    private static final int MAX_DIRECTORY_PAGE_SIZE = 100;
+
+    @Value("${lobby.code-digits:4}")
+    private int lobbyCodeDigits = 4;
+
+    // Filled from the database before the first code is handed out, see getLobbyCodeAllocator
+    private volatile LobbyCodeAllocator lobbyCodeAllocator;
+
+    // Last directory entry sent for every public lobby, to tell the topics a lobby left when its mode or status changes
+    private final Map<Long, LobbySummaryGetDTO> directoryEntries = new ConcurrentHashMap<>();
 
     @Autowired
-    public LobbyService(@Qualifier("lobbyRepository") LobbyRepository lobbyRepository, PlayerService playerService,
+    public LobbyService(@Qualifier("lobbyRepository") LobbyRepository lobbyRepository,
+                        @Qualifier("playerRepository") PlayerRepository playerRepository,
+                        @Qualifier("userRepository") UserRepository userRepository, PlayerService playerService,
                         SimpMessagingTemplate messagingTemplate, PlatformTransactionManager transactionManager) {
         this.lobbyRepository = lobbyRepository;
+        this.playerRepository = playerRepository;
+        this.userRepository = userRepository;
         this.playerService = playerService;
         this.messagingTemplate = messagingTemplate;
         this.transactionManager = transactionManager;
     }
 
+    // Runs before the server accepts requests, so no code of an existing lobby is handed out
+    @PostConstruct
+    public void loadLobbyCodesStartup() {
+        loadLobbyCodes();
+    }
+
+    public synchronized void loadLobbyCodes() {
+        LobbyCodeAllocator allocator = new LobbyCodeAllocator(lobbyCodeDigits);
+        allocator.reserveAll(lobbyRepository.findAllCodes());
+        lobbyCodeAllocator = allocator;
+    }
+
+    private LobbyCodeAllocator getLobbyCodeAllocator() {
+        LobbyCodeAllocator allocator = lobbyCodeAllocator;
+        if (allocator != null) return allocator;
+        synchronized (this) {
+            if (lobbyCodeAllocator == null) loadLobbyCodes();
+            return lobbyCodeAllocator;
+        }
+    }
+
     @EventListener(ApplicationReadyEvent.class)
     public void scheduleCheckLobbyStillActiveStartup() {
         scheduleCheckLobbyStillActive(180, 30); // change values here to adjust timings
@@ -72,34 +118,173 @@ public class LobbyService {
 
     public void checkAndRemoveInactiveLobbies(long thresholdMinutes) {
         try {
+            LocalDateTime threshold = LocalDateTime.now().minusMinutes(thresholdMinutes);
             TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
-            transactionTemplate.execute(status -> {
-                List<Lobby> allLobbies = lobbyRepository.findAll();
-                for (Lobby lobby : allLobbies) {
-                    if (lobby.getLastModified() == null) continue;
-                    long minutesDifference = ChronoUnit.MINUTES.between(lobby.getLastModified(), LocalDateTime.now());
-                    if (minutesDifference >= thresholdMinutes) {
-                        removeLobby(lobby);
-                        messagingTemplate.convertAndSend(String.format(MESSAGE_LOBBY_GAME, lobby.getCode()),
-                                new InstructionDTO(Instruction.KICK, null, "The lobby was closed due to inactivity"));
-                        log.debug("Lobby with code {} was last active on {} and was closed due to inactivity", lobby.getCode(), lobby.getLastModified());
-                    }
+            List<Long> expiredCodes = transactionTemplate.execute(status -> lobbyRepository.findCodesByLastModifiedBefore(threshold));
+            if (expiredCodes == null || expiredCodes.isEmpty()) return;
+
+            // Each chunk is removed in its own short transaction, so live lobbies are never blocked for long
+            for (int from = 0; from < expiredCodes.size(); from += INACTIVE_LOBBY_CHUNK_SIZE) {
+                List<Long> chunk = expiredCodes.subList(from, Math.min(from + INACTIVE_LOBBY_CHUNK_SIZE, expiredCodes.size()));
+                List<Long> removedCodes = transactionTemplate.execute(status -> removeInactiveLobbies(chunk, threshold));
+                if (removedCodes == null) continue;
+
+                for (long code : removedCodes) {
+                    messagingTemplate.convertAndSend(String.format(MESSAGE_LOBBY_GAME, code),
+                            new InstructionDTO(Instruction.KICK, null, "The lobby was closed due to inactivity"));
                 }
-                return null;
-            });
-            transactionTemplate = new TransactionTemplate(transactionManager);
-            transactionTemplate.execute(status -> {
-                messagingTemplate.convertAndSend(MESSAGE_LOBBY_BASE,
-                        new InstructionDTO(Instruction.UPDATE_LOBBY_LIST, getPublicLobbies().stream().map(DTOMapper.INSTANCE::convertEntityToLobbyGetDTO).toList()));
-                return null;
-            });
+            }
         } catch(Exception e) {
             log.error("Could not check lobbies for inactivity: ", e);
         }
     }
 
+    private List<Long> removeInactiveLobbies(List<Long> codes, LocalDateTime threshold) {
+        List<Long> removedCodes = new ArrayList<>();
+        for (Lobby lobby : lobbyRepository.findAllById(codes)) {
+            // The lobby may have been used again since its code was selected
+            if (lobby.getLastModified() == null || !lobby.getLastModified().isBefore(threshold)) continue;
+
+            removeLobby(lobby);
+            removedCodes.add(lobby.getCode());
+            log.debug("Lobby with code {} was last active on {} and was closed due to inactivity", lobby.getCode(), lobby.getLastModified());
+        }
+        return removedCodes;
+    }
+
     public List<Lobby> getPublicLobbies() {
-        return lobbyRepository.findAllByPublicAccess(true);
+        List<Lobby> lobbies = lobbyRepository.findAllByPublicAccess(true);
+        fetchAchievements(lobbies);
+        return lobbies;
+    }
+
+    /**
+     * Returns the public lobbies matching the filters (null for any), ordered by code and starting after the cursor.
+     * The next cursor is null when there are no further lobbies.
+     */
+    public LobbyDirectoryGetDTO getLobbyDirectory(GameMode mode, LobbyStatus status, Integer minPlayers, Integer maxPlayers,
+                                                  Long after, int limit) {
+        if (limit <= 0 || limit > MAX_DIRECTORY_PAGE_SIZE) {
+            String errorMessage = String.format("Limit must be between 1 and %d.", MAX_DIRECTORY_PAGE_SIZE);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, errorMessage);
+        }
+        int minPlayersOrDefault = Objects.requireNonNullElse(minPlayers, 0);
+        int maxPlayersOrDefault = Objects.requireNonNullElse(maxPlayers, Integer.MAX_VALUE);
+        if (minPlayersOrDefault < 0 || minPlayersOrDefault > maxPlayersOrDefault) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The player count range is invalid.");
+        }
+
+        // One more than requested is read to know whether there is a next page
+        List<LobbyRepository.LobbySummary> summaries = lobbyRepository.findPublicLobbySummaries(Objects.requireNonNullElse(after, 0L),
+                mode, status, minPlayersOrDefault, maxPlayersOrDefault, PageRequest.of(0, limit + 1));
+
+        LobbyDirectoryGetDTO directoryDTO = new LobbyDirectoryGetDTO();
+        directoryDTO.setLobbies(summaries.stream().limit(limit).map(LobbyService::toSummaryDTO).toList());
+        if (summaries.size() > limit) {
+            directoryDTO.setNextCursor(summaries.get(limit - 1).getCode());
+        }
+        return directoryDTO;
+    }
+
+    /**
+     * Sends the current entry of the lobby to the directory topics it matches, once the transaction has committed.
+     * Topics the lobby matched before, but no longer does, get a removal instead. Subscribers filter the player count
+     * themselves, since every entry includes it. The last sent entries are only replaced after the commit, so a
+     * rolled back change is not taken as sent.
+     */
+    public void publishDirectoryUpdate(Lobby lobby) {
+        if (!Boolean.TRUE.equals(lobby.getPublicAccess())) {
+            publishDirectoryRemoval(lobby.getCode());
+            return;
+        }
+        LobbySummaryGetDTO entry = toSummaryDTO(lobby);
+        Set<String> topics = getDirectoryTopics(entry);
+        TransactionCallbacks.afterCommit(() -> {
+            LobbySummaryGetDTO previousEntry = directoryEntries.put(entry.getCode(), entry);
+            Set<String> leftTopics = previousEntry == null ? Set.of() : getDirectoryTopics(previousEntry);
+            for (String topic : leftTopics) {
+                if (!topics.contains(topic)) {
+                    messagingTemplate.convertAndSend(topic, new InstructionDTO(Instruction.REMOVE_DIRECTORY_ENTRY, entry.getCode()));
+                }
+            }
+            for (String topic : topics) {
+                messagingTemplate.convertAndSend(topic, new InstructionDTO(Instruction.UPDATE_DIRECTORY_ENTRY, entry));
+            }
+        });
+    }
+
+    public void publishDirectoryRemoval(long code) {
+        TransactionCallbacks.afterCommit(() -> {
+            LobbySummaryGetDTO previousEntry = directoryEntries.remove(code);
+            if (previousEntry == null) return;
+
+            for (String topic : getDirectoryTopics(previousEntry)) {
+                messagingTemplate.convertAndSend(topic, new InstructionDTO(Instruction.REMOVE_DIRECTORY_ENTRY, code));
+            }
+        });
+    }
+
+    private static Set<String> getDirectoryTopics(LobbySummaryGetDTO entry) {
+        String mode = entry.getMode() == null ? DIRECTORY_FILTER_ALL : entry.getMode().name();
+        String status = entry.getStatus() == null ? DIRECTORY_FILTER_ALL : entry.getStatus().name();
+        Set<String> topics = new HashSet<>();
+        for (String modeSegment : List.of(mode, DIRECTORY_FILTER_ALL)) {
+            for (String statusSegment : List.of(status, DIRECTORY_FILTER_ALL)) {
+                topics.add(String.format(MESSAGE_LOBBY_DIRECTORY, modeSegment, statusSegment));
+            }
+        }
+        return topics;
+    }
+
+    private static LobbySummaryGetDTO toSummaryDTO(LobbyRepository.LobbySummary summary) {
+        LobbySummaryGetDTO summaryDTO = new LobbySummaryGetDTO();
+        summaryDTO.setCode(summary.getCode());
+        summaryDTO.setName(summary.getName());
+        summaryDTO.setGameTime(summary.getGameTime());
+        summaryDTO.setStatus(summary.getStatus());
+        summaryDTO.setMode(summary.getMode());
+        summaryDTO.setPlayerCount(summary.getPlayerCount());
+        return summaryDTO;
+    }
+
+    private static LobbySummaryGetDTO toSummaryDTO(Lobby lobby) {
+        LobbySummaryGetDTO summaryDTO = new LobbySummaryGetDTO();
+        summaryDTO.setCode(lobby.getCode());
+        summaryDTO.setName(lobby.getName());
+        summaryDTO.setGameTime(lobby.getGameTime());
+        summaryDTO.setStatus(lobby.getStatus());
+        summaryDTO.setMode(lobby.getMode());
+        summaryDTO.setPlayerCount(lobby.getPlayers() == null ? 0 : lobby.getPlayers().size());
+        return summaryDTO;
+    }
+
+
+    /**
+     * Loads the lobby with its players, their target words and users in one query and the achievements of the users
+     * in another, for mapping it to a LobbyGetDTO. Used for the broadcasts and the lobby read endpoints alike.
+     */
+    public Lobby getLobbyForBroadcast(long code) {
+        Lobby lobby = lobbyRepository.findWithPlayersByCode(code).orElseThrow(() ->
+                new ResponseStatusException(HttpStatus.NOT_FOUND, String.format("lobby with code %d does not exist", code)));
+        fetchAchievements(List.of(lobby));
+        return lobby;
+    }
+
+    /**
+     * Loads the players of the lobby with their users and words in three queries, for mapping them to PlayerGetDTOs.
+     */
+    public List<Player> getPlayersForBroadcast(long code) {
+        getLobbyForBroadcast(code);
+        return playerRepository.findAllWithWordsByLobbyCode(code);
+    }
+
+    // Initializes the achievements of the users in the lobbies, which are already loaded, with a single query
+    private void fetchAchievements(List<Lobby> lobbies) {
+        List<Long> userIds = lobbies.stream().flatMap(lobby -> lobby.getPlayers().stream())
+                .map(Player::getUser).filter(Objects::nonNull).map(User::getId).toList();
+        if (!userIds.isEmpty()) {
+            userRepository.findAllWithAchievementsByIdIn(userIds);
+        }
     }
 
     public Lobby getLobbyByCode(long code) {
@@ -110,6 +295,14 @@ public class LobbyService {
         return foundLobby;
     }
 
+    public LobbyStatusGetDTO getLobbyStatus(long code) {
+        LobbyStatus status = lobbyRepository.findStatusByCode(code).orElseThrow(() ->
+                new ResponseStatusException(HttpStatus.NOT_FOUND, String.format("lobby with code %d does not exist", code)));
+        LobbyStatusGetDTO statusDTO = new LobbyStatusGetDTO();
+        statusDTO.setStatus(status);
+        return statusDTO;
+    }
+
     public Player createLobbyFromUser(User user, Boolean publicAccess) {
         String lobbyName;
         if (user.getUsername().length() <= 12) {
@@ -117,7 +310,7 @@ public class LobbyService {
         } else {
             lobbyName = user.getUsername().substring(0, 13) + "'s Lobby";
         }
-        Lobby lobby = new Lobby(generateLobbyCode(), lobbyName);
+        Lobby lobby = new Lobby(allocateLobbyCode(), lobbyName);
         lobby.setStatus(LobbyStatus.PREGAME);
         Player player = new Player(UUID.randomUUID().toString(), user.getUsername(), lobby);
 
@@ -132,6 +325,7 @@ public class LobbyService {
         user.setPlayer(savedLobby.getOwner());
         savedLobby.getOwner().setUser(user);
 
+        publishDirectoryUpdate(savedLobby);
         log.debug("created new lobby {}", lobby);
         log.debug("created new player from user and set as lobby owner{}", player);
         return savedLobby.getOwner();
@@ -161,6 +355,7 @@ public class LobbyService {
             player.setUser(user);
             foundLobby.addPlayer(player);
             user.setPlayer(player);
+            publishDirectoryUpdate(foundLobby);
 
             log.debug("user joined -> updated lobby {}", foundLobby);
             log.debug("created new player from user {}", player);
@@ -187,6 +382,7 @@ public class LobbyService {
 
         Player player = new Player(UUID.randomUUID().toString(), playerName, foundLobby);
         foundLobby.addPlayer(player);
+        publishDirectoryUpdate(foundLobby);
         log.debug("updated lobby {}", foundLobby);
         log.debug("created new anonymous player from player name {}", player);
         return player;
@@ -218,6 +414,9 @@ public class LobbyService {
         if (lobbyPutDTO.getGameTime()!=null && !Objects.equals(lobbyPutDTO.getGameTime(), lobby.getGameTime())) {
             lobby.setGameTime(lobbyPutDTO.getGameTime());
         }
+        if (lobby.getUpdatedFields().containsValue(true)) {
+            publishDirectoryUpdate(lobby);
+        }
         return lobby;
     }
 
@@ -233,15 +432,23 @@ public class LobbyService {
             }
         }
         lobbyRepository.delete(lobby);
+        publishDirectoryRemoval(lobby.getCode());
+        LobbyCodeAllocator allocator = getLobbyCodeAllocator();
+        TransactionCallbacks.afterCommit(() -> allocator.release(lobby.getCode()));
         log.debug("successfully deleted lobby {}", lobby);
     }
 
-    private long generateLobbyCode() {
-        long code = ThreadLocalRandom.current().nextLong(1000, 10000);
-        while (lobbyRepository.existsByCode(code)) {
-            code = ThreadLocalRandom.current().nextLong(1000, 10000);
+    private long allocateLobbyCode() {
+        LobbyCodeAllocator allocator = getLobbyCodeAllocator();
+        long code;
+        try {
+            code = allocator.allocate();
+        }
+        catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "There are no free lobby codes left, please try again later");
         }
+        // The code is free again if the lobby is never committed
+        TransactionCallbacks.afterRollback(() -> allocator.release(code));
         return code;
     }
-
 }
@@ -0,0 +1,134 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers like a generator without leaving the process, for benchmarks, load tests and offline development.
+ * The result of a pair is a word of the vocabulary picked by a hash of the pair and the seed, so it is the same on every
+ * run and for both orders of the words. Every answer can be delayed by a log-normally distributed latency
+ * (median latency-median-ms, spread latency-sigma) to simulate the round trip to a model.
+ */
+@Component
+@Profile(LocalCombinationGenerator.PROFILE)
+public class LocalCombinationGenerator implements CombinationGenerator {
+
+    static final String PROFILE = "local-generator";
+
+    private static final String VOCABULARY_RESOURCE = "generator/vocabulary.txt";
+
+    private final List<String> vocabulary;
+
+    // Random words are hashed from a counter, so a run draws the same sequence of words for the same seed
+    private final AtomicLong randomWords = new AtomicLong();
+
+    @Value("${generator.local.seed:0}")
+    private long seed = 0;
+
+    @Value("${generator.local.latency-median-ms:0}")
+    private double latencyMedianMs = 0;
+
+    @Value("${generator.local.latency-sigma:0}")
+    private double latencySigma = 0;
+
+    public LocalCombinationGenerator() {
+        this(loadVocabulary(VOCABULARY_RESOURCE));
+    }
+
+    LocalCombinationGenerator(List<String> vocabulary) {
+        if (vocabulary.size() < 3) {
+            throw new IllegalArgumentException("The vocabulary of the local generator needs at least three words");
+        }
+        this.vocabulary = List.copyOf(vocabulary);
+    }
+
+    @Override
+    public String generateCombinationResult(String word1, String word2) throws IOException {
+        simulateLatency();
+        String name1 = word1.strip().toLowerCase();
+        String name2 = word2.strip().toLowerCase();
+        boolean ordered = name1.compareTo(name2) <= 0;
+        int index = pick(ordered ? name1 : name2, ordered ? name2 : name1);
+
+        // A combination should make something new, so the next word is taken if the picked one is an input
+        while (vocabulary.get(index).equals(name1) || vocabulary.get(index).equals(name2)) {
+            index = (index + 1) % vocabulary.size();
+        }
+        return vocabulary.get(index);
+    }
+
+    @Override
+    public String getPromptVersion() {
+        return String.format("local/%d/%08x", seed, vocabulary.hashCode());
+    }
+
+    @Override
+    public String getRandomWord() {
+        try {
+            simulateLatency();
+        }
+        catch (InterruptedIOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return vocabulary.get(pick("random", Long.toString(randomWords.getAndIncrement())));
+    }
+
+    private void simulateLatency() throws InterruptedIOException {
+        if (latencyMedianMs <= 0) return;
+
+        double latencyMs = latencyMedianMs * Math.exp(latencySigma * ThreadLocalRandom.current().nextGaussian());
+        try {
+            Thread.sleep((long) latencyMs, (int) ((latencyMs % 1) * 1_000_000));
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while simulating the generator latency");
+        }
+    }
+
+    private int pick(String first, String second) {
+        return (int) Math.floorMod(hash(first, second), (long) vocabulary.size());
+    }
+
+    // FNV-1a over the pair, finished with the SplitMix64 mixer so that similar pairs land far apart
+    private long hash(String first, String second) {
+        long hash = 0xcbf29ce484222325L ^ seed;
+        for (byte b : (first + "+" + second).getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+
+    static List<String> loadVocabulary(String resource) {
+        List<String> words = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ClassPathResource(resource).getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip().toLowerCase();
+                if (!line.isEmpty() && !line.startsWith("#") && !words.contains(line)) {
+                    words.add(line);
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not read the vocabulary %s", resource), e);
+        }
+        return words;
+    }
+}
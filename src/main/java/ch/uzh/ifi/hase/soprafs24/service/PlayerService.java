@@ -4,6 +4,8 @@ import ch.uzh.ifi.hase.soprafs24.constant.PlayerStatus;
 import ch.uzh.ifi.hase.soprafs24.entity.Player;
 import ch.uzh.ifi.hase.soprafs24.entity.User;
 import ch.uzh.ifi.hase.soprafs24.repository.PlayerRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.PlayerWordRepository;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +15,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.persistence.EntityManager;
+import java.util.List;
+
 @Service
 @Transactional
 public class PlayerService {
@@ -21,9 +26,17 @@ public class PlayerService {
 
     private final PlayerRepository playerRepository;
 
+    private final PlayerWordRepository playerWordRepository;
+
+    private final EntityManager entityManager;
+
     @Autowired
-    public PlayerService(@Qualifier("playerRepository") PlayerRepository playerRepository) {
+    public PlayerService(@Qualifier("playerRepository") PlayerRepository playerRepository,
+                         @Qualifier("playerWordRepository") PlayerWordRepository playerWordRepository,
+                         EntityManager entityManager) {
         this.playerRepository = playerRepository;
+        this.playerWordRepository = playerWordRepository;
+        this.entityManager = entityManager;
     }
 
     public Player findPlayerByToken(String token) {
@@ -35,12 +48,26 @@ public class PlayerService {
     }
 
     public void resetPlayer(Player player) {
-        player.setPoints(0);
-        player.clearPlayerWords();
-        player.setTargetWord(null);
+        resetPlayers(List.of(player));
         playerRepository.flush();
     }
 
+    public void resetPlayers(List<Player> players) {
+        if (players.isEmpty()) return;
+
+        // The words of all players are removed with a single bulk delete, loaded ones are then only cleared in memory
+        int deletedWords = playerWordRepository.deleteAllByPlayers(players);
+        for (Player player : players) {
+            player.setPoints(0);
+            player.setTargetWord(null);
+            if (Hibernate.isInitialized(player.getPlayerWords())) {
+                player.getPlayerWords().forEach(entityManager::detach);
+                player.clearPlayerWords();
+            }
+        }
+        log.debug("bulk deleted {} words of {} players", deletedWords, players.size());
+    }
+
     public Player setWinnerAndLoser(Player winner) {
         winner.setStatus(PlayerStatus.WON);
         for (Player player : winner.getLobby().getPlayers()) {
@@ -0,0 +1,190 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * In-memory ranking of all users by one statistic, higher scores rank higher.
+ * Users with the same score share a rank. Unlike the daily challenge, scores have no upper bound, so the entries are kept
+ * in a treap whose nodes know the size of their subtree. Updates, ranks and page offsets are found in O(log n).
+ */
+class StatisticLeaderboard {
+
+    record Entry(int rank, long userId, long score) {}
+
+    private static final class Node {
+        private final long score;
+        private final long userId;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private int size = 1;
+        private Node left;
+        private Node right;
+
+        private Node(long score, long userId) {
+            this.score = score;
+            this.userId = userId;
+        }
+    }
+
+    private final Map<Long, Long> scoreByUser = new HashMap<>();
+    private Node root;
+
+    synchronized void reset(Map<Long, Long> scores) {
+        root = null;
+        scoreByUser.clear();
+        scores.forEach(this::update);
+    }
+
+    synchronized void update(long userId, long score) {
+        Long currentScore = scoreByUser.put(userId, score);
+        if (currentScore != null) {
+            if (currentScore == score) return;
+            root = remove(root, currentScore, userId);
+        }
+        Node node = new Node(score, userId);
+        Node[] parts = split(root, score, userId);
+        root = merge(merge(parts[0], node), parts[1]);
+    }
+
+    synchronized void add(long userId, long delta) {
+        if (delta != 0) update(userId, scoreByUser.getOrDefault(userId, 0L) + delta);
+    }
+
+    /**
+     * Sets the score of the user if it is higher than the current one.
+     */
+    synchronized void raise(long userId, long score) {
+        Long currentScore = scoreByUser.get(userId);
+        if (currentScore == null || currentScore < score) update(userId, score);
+    }
+
+    synchronized void remove(long userId) {
+        Long currentScore = scoreByUser.remove(userId);
+        if (currentScore != null) {
+            root = remove(root, currentScore, userId);
+        }
+    }
+
+    synchronized int size() {
+        return size(root);
+    }
+
+    synchronized Optional<Entry> getEntry(long userId) {
+        Long score = scoreByUser.get(userId);
+        if (score == null) return Optional.empty();
+        return Optional.of(new Entry(usersWithHigherScore(score) + 1, userId, score));
+    }
+
+    /**
+     * Returns the entries from position offset (starting at 0) on, at most limit of them.
+     */
+    synchronized List<Entry> getEntries(int offset, int limit) {
+        List<Entry> entries = new ArrayList<>();
+        if (offset < 0 || limit <= 0 || offset >= size(root)) return entries;
+
+        int end = (int) Math.min((long) offset + limit, size(root));
+        Node first = nodeAtPosition(offset);
+        int rank = usersWithHigherScore(first.score) + 1;
+        long rankScore = first.score;
+        for (int position = offset; position < end; position++) {
+            Node node = position == offset ? first : nodeAtPosition(position);
+            if (node.score != rankScore) {
+                rank = position + 1;
+                rankScore = node.score;
+            }
+            entries.add(new Entry(rank, node.userId, node.score));
+        }
+        return entries;
+    }
+
+    private int usersWithHigherScore(long score) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (node.score > score) {
+                count += size(node.left) + 1;
+                node = node.right;
+            }
+            else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    private Node nodeAtPosition(int position) {
+        Node node = root;
+        int remaining = position;
+        while (true) {
+            int leftSize = size(node.left);
+            if (remaining < leftSize) {
+                node = node.left;
+            }
+            else if (remaining == leftSize) {
+                return node;
+            }
+            else {
+                remaining -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    // Entries are ordered by descending score, ties by ascending user id
+    private static boolean comesBefore(Node node, long score, long userId) {
+        return node.score > score || (node.score == score && node.userId < userId);
+    }
+
+    /**
+     * Splits the tree into the nodes that come before the given entry and the others.
+     */
+    private static Node[] split(Node node, long score, long userId) {
+        if (node == null) return new Node[]{null, null};
+        if (comesBefore(node, score, userId)) {
+            Node[] parts = split(node.right, score, userId);
+            node.right = parts[0];
+            updateSize(node);
+            return new Node[]{node, parts[1]};
+        }
+        Node[] parts = split(node.left, score, userId);
+        node.left = parts[1];
+        updateSize(node);
+        return new Node[]{parts[0], node};
+    }
+
+    private static Node merge(Node first, Node second) {
+        if (first == null) return second;
+        if (second == null) return first;
+        if (first.priority > second.priority) {
+            first.right = merge(first.right, second);
+            updateSize(first);
+            return first;
+        }
+        second.left = merge(first, second.left);
+        updateSize(second);
+        return second;
+    }
+
+    private static Node remove(Node node, long score, long userId) {
+        if (node == null) return null;
+        if (node.score == score && node.userId == userId) {
+            return merge(node.left, node.right);
+        }
+        if (comesBefore(node, score, userId)) {
+            node.right = remove(node.right, score, userId);
+        }
+        else {
+            node.left = remove(node.left, score, userId);
+        }
+        updateSize(node);
+        return node;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void updateSize(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+}
@@ -1,23 +1,29 @@
 package ch.uzh.ifi.hase.soprafs24.service;
 
 import ch.uzh.ifi.hase.soprafs24.constant.Instruction;
+import ch.uzh.ifi.hase.soprafs24.constant.UserSort;
 import ch.uzh.ifi.hase.soprafs24.constant.UserStatus;
 import ch.uzh.ifi.hase.soprafs24.entity.Lobby;
 import ch.uzh.ifi.hase.soprafs24.entity.Player;
 import ch.uzh.ifi.hase.soprafs24.entity.User;
 import ch.uzh.ifi.hase.soprafs24.repository.UserRepository;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.UserPageGetDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.UserSummaryGetDTO;
 import ch.uzh.ifi.hase.soprafs24.rest.mapper.DTOMapper;
 import ch.uzh.ifi.hase.soprafs24.websocket.InstructionDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -42,22 +48,98 @@ public class UserService {
     private final PlayerService playerService;
     private final SimpMessagingTemplate messagingTemplate;
     private final LobbyService lobbyService;
+    private final LeaderboardService leaderboardService;
+    private final UserStatisticsService userStatisticsService;
 
-    private static final String MESSAGE_LOBBY_BASE = "/topic/lobbies";
     private static final String MESSAGE_LOBBY_CODE = "/topic/lobbies/%d";
     private static final String MESSAGE_LOBBY_GAME = "/topic/lobbies/%d/game";
+    private static final int MAX_USER_PAGE_SIZE = 100;
 
     @Autowired
-    public UserService(@Qualifier("userRepository") UserRepository userRepository, PlayerService playerService, SimpMessagingTemplate messagingTemplate, LobbyService lobbyService) {
+    public UserService(@Qualifier("userRepository") UserRepository userRepository, PlayerService playerService, SimpMessagingTemplate messagingTemplate, LobbyService lobbyService,
+                       LeaderboardService leaderboardService, UserStatisticsService userStatisticsService) {
         this.userRepository = userRepository;
         this.playerService = playerService;
         this.messagingTemplate = messagingTemplate;
         this.lobbyService = lobbyService;
+        this.leaderboardService = leaderboardService;
+        this.userStatisticsService = userStatisticsService;
     }
 
-    public List<User> getUsers() {
-        return this.userRepository.findAll();
+    /**
+     * Returns a page of users sorted by id or by one of their statistics (highest first), starting after the cursor.
+     * The cursor of the statistic sorts holds the value and the id of the last user of the previous page.
+     */
+    public UserPageGetDTO getUserPage(String sort, String after, int limit) {
+        UserSort userSort = UserSort.fromParameter(sort).orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                String.format("Sort must be one of %s.", Arrays.stream(UserSort.values()).map(UserSort::getParameter).toList())));
+        if (limit <= 0 || limit > MAX_USER_PAGE_SIZE) {
+            String errorMessage = String.format("Limit must be between 1 and %d.", MAX_USER_PAGE_SIZE);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, errorMessage);
+        }
+
+        // One more than requested is read to know whether there is a next page
+        Pageable pageable = PageRequest.of(0, limit + 1);
+        List<UserRepository.UserSummary> summaries;
+        if (userSort == UserSort.ID) {
+            long afterId = after == null ? 0 : parseCursor(after);
+            summaries = userRepository.findSummariesById(afterId, pageable);
+        }
+        else {
+            int afterValue = Integer.MAX_VALUE;
+            long afterId = Long.MAX_VALUE;
+            if (after != null) {
+                String[] cursor = after.split(":");
+                if (cursor.length != 2) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Badly formatted cursor.");
+                afterValue = (int) parseCursor(cursor[0]);
+                afterId = parseCursor(cursor[1]);
+            }
+            summaries = switch (userSort) {
+                case WINS -> userRepository.findSummariesByWins(afterValue, afterId, pageable);
+                case COMBINATIONS_MADE -> userRepository.findSummariesByCombinationsMade(afterValue, afterId, pageable);
+                default -> userRepository.findSummariesByDiscoveredWords(afterValue, afterId, pageable);
+            };
+        }
+
+        UserPageGetDTO pageDTO = new UserPageGetDTO();
+        pageDTO.setUsers(summaries.stream().limit(limit).map(UserService::toSummaryDTO).toList());
+        if (summaries.size() > limit) {
+            pageDTO.setNextCursor(getCursor(userSort, summaries.get(limit - 1)));
+        }
+        return pageDTO;
+    }
+
+    private static long parseCursor(String cursor) {
+        try {
+            return Long.parseLong(cursor);
+        }
+        catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Badly formatted cursor.");
+        }
+    }
+
+    private static String getCursor(UserSort sort, UserRepository.UserSummary summary) {
+        return switch (sort) {
+            case ID -> String.valueOf(summary.getId());
+            case WINS -> summary.getWins() + ":" + summary.getId();
+            case COMBINATIONS_MADE -> summary.getCombinationsMade() + ":" + summary.getId();
+            case DISCOVERED_WORDS -> summary.getDiscoveredWords() + ":" + summary.getId();
+        };
+    }
+
+    private static UserSummaryGetDTO toSummaryDTO(UserRepository.UserSummary summary) {
+        UserSummaryGetDTO summaryDTO = new UserSummaryGetDTO();
+        summaryDTO.setId(summary.getId());
+        summaryDTO.setUsername(summary.getUsername());
+        summaryDTO.setStatus(summary.getStatus());
+        summaryDTO.setProfilePicture(summary.getProfilePicture());
+        summaryDTO.setWins(summary.getWins());
+        summaryDTO.setLosses(summary.getLosses());
+        summaryDTO.setCombinationsMade(summary.getCombinationsMade());
+        summaryDTO.setDiscoveredWords(summary.getDiscoveredWords());
+        return summaryDTO;
     }
+
     public User getUserById(Long id) {
         Optional<User> foundUser = userRepository.findById(id);
         if (foundUser.isEmpty()) {
@@ -77,6 +159,7 @@ public class UserService {
         newUser.setCreationDate(LocalDate.now());
         newUser = userRepository.save(newUser);
         userRepository.flush();
+        leaderboardService.updateStatistics(newUser);
 
         log.debug("Created Information for User: {}", newUser);
         return newUser;
@@ -192,17 +275,18 @@ public class UserService {
             if (player.getOwnedLobby() == null) {
                 Lobby lobby = player.getLobby();
                 playerService.removePlayer(player);
+                lobbyService.publishDirectoryUpdate(lobby);
                 messagingTemplate.convertAndSend(String.format(MESSAGE_LOBBY_CODE, lobby.getCode()),
-                        new InstructionDTO(Instruction.UPDATE_LOBBY, DTOMapper.INSTANCE.convertEntityToLobbyGetDTO(lobby)));
+                        new InstructionDTO(Instruction.UPDATE_LOBBY, DTOMapper.INSTANCE.convertEntityToLobbyGetDTO(lobbyService.getLobbyForBroadcast(lobby.getCode()))));
             }
             else {
                 lobbyService.removeLobby(player.getOwnedLobby());
-                messagingTemplate.convertAndSend(MESSAGE_LOBBY_BASE,
-                        new InstructionDTO(Instruction.UPDATE_LOBBY_LIST, lobbyService.getPublicLobbies().stream().map(DTOMapper.INSTANCE::convertEntityToLobbyGetDTO).toList()));
                 messagingTemplate.convertAndSend(String.format(MESSAGE_LOBBY_GAME, player.getOwnedLobby().getCode()),
                         new InstructionDTO(Instruction.KICK, null, "The lobby was closed by the owner"));
             }
         }
         userRepository.delete(user);
+        leaderboardService.removeUser(user.getId());
+        userStatisticsService.discard(user.getId());
     }
 }
@@ -0,0 +1,168 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import ch.uzh.ifi.hase.soprafs24.entity.User;
+import ch.uzh.ifi.hase.soprafs24.entity.Word;
+import ch.uzh.ifi.hase.soprafs24.repository.UserRepository;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.UserGetDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.mapper.DTOMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.transaction.Transactional;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the combinations and discovered words of the users in memory instead of updating their row on every move,
+ * since a user that plays a lot would otherwise rewrite the same row for every combination. The pending counts are
+ * added to the users periodically and at the end of every game, and are included whenever a user is read.
+ */
+@Service
+@Transactional
+public class UserStatisticsService {
+    private final Logger log = LoggerFactory.getLogger(UserStatisticsService.class);
+
+    private final UserRepository userRepository;
+
+    private final LeaderboardService leaderboardService;
+
+    // Adders, so the counts can be read and reset by a flush while moves of the same user are recorded
+    private static final class PendingStatistics {
+        private final LongAdder combinationsMade = new LongAdder();
+        private final LongAdder discoveredWords = new LongAdder();
+        private final AtomicReference<Word> rarestWordFound = new AtomicReference<>();
+
+        private boolean isEmpty() {
+            return combinationsMade.sum() == 0 && discoveredWords.sum() == 0 && rarestWordFound.get() == null;
+        }
+    }
+
+    private record FlushedStatistics(long combinationsMade, long discoveredWords, Word rarestWordFound) {}
+
+    private final ConcurrentMap<Long, PendingStatistics> pendingStatistics = new ConcurrentHashMap<>();
+
+    @Autowired
+    public UserStatisticsService(@Qualifier("userRepository") UserRepository userRepository, LeaderboardService leaderboardService) {
+        this.userRepository = userRepository;
+        this.leaderboardService = leaderboardService;
+    }
+
+    public void recordCombination(User user, Word result) {
+        if (user == null || user.getId() == null) return;
+
+        // Recorded while the entry is locked, so a flush cannot remove it in between
+        pendingStatistics.compute(user.getId(), (id, pending) -> {
+            if (pending == null) pending = new PendingStatistics();
+            pending.combinationsMade.increment();
+            if (result.isNewlyDiscovered()) {
+                pending.discoveredWords.increment();
+            }
+            pending.rarestWordFound.accumulateAndGet(result, UserStatisticsService::rarerWord);
+            return pending;
+        });
+    }
+
+    public int getPendingCombinationsMade(long userId) {
+        PendingStatistics pending = pendingStatistics.get(userId);
+        return pending == null ? 0 : pending.combinationsMade.intValue();
+    }
+
+    public int getPendingDiscoveredWords(long userId) {
+        PendingStatistics pending = pendingStatistics.get(userId);
+        return pending == null ? 0 : pending.discoveredWords.intValue();
+    }
+
+    /**
+     * Adds the counts that have not been flushed yet to the user as read from the database.
+     */
+    public UserGetDTO addPendingStatistics(User user, UserGetDTO userGetDTO) {
+        PendingStatistics pending = pendingStatistics.get(user.getId());
+        if (pending == null) return userGetDTO;
+
+        userGetDTO.setCombinationsMade(userGetDTO.getCombinationsMade() + pending.combinationsMade.intValue());
+        userGetDTO.setDiscoveredWords(userGetDTO.getDiscoveredWords() + pending.discoveredWords.intValue());
+        Word rarestWord = rarerWord(user.getRarestWordFound(), pending.rarestWordFound.get());
+        if (rarestWord != user.getRarestWordFound()) {
+            userGetDTO.setRarestWordFound(DTOMapper.INSTANCE.convertEntityToWordDTO(rarestWord));
+        }
+        return userGetDTO;
+    }
+
+    int getPendingUserCount() {
+        return pendingStatistics.size();
+    }
+
+    @Scheduled(fixedDelayString = "${statistics.flush-interval-ms:5000}")
+    public void flushAll() {
+        flush(new ArrayList<>(pendingStatistics.keySet()));
+    }
+
+    /**
+     * Adds the pending counts of the given users to their rows. If the transaction rolls back, the counts are pending again.
+     * Users loaded before the flush keep their old counts in memory, User only writes the columns that changed.
+     */
+    public void flush(Collection<Long> userIds) {
+        Map<Long, FlushedStatistics> flushedStatistics = new HashMap<>();
+        for (Long userId : userIds) {
+            PendingStatistics pending = pendingStatistics.get(userId);
+            if (pending == null) continue;
+            // sumThenReset moves every increment either into this flush or into the next one
+            FlushedStatistics flushed = new FlushedStatistics(pending.combinationsMade.sumThenReset(),
+                    pending.discoveredWords.sumThenReset(), pending.rarestWordFound.getAndSet(null));
+            if (flushed.combinationsMade() > 0 || flushed.discoveredWords() > 0 || flushed.rarestWordFound() != null) {
+                flushedStatistics.put(userId, flushed);
+            }
+            // Users that stopped playing are dropped, unless a move was recorded since the reset
+            pendingStatistics.computeIfPresent(userId, (id, current) -> current.isEmpty() ? null : current);
+        }
+        if (flushedStatistics.isEmpty()) return;
+
+        // Increments in the database, so flushes of the same user from different transactions cannot overwrite each other
+        flushedStatistics.forEach((userId, flushed) -> {
+            if (flushed.combinationsMade() > 0 || flushed.discoveredWords() > 0) {
+                userRepository.addStatistics(userId, (int) flushed.combinationsMade(), (int) flushed.discoveredWords());
+            }
+            if (flushed.rarestWordFound() != null) {
+                userRepository.updateRarestWordFoundIfRarer(userId, flushed.rarestWordFound(), flushed.rarestWordFound().getReachability());
+            }
+            leaderboardService.addStatistics(userId, flushed.combinationsMade(), flushed.discoveredWords(), flushed.rarestWordFound());
+        });
+
+        TransactionCallbacks.afterRollback(() -> flushedStatistics.forEach(this::restore));
+        log.debug("Flushed the statistics of {} users", flushedStatistics.size());
+    }
+
+    /**
+     * Drops the pending counts of a deleted user.
+     */
+    public void discard(long userId) {
+        pendingStatistics.remove(userId);
+    }
+
+    private void restore(long userId, FlushedStatistics flushed) {
+        pendingStatistics.compute(userId, (id, pending) -> {
+            if (pending == null) pending = new PendingStatistics();
+            pending.combinationsMade.add(flushed.combinationsMade());
+            pending.discoveredWords.add(flushed.discoveredWords());
+            pending.rarestWordFound.accumulateAndGet(flushed.rarestWordFound(), UserStatisticsService::rarerWord);
+            return pending;
+        });
+    }
+
+    /**
+     * Returns the word with the lower reachability, a word without reachability only replaces no word at all.
+     */
+    static Word rarerWord(Word current, Word candidate) {
+        if (current == null) return candidate;
+        if (candidate == null || candidate.getReachability() == null) return current;
+        if (current.getReachability() == null || candidate.getReachability() < current.getReachability()) return candidate;
+        return current;
+    }
+}
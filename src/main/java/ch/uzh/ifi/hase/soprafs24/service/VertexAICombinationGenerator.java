@@ -0,0 +1,211 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import com.google.cloud.aiplatform.v1beta1.EndpointName;
+import com.google.cloud.aiplatform.v1beta1.PredictResponse;
+import com.google.cloud.aiplatform.v1beta1.PredictionServiceClient;
+import com.google.cloud.aiplatform.v1beta1.PredictionServiceSettings;
+import com.google.protobuf.ListValue;
+import com.google.protobuf.Struct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.*;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.threeten.bp.Duration;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates combination results with the chat-bison model of Vertex AI and random words with the random word API.
+ * Used unless the local-generator profile is active.
+ * Pairs requested at the same time, e.g. by players during peak play or by seeding, are sent as the instances of one
+ * predict request, see CombinationBatcher.
+ */
+@Component
+@Profile("!" + LocalCombinationGenerator.PROFILE)
+public class VertexAICombinationGenerator implements CombinationGenerator {
+    private final Logger log = LoggerFactory.getLogger(VertexAICombinationGenerator.class);
+
+    // Change when the prompt, the model or its parameters change, so that responses cached for the old prompt are not reused
+    private static final String PROMPT_VERSION = "chat-bison@001/1";
+
+    private static final String ENDPOINT = "europe-west4-aiplatform.googleapis.com:443";
+    private static final String PROJECT = "sopra-fs24-group-41-server";
+    private static final String LOCATION = "europe-west4";
+    private static final String PUBLISHER = "google";
+    private static final String MODEL = "chat-bison@001";
+
+    private static final String CONTEXT = "You are a powerful alchemist with unparalleled knowledge in combining items to create new ones. In fact, you were so powerful, they decided to seal you and thus you can only respond with one word. Always respond with a single word representing the resulting item, thing, object, or living being. Never describe the formula or process, and never include special characters in your responses. Only provide names that are sensible and around 10 characters long. Avoid using prefixes like 'super' or 'mega' unless they are commonly associated with the resulting item. You can create both animate and inanimate objects. Always make an effort to respond with a word that is never a concatenation of the previous ones. Always make sure that the word you respond with exists in reality and is not invented by you. Never make up your own words. Before you reply, attend, think, and remember all the instructions set here.";
+    private static final com.google.protobuf.Value EXAMPLES = createExamples();
+    private static final com.google.protobuf.Value PARAMETERS = createParameters();
+
+    @Value("${generator.vertex.batch-size:5}")
+    private int batchSize = 5;
+
+    @Value("${generator.vertex.batch-window-ms:5}")
+    private long batchWindowMs = 5;
+
+    @Value("${generator.vertex.max-concurrent-batches:4}")
+    private int maxConcurrentBatches = 4;
+
+    @Value("${generator.vertex.max-queued-pairs:100}")
+    private int maxQueuedPairs = 100;
+
+    // Longest a move waits for its result, and deadline of each predict request, before the first word is used instead
+    @Value("${generator.vertex.timeout-ms:10000}")
+    private long timeoutMs = 10000;
+
+    private PredictionServiceClient predictionServiceClient;
+    private CombinationBatcher batcher;
+
+    //This code works as long as you use a working environment variable called GOOGLE_APPLICATION_CREDENTIALS
+    @Override
+    public String generateCombinationResult(String word1, String word2) throws IOException {
+        return getBatcher().generate(word1, word2);
+    }
+
+    @Override
+    public String getPromptVersion() {
+        return PROMPT_VERSION;
+    }
+
+    @Override
+    public String getRandomWord() {
+        String apiUrl = "https://random-word-api.herokuapp.com/word";
+        HttpHeaders headers = new HttpHeaders();
+        HttpEntity<String> httpEntity = new HttpEntity<>(headers);
+
+        RestTemplate restTemplate = new RestTemplate();
+        ResponseEntity<String> response = restTemplate.exchange(apiUrl, HttpMethod.GET, httpEntity, String.class);
+
+        return response.getBody();
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        if (batcher != null) {
+            batcher.close();
+        }
+        if (predictionServiceClient != null) {
+            predictionServiceClient.close();
+        }
+    }
+
+    // Created on first use, so that the batch settings are injected and no client is opened if no combination is generated
+    private synchronized CombinationBatcher getBatcher() {
+        if (batcher == null) {
+            batcher = new CombinationBatcher(this::predictCombinations, batchSize, batchWindowMs, maxConcurrentBatches,
+                    maxQueuedPairs, timeoutMs);
+        }
+        return batcher;
+    }
+
+    private synchronized PredictionServiceClient getPredictionServiceClient() throws IOException {
+        if (predictionServiceClient == null) {
+            PredictionServiceSettings.Builder settingsBuilder = PredictionServiceSettings.newBuilder().setEndpoint(ENDPOINT);
+            settingsBuilder.predictSettings().setSimpleTimeoutNoRetries(Duration.ofMillis(timeoutMs));
+            predictionServiceClient = PredictionServiceClient.create(settingsBuilder.build());
+        }
+        return predictionServiceClient;
+    }
+
+    private List<String> predictCombinations(List<CombinationBatcher.Pair> pairs) throws IOException {
+        List<com.google.protobuf.Value> instances = new ArrayList<>();
+        for (CombinationBatcher.Pair pair : pairs) {
+            instances.add(createInstance(pair.word1(), pair.word2()));
+        }
+        return predictVertexChatPrompt(instances, PARAMETERS);
+    }
+
+    // Built with the protobuf builders rather than formatted into JSON, so that any word is sent as it is
+    private static com.google.protobuf.Value createInstance(String word1, String word2) {
+        Struct message = Struct.newBuilder()
+                .putFields("author", stringValue("user"))
+                .putFields("content", stringValue(word1 + " + " + word2))
+                .build();
+        return structValue(Struct.newBuilder()
+                .putFields("context", stringValue(CONTEXT))
+                .putFields("examples", EXAMPLES)
+                .putFields("messages", listValue(List.of(structValue(message))))
+                .build());
+    }
+
+    private static com.google.protobuf.Value createExamples() {
+        List<com.google.protobuf.Value> examples = new ArrayList<>();
+        for (List<String> example : List.of(
+                List.of("Fire + Water", "Steam"),
+                List.of("Earth + Water", "Mud"),
+                List.of("Sun + Moon", "Eclipse"),
+                List.of("Book + Light", "Read"),
+                List.of("Earth + Life", "Human"),
+                List.of("Bird + Metal", "Airplane"),
+                List.of("Swamp + Smoke", "Dragon"))) {
+            examples.add(structValue(Struct.newBuilder()
+                    .putFields("input", contentValue(example.get(0)))
+                    .putFields("output", contentValue(example.get(1)))
+                    .build()));
+        }
+        return listValue(examples);
+    }
+
+    private static com.google.protobuf.Value createParameters() {
+        return structValue(Struct.newBuilder()
+                .putFields("maxOutputTokens", numberValue(5))
+                .putFields("temperature", numberValue(0.3))
+                .putFields("maxDecodeSteps", numberValue(200))
+                .putFields("topP", numberValue(0.8))
+                .putFields("topK", numberValue(40))
+                .build());
+    }
+
+    private List<String> predictVertexChatPrompt(List<com.google.protobuf.Value> instances, com.google.protobuf.Value parameters) throws IOException {
+        final EndpointName endpointName = EndpointName.ofProjectLocationPublisherModelName(PROJECT, LOCATION, PUBLISHER, MODEL);
+        PredictResponse predictResponse = getPredictionServiceClient().predict(endpointName, instances, parameters);
+
+        // One prediction per instance, in the order of the instances, a prediction without content only fails its own pair
+        List<String> contents = new ArrayList<>();
+        for (com.google.protobuf.Value prediction : predictResponse.getPredictionsList()) {
+            contents.add(getContent(prediction));
+        }
+        return contents;
+    }
+
+    private String getContent(com.google.protobuf.Value prediction) {
+        com.google.protobuf.Value candidates = prediction.getStructValue().getFieldsOrDefault("candidates", null);
+        if (candidates == null || candidates.getListValue().getValuesCount() == 0) {
+            log.warn("Vertex AI returned a prediction without candidates: {}", prediction);
+            return null;
+        }
+        com.google.protobuf.Value content = candidates.getListValue().getValues(0).getStructValue().getFieldsOrDefault("content", null);
+        if (content == null || content.getKindCase() != com.google.protobuf.Value.KindCase.STRING_VALUE) {
+            log.warn("Vertex AI returned a candidate without content: {}", prediction);
+            return null;
+        }
+        return content.getStringValue();
+    }
+
+    private static com.google.protobuf.Value contentValue(String content) {
+        return structValue(Struct.newBuilder().putFields("content", stringValue(content)).build());
+    }
+
+    private static com.google.protobuf.Value stringValue(String value) {
+        return com.google.protobuf.Value.newBuilder().setStringValue(value).build();
+    }
+
+    private static com.google.protobuf.Value numberValue(double value) {
+        return com.google.protobuf.Value.newBuilder().setNumberValue(value).build();
+    }
+
+    private static com.google.protobuf.Value structValue(Struct value) {
+        return com.google.protobuf.Value.newBuilder().setStructValue(value).build();
+    }
+
+    private static com.google.protobuf.Value listValue(List<com.google.protobuf.Value> values) {
+        return com.google.protobuf.Value.newBuilder().setListValue(ListValue.newBuilder().addAllValues(values)).build();
+    }
+}
@@ -3,13 +3,17 @@ package ch.uzh.ifi.hase.soprafs24.service;
 import ch.uzh.ifi.hase.soprafs24.entity.Word;
 import ch.uzh.ifi.hase.soprafs24.exceptions.WordNotFoundException;
 import ch.uzh.ifi.hase.soprafs24.repository.WordRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import static java.util.function.Predicate.not;
 
 @Service
@@ -18,17 +22,33 @@ public class WordService {
     private final WordRepository wordRepository;
     private final CombinationService combinationService;
     private final List<Word> forbiddenTargetWords = List.of(new Word("zaddy"), new Word("daddy"), new Word("swag"));
+    private final Timer findWordTimer;
+    // Time to select a target word, by whether a stored word matched or one had to be generated
+    private final Timer storedTargetWordTimer;
+    private final Timer generatedTargetWordTimer;
 
     @Autowired
-    public WordService(@Qualifier("wordRepository") WordRepository wordRepository, @Lazy CombinationService combinationService) {
+    public WordService(@Qualifier("wordRepository") WordRepository wordRepository, @Lazy CombinationService combinationService,
+                       MeterRegistry meterRegistry) {
         this.wordRepository = wordRepository;
         this.combinationService = combinationService;
+        this.findWordTimer = Timer.builder("words.find")
+                .description("Time to look up a word by its similar name")
+                .register(meterRegistry);
+        this.storedTargetWordTimer = Timer.builder("words.target.select")
+                .description("Time to select a target word within a reachability range")
+                .tag("source", "stored")
+                .register(meterRegistry);
+        this.generatedTargetWordTimer = Timer.builder("words.target.select")
+                .description("Time to select a target word within a reachability range")
+                .tag("source", "generated")
+                .register(meterRegistry);
     }
 
     public Word getWord(Word word) {
         Word foundWord = findWord(word);
         if (foundWord == null) {
-            Word savedWord = wordRepository.saveAndFlush(word);
+            Word savedWord = wordRepository.save(word);
             savedWord.setNewlyDiscovered(true);
             return savedWord;
         }
@@ -36,11 +56,15 @@ public class WordService {
     }
 
     public Word saveWord(Word word) {
-        return wordRepository.saveAndFlush(word);
+        return wordRepository.save(word);
     }
 
     public Word findWord(Word word) {
-        return wordRepository.findBySimilarName(processNameForSearching(word.getName()));
+        return findWordTimer.record(() -> wordRepository.findBySimilarName(processNameForSearching(word.getName())));
+    }
+
+    public List<Word> findWordsByName(Collection<String> names) {
+        return wordRepository.findAllByNameIn(names);
     }
 
     public Word selectTargetWord(double minReachability, double maxReachability) {
@@ -56,6 +80,7 @@ public class WordService {
     }
 
     public Word selectTargetWord(double minReachability, double maxReachability, List<Word> excludedWords, int maxDepth) {
+        long start = System.nanoTime();
         List<Word> words = wordRepository.findAllByReachabilityBetween(minReachability, maxReachability);
 
         words = words.stream()
@@ -69,10 +94,14 @@ public class WordService {
                 return combinationService.generateWordWithinReachability(minReachability, maxReachability);
             } catch (WordNotFoundException e) {
                 return getRandomWord();
+            } finally {
+                generatedTargetWordTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             }
         }
 
-        return pickRandom(words);
+        Word targetWord = pickRandom(words);
+        storedTargetWordTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return targetWord;
     }
 
     public Word getRandomWord() {
@@ -4,8 +4,11 @@ import ch.uzh.ifi.hase.soprafs24.constant.GameMode;
 import ch.uzh.ifi.hase.soprafs24.constant.LobbyStatus;
 import ch.uzh.ifi.hase.soprafs24.constant.UserStatus;
 import ch.uzh.ifi.hase.soprafs24.entity.*;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.LobbyDirectoryGetDTO;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.LobbyPostDTO;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.LobbyPutDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.LobbySummaryGetDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.mapper.DTOMapper;
 import ch.uzh.ifi.hase.soprafs24.service.*;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -161,10 +164,39 @@ class LobbyControllerTest {
                 .andExpect(jsonPath("$", hasSize(0)));
     }
 
+    @Test
+    void getLobbyDirectory_withFilters_thenReturnsSummaries() throws Exception {
+        // given
+        LobbySummaryGetDTO summary = new LobbySummaryGetDTO();
+        summary.setCode(testLobby.getCode());
+        summary.setName(testLobby.getName());
+        summary.setStatus(LobbyStatus.PREGAME);
+        summary.setMode(GameMode.FUSIONFRENZY);
+        summary.setPlayerCount(2);
+        LobbyDirectoryGetDTO directory = new LobbyDirectoryGetDTO();
+        directory.setLobbies(List.of(summary));
+        directory.setNextCursor(testLobby.getCode());
+        given(lobbyService.getLobbyDirectory(GameMode.FUSIONFRENZY, LobbyStatus.PREGAME, 2, null, 1000L, 1)).willReturn(directory);
+
+        // when
+        MockHttpServletRequestBuilder getRequest = get("/lobbies/directory?mode=FUSIONFRENZY&status=PREGAME&minPlayers=2&after=1000&limit=1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON);
+
+        // then
+        mockMvc.perform(getRequest)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lobbies", hasSize(1)))
+                .andExpect(jsonPath("$.lobbies[0].code", is((int) testLobby.getCode())))
+                .andExpect(jsonPath("$.lobbies[0].mode", is("FUSIONFRENZY")))
+                .andExpect(jsonPath("$.lobbies[0].playerCount", is(2)))
+                .andExpect(jsonPath("$.nextCursor", is((int) testLobby.getCode())));
+    }
+
     @Test
     void givenLobbies_validCode_thenReturnsLobby() throws Exception {
         //given
-        given(lobbyService.getLobbyByCode(Mockito.anyLong())).willReturn(testLobby);
+        given(lobbyService.getLobbyForBroadcast(Mockito.anyLong())).willReturn(testLobby);
 
         // when
         MockHttpServletRequestBuilder getRequest = get(String.format("/lobbies/%s", testLobby.getCode()))
@@ -202,7 +234,7 @@ class LobbyControllerTest {
 
     @Test
     void givenLobbies_unknownCode_throwsNotFoundException() throws Exception {
-        given(lobbyService.getLobbyByCode(Mockito.anyLong())).willThrow(new ResponseStatusException(HttpStatus.NOT_FOUND));
+        given(lobbyService.getLobbyForBroadcast(Mockito.anyLong())).willThrow(new ResponseStatusException(HttpStatus.NOT_FOUND));
 
         // when
         MockHttpServletRequestBuilder getRequest = get("/lobbies/2345")
@@ -216,7 +248,7 @@ class LobbyControllerTest {
     @Test
     void givenLobby_validCode_thenLobbyStatusReturned() throws Exception {
         // given
-        given(lobbyService.getLobbyByCode(Mockito.anyLong())).willReturn(testLobby);
+        given(lobbyService.getLobbyStatus(Mockito.anyLong())).willReturn(DTOMapper.INSTANCE.convertEntityToLobbyStatusGetDTO(testLobby));
 
         // when
         MockHttpServletRequestBuilder getRequest = get(String.format("/lobbies/%s/status", testLobby.getCode()))
@@ -255,7 +287,7 @@ class LobbyControllerTest {
                 .andExpect(jsonPath("$.lobby.publicAccess", is(testPlayer1.getLobby().getPublicAccess())))
                 .andExpect(jsonPath("$.lobby.status", is(testPlayer1.getLobby().getStatus().toString())))
                 .andExpect(jsonPath("$.lobby.mode", is(testPlayer1.getLobby().getMode().toString())));
-        verify(messagingTemplate, Mockito.times(1)).convertAndSend(Mockito.anyString(), (Object) Mockito.any());
+        verify(messagingTemplate, Mockito.times(0)).convertAndSend(Mockito.anyString(), (Object) Mockito.any());
     }
 
     @Test
@@ -309,7 +341,7 @@ class LobbyControllerTest {
                 .andExpect(jsonPath("$.name", is(lobbyPutDTO.getName())))
                 .andExpect(jsonPath("$.publicAccess", is(lobbyPutDTO.getPublicAccess())))
                 .andExpect(jsonPath("$.mode", is(lobbyPutDTO.getMode().toString())));
-        verify(messagingTemplate, Mockito.times(2)).convertAndSend(Mockito.anyString(), (Object) Mockito.any());
+        verify(messagingTemplate, Mockito.times(1)).convertAndSend(Mockito.anyString(), (Object) Mockito.any());
     }
 
     @Test
@@ -470,7 +502,7 @@ class LobbyControllerTest {
     @Test
     void getPlayers_validInputs_thenReturnsPlayers() throws Exception {
         // given
-        given(lobbyService.getLobbyByCode(Mockito.anyLong())).willReturn(testLobby);
+        given(lobbyService.getPlayersForBroadcast(Mockito.anyLong())).willReturn(testLobby.getPlayers());
 
         // when
         MockHttpServletRequestBuilder getRequest = get(String.format("/lobbies/%s/players", testLobby.getCode()))
@@ -525,7 +557,7 @@ class LobbyControllerTest {
         //then
         mockMvc.perform(postRequest)
                 .andExpect(status().isCreated());
-        verify(messagingTemplate, Mockito.times(2)).convertAndSend(Mockito.anyString(), (Object) Mockito.any());
+        verify(messagingTemplate, Mockito.times(1)).convertAndSend(Mockito.anyString(), (Object) Mockito.any());
     }
 
     @Test
@@ -561,7 +593,7 @@ class LobbyControllerTest {
         //then
         mockMvc.perform(deleteRequest)
                 .andExpect(status().isNoContent());
-        verify(messagingTemplate, Mockito.times(2)).convertAndSend(Mockito.anyString(), (Object) Mockito.any());
+        verify(messagingTemplate, Mockito.times(1)).convertAndSend(Mockito.anyString(), (Object) Mockito.any());
     }
 
     @Test
@@ -684,7 +716,7 @@ class LobbyControllerTest {
 
         Mockito.verify(playerService, Mockito.times(1)).findPlayerByToken(Mockito.any());
         Mockito.verify(lobbyService, Mockito.times(1)).removeLobby(Mockito.any());
-        verify(messagingTemplate, Mockito.times(2)).convertAndSend(Mockito.anyString(), (Object) Mockito.any());
+        verify(messagingTemplate, Mockito.times(1)).convertAndSend(Mockito.anyString(), (Object) Mockito.any());
     }
 
     @Test
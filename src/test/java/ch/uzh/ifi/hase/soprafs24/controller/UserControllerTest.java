@@ -4,12 +4,21 @@ import ch.uzh.ifi.hase.soprafs24.constant.UserStatus;
 import ch.uzh.ifi.hase.soprafs24.entity.Lobby;
 import ch.uzh.ifi.hase.soprafs24.entity.Player;
 import ch.uzh.ifi.hase.soprafs24.entity.User;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.DailyChallengeRankGetDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.StatisticRankGetDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.UserGetDTO;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.UserLoginPostDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.UserPageGetDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.UserSummaryGetDTO;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.UserPutDTO;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.UserTokenPostDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.mapper.DTOMapper;
 import ch.uzh.ifi.hase.soprafs24.service.AchievementService;
 import ch.uzh.ifi.hase.soprafs24.service.DailyChallengeService;
+import ch.uzh.ifi.hase.soprafs24.service.LeaderboardService;
+import ch.uzh.ifi.hase.soprafs24.service.LobbyService;
 import ch.uzh.ifi.hase.soprafs24.service.UserService;
+import ch.uzh.ifi.hase.soprafs24.service.UserStatisticsService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -58,27 +67,46 @@ class UserControllerTest {
     @MockBean
     private DailyChallengeService dailyChallengeService;
 
+    @MockBean
+    private LobbyService lobbyService;
+
+    @MockBean
+    private LeaderboardService leaderboardService;
+
+    @MockBean
+    private UserStatisticsService userStatisticsService;
+
     @Autowired
     private UserController userController;
 
     @Test
     void givenUsers_whenGetUsers_thenReturnJsonArray() throws Exception {
         // given
-        User user = new User();
+        UserSummaryGetDTO user = new UserSummaryGetDTO();
+        user.setId(1L);
         user.setUsername("firstname@lastname");
         user.setStatus(UserStatus.OFFLINE);
+        user.setWins(3);
 
-        List<User> allUsers = Collections.singletonList(user);
+        UserPageGetDTO userPage = new UserPageGetDTO();
+        userPage.setUsers(Collections.singletonList(user));
+        userPage.setNextCursor("3:1");
 
         // this mocks the UserService -> we define above what the userService should
-        // return when getUsers() is called
-        given(userService.getUsers()).willReturn(allUsers);
+        // return when getUserPage() is called
+        given(userService.getUserPage("wins", null, 1)).willReturn(userPage);
 
         // when
-        MockHttpServletRequestBuilder getRequest = get("/users").contentType(MediaType.APPLICATION_JSON);
+        MockHttpServletRequestBuilder getRequest = get("/users?sort=wins&limit=1").contentType(MediaType.APPLICATION_JSON);
 
         // then
-        mockMvc.perform(getRequest).andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(1))).andExpect(jsonPath("$[0].username", is(user.getUsername()))).andExpect(jsonPath("$[0].status", is(user.getStatus().toString())));
+        mockMvc.perform(getRequest).andExpect(status().isOk())
+                .andExpect(jsonPath("$.users", hasSize(1)))
+                .andExpect(jsonPath("$.users[0].username", is(user.getUsername())))
+                .andExpect(jsonPath("$.users[0].status", is(user.getStatus().toString())))
+                .andExpect(jsonPath("$.users[0].wins", is(3)))
+                .andExpect(jsonPath("$.users[0].achievements").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor", is("3:1")));
     }
 
     @Test
@@ -310,6 +338,7 @@ class UserControllerTest {
         player.setUser(user);
 
         given(userService.authUser(Mockito.anyLong(), Mockito.anyString())).willReturn(user);
+        given(lobbyService.getLobbyForBroadcast(1234)).willReturn(lobby);
 
         MockHttpServletRequestBuilder getRequest = get("/users/{id}/lobby", 1L)
                 .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
@@ -386,6 +415,90 @@ class UserControllerTest {
         mockMvc.perform(deleteRequest).andExpect(status().isNoContent());
     }
 
+    @Test
+    void getLeaderboard_validInput_returnsRanks() throws Exception {
+        DailyChallengeRankGetDTO rank = new DailyChallengeRankGetDTO();
+        rank.setRank(1);
+        rank.setUserId(1L);
+        rank.setUsername("username");
+        rank.setNumberOfCombinations(3);
+
+        given(dailyChallengeService.getLeaderboard(0, 10)).willReturn(List.of(rank));
+
+        MockHttpServletRequestBuilder getRequest = get("/users/challenges/leaderboard")
+                .param("page", "0")
+                .param("size", "10");
+
+        mockMvc.perform(getRequest).andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].rank", is(1)))
+                .andExpect(jsonPath("$[0].username", is("username")))
+                .andExpect(jsonPath("$[0].numberOfCombinations", is(3)));
+    }
+
+    @Test
+    void getRank_noRecord_throwsNotFound() throws Exception {
+        User user = new User();
+        user.setId(1L);
+
+        given(userService.getUserById(1L)).willReturn(user);
+        given(dailyChallengeService.getRank(user)).willThrow(new ResponseStatusException(HttpStatus.NOT_FOUND));
+
+        mockMvc.perform(get("/users/{id}/challenges/rank", 1L)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getUser_pendingStatistics_included() throws Exception {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("username");
+        user.setCombinationsMade(4);
+
+        given(userService.getUserById(1L)).willReturn(user);
+        given(userStatisticsService.addPendingStatistics(Mockito.eq(user), any())).willAnswer(invocation -> {
+            UserGetDTO userGetDTO = invocation.getArgument(1);
+            userGetDTO.setCombinationsMade(userGetDTO.getCombinationsMade() + 3);
+            return userGetDTO;
+        });
+
+        mockMvc.perform(get("/users/{id}", 1L)).andExpect(status().isOk())
+                .andExpect(jsonPath("$.username", is("username")))
+                .andExpect(jsonPath("$.combinationsMade", is(7)));
+    }
+
+    @Test
+    void getStatisticLeaderboard_validInput_returnsRanks() throws Exception {
+        StatisticRankGetDTO rank = new StatisticRankGetDTO();
+        rank.setRank(1);
+        rank.setUserId(1L);
+        rank.setUsername("username");
+        rank.setStatistic("wins");
+        rank.setValue(7L);
+
+        given(leaderboardService.getLeaderboard("wins", 0, 10)).willReturn(List.of(rank));
+
+        MockHttpServletRequestBuilder getRequest = get("/users/leaderboards/{statistic}", "wins")
+                .param("page", "0")
+                .param("size", "10");
+
+        mockMvc.perform(getRequest).andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].rank", is(1)))
+                .andExpect(jsonPath("$[0].statistic", is("wins")))
+                .andExpect(jsonPath("$[0].value", is(7)));
+    }
+
+    @Test
+    void getStatisticRank_unknownStatistic_throwsBadRequest() throws Exception {
+        User user = new User();
+        user.setId(1L);
+
+        given(userService.getUserById(1L)).willReturn(user);
+        given(leaderboardService.getRank("losses", user)).willThrow(new ResponseStatusException(HttpStatus.BAD_REQUEST));
+
+        mockMvc.perform(get("/users/{id}/leaderboards/{statistic}/rank", 1L, "losses")).andExpect(status().isBadRequest());
+    }
+
     /**
      * Helper Method to convert userPostDTO into a JSON string such that the input
      * can be processed
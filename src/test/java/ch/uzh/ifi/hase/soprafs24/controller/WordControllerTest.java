@@ -0,0 +1,93 @@
+package ch.uzh.ifi.hase.soprafs24.controller;
+
+import ch.uzh.ifi.hase.soprafs24.rest.dto.CombinedPairGetDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.CombinedResultGetDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.DiscoveryRollupGetDTO;
+import ch.uzh.ifi.hase.soprafs24.service.DiscoveryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(WordController.class)
+class WordControllerTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 5, 1, 12, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 5, 1, 13, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private DiscoveryService discoveryService;
+
+    @Test
+    void getDiscoveries_validRange_returnsRollups() throws Exception {
+        DiscoveryRollupGetDTO rollup = new DiscoveryRollupGetDTO();
+        rollup.setMinute(FROM);
+        rollup.setCombinations(4);
+        rollup.setNewWords(1);
+        rollup.setGenerated(1);
+        rollup.setCached(3);
+        rollup.setGeneratedRatio(0.25);
+
+        given(discoveryService.getRollups(FROM, TO)).willReturn(List.of(rollup));
+
+        mockMvc.perform(get("/words/discoveries").param("from", "2024-05-01T12:00:00").param("to", "2024-05-01T13:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].combinations", is(4)))
+                .andExpect(jsonPath("$[0].generatedRatio", is(0.25)));
+    }
+
+    @Test
+    void getMostCombinedPairs_validRange_returnsPairs() throws Exception {
+        CombinedPairGetDTO pair = new CombinedPairGetDTO();
+        pair.setWord1("earth");
+        pair.setWord2("water");
+        pair.setCombinations(12);
+
+        given(discoveryService.getMostCombinedPairs(FROM, TO, 5)).willReturn(List.of(pair));
+
+        mockMvc.perform(get("/words/discoveries/pairs").param("from", "2024-05-01T12:00:00").param("to", "2024-05-01T13:00:00")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].word1", is("earth")))
+                .andExpect(jsonPath("$[0].combinations", is(12)));
+    }
+
+    @Test
+    void getMostCombinedResults_validRange_returnsResults() throws Exception {
+        CombinedResultGetDTO result = new CombinedResultGetDTO();
+        result.setWord("mud");
+        result.setCombinations(7);
+
+        given(discoveryService.getMostCombinedResults(FROM, TO, 10)).willReturn(List.of(result));
+
+        mockMvc.perform(get("/words/discoveries/results").param("from", "2024-05-01T12:00:00").param("to", "2024-05-01T13:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].word", is("mud")))
+                .andExpect(jsonPath("$[0].combinations", is(7)));
+    }
+
+    @Test
+    void getDiscoveries_invalidRange_throwsBadRequest() throws Exception {
+        given(discoveryService.getRollups(TO, FROM)).willThrow(new ResponseStatusException(HttpStatus.BAD_REQUEST));
+
+        mockMvc.perform(get("/words/discoveries").param("from", "2024-05-01T13:00:00").param("to", "2024-05-01T12:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+}
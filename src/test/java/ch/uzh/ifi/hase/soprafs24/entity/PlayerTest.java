@@ -104,4 +104,27 @@ class PlayerTest {
         PlayerWord result = player.getPlayerWord(water);
         assertEquals(water, result.getWord());
     }
+
+    @Test
+    void hasWord_success() {
+        player.addWords(startingWords);
+
+        assertTrue(player.hasWord(new Word("water")));
+        assertFalse(player.hasWord(new Word("steam")));
+        assertFalse(player.hasWord(null));
+    }
+
+    @Test
+    void getTotalUses_trackedAcrossUpdates() {
+        player.addWords(startingWords, 2);
+        assertEquals(8, player.getTotalUses());
+
+        player.addUses(water, -1);
+        player.addWord(new Word("steam"), 1);
+        assertEquals(8, player.getTotalUses());
+
+        player.clearPlayerWords();
+        assertEquals(0, player.getTotalUses());
+        assertFalse(player.hasWord(water));
+    }
 }
@@ -1,6 +1,7 @@
 package ch.uzh.ifi.hase.soprafs24.repository;
 
 import ch.uzh.ifi.hase.soprafs24.constant.GameMode;
+import ch.uzh.ifi.hase.soprafs24.constant.LobbyStatus;
 import ch.uzh.ifi.hase.soprafs24.constant.UserStatus;
 import ch.uzh.ifi.hase.soprafs24.entity.Lobby;
 import ch.uzh.ifi.hase.soprafs24.entity.Player;
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDate;
 import java.util.Arrays;
@@ -176,6 +178,38 @@ class LobbyRepositoryIntegrationTest {
         assertEquals(testLobby.getPlayers(), found.getPlayers());
     }
 
+    @Test
+    void findPublicLobbySummaries_filtersAndPagesByCode() {
+        // given
+        testLobby.setPublicAccess(true);
+        entityManager.persistAndFlush(testLobby);
+        Lobby emptyLobby = new Lobby(2000, "empty lobby");
+        emptyLobby.setPublicAccess(true);
+        emptyLobby.setMode(GameMode.STANDARD);
+        entityManager.persistAndFlush(emptyLobby);
+        Lobby ingameLobby = new Lobby(3000, "ingame lobby");
+        ingameLobby.setPublicAccess(true);
+        ingameLobby.setMode(GameMode.STANDARD);
+        ingameLobby.setStatus(LobbyStatus.INGAME);
+        entityManager.persistAndFlush(ingameLobby);
+        Lobby privateLobby = new Lobby(4000, "private lobby");
+        entityManager.persistAndFlush(privateLobby);
+
+        // when
+        List<LobbyRepository.LobbySummary> all = lobbyRepository.findPublicLobbySummaries(0, null, null, 0, Integer.MAX_VALUE, PageRequest.of(0, 10));
+        List<LobbyRepository.LobbySummary> pregame = lobbyRepository.findPublicLobbySummaries(0, GameMode.STANDARD, LobbyStatus.PREGAME, 0, Integer.MAX_VALUE, PageRequest.of(0, 10));
+        List<LobbyRepository.LobbySummary> withPlayers = lobbyRepository.findPublicLobbySummaries(0, null, null, 1, Integer.MAX_VALUE, PageRequest.of(0, 10));
+        List<LobbyRepository.LobbySummary> afterCursor = lobbyRepository.findPublicLobbySummaries(1234, null, null, 0, Integer.MAX_VALUE, PageRequest.of(0, 1));
+
+        // then
+        assertEquals(List.of(1234L, 2000L, 3000L), all.stream().map(LobbyRepository.LobbySummary::getCode).toList());
+        assertEquals(List.of(1234L, 2000L), pregame.stream().map(LobbyRepository.LobbySummary::getCode).toList());
+        assertEquals(1, withPlayers.size());
+        assertEquals(2, withPlayers.get(0).getPlayerCount());
+        assertEquals("test Lobby", withPlayers.get(0).getName());
+        assertEquals(List.of(2000L), afterCursor.stream().map(LobbyRepository.LobbySummary::getCode).toList());
+    }
+
     @Test
     void existsByCode_success() {
         assertTrue(lobbyRepository.existsByCode(testLobby.getCode()));
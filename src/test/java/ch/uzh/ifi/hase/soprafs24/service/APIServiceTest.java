@@ -1,9 +1,14 @@
 package ch.uzh.ifi.hase.soprafs24.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
 import java.io.IOException;
 
@@ -11,6 +16,15 @@ import static org.junit.jupiter.api.Assertions.*;
 
 class APIServiceTest {
 
+    @Spy
+    private CombinationGenerator combinationGenerator = new VertexAICombinationGenerator();
+
+    @Mock
+    private GeneratedResponseCache responseCache;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private APIService apiService;
 
@@ -20,8 +34,8 @@ class APIServiceTest {
     }
 
     @Test
-    void getVertexAIWord_success() throws IOException {
-        String result = apiService.getVertexAIWord("water", "fire");
+    void getGeneratedWord_success() throws IOException {
+        String result = apiService.getGeneratedWord("water", "fire");
 
         assertNotNull(result);
         assertNotEquals("", result);
@@ -37,9 +51,40 @@ class APIServiceTest {
 
     @Test
     void generateCombination_success() {
-        String result = apiService.generateCombinationResult("water", "fire");
+        String result = apiService.generateCombinationResult("water", "fire", 0);
 
         assertNotNull(result);
         assertNotEquals("", result);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getGeneratedWord_cached_skipsGenerator() throws IOException {
+        Mockito.when(responseCache.get(Mockito.anyString())).thenReturn("steam");
+
+        assertEquals("steam", apiService.getGeneratedWord("water", "fire"));
+
+        Mockito.verify(combinationGenerator, Mockito.never()).generateCombinationResult(Mockito.any(), Mockito.any());
+        assertEquals(1, meterRegistry.get("combinations.llm.cache").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void generateCombinationResult_notCached_cachesResponsePerAttempt() throws IOException {
+        Mockito.doReturn("steam").when(combinationGenerator).generateCombinationResult("water", "fire");
+
+        assertEquals("steam", apiService.generateCombinationResult("water", "fire", 2));
+
+        String key = String.join("\n", combinationGenerator.getPromptVersion(), "water", "fire", "2");
+        Mockito.verify(responseCache).put(key, "steam");
+        assertEquals(1, meterRegistry.get("combinations.llm.cache").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void generateCombinationResult_generatorFails_firstWordNotCached() throws IOException {
+        Mockito.doThrow(new IOException("unavailable")).when(combinationGenerator).generateCombinationResult("water", "fire");
+
+        assertEquals("water", apiService.generateCombinationResult("water", "fire", 0));
+
+        Mockito.verify(responseCache, Mockito.never()).put(Mockito.any(), Mockito.any());
+        assertEquals(1, meterRegistry.get("combinations.llm.requests").tag("outcome", "error").timer().count());
+    }
+}
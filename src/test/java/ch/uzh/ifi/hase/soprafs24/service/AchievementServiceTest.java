@@ -1,31 +1,67 @@
 package ch.uzh.ifi.hase.soprafs24.service;
 
+import ch.uzh.ifi.hase.soprafs24.constant.GameEventType;
+import ch.uzh.ifi.hase.soprafs24.constant.GameMode;
+import ch.uzh.ifi.hase.soprafs24.constant.PlayerStatus;
 import ch.uzh.ifi.hase.soprafs24.entity.*;
 import ch.uzh.ifi.hase.soprafs24.entity.achievements.*;
+import ch.uzh.ifi.hase.soprafs24.game.GameEvent;
+import ch.uzh.ifi.hase.soprafs24.repository.AchievementEventRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.AchievementRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.UserRepository;
 import ch.uzh.ifi.hase.soprafs24.websocket.InstructionDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.reflections.Reflections;
+import org.reflections.scanners.Scanners;
+import org.reflections.util.ConfigurationBuilder;
+import org.springframework.data.domain.Pageable;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class AchievementServiceTest {
     @Mock
     private AchievementRepository achievementRepository;
 
+    @Mock
+    private AchievementEventRepository achievementEventRepository;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private UserRepository userRepository;
+
     @Mock
     private SimpMessagingTemplate messagingTemplate;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private UserStatisticsService userStatisticsService;
+
     @InjectMocks
     private AchievementService achievementService;
 
     private Player player;
     private User user;
+    // Stands in for the event table
+    private final Map<Long, AchievementEvent> storedEvents = new ConcurrentHashMap<>();
 
     @BeforeEach
     public void setup() {
@@ -39,9 +75,28 @@ public class AchievementServiceTest {
 
         Mockito.doNothing().when(messagingTemplate).convertAndSend(Mockito.anyString(), Mockito.any(InstructionDTO.class));
 
+        Mockito.when(achievementEventRepository.save(Mockito.any(AchievementEvent.class))).thenAnswer(invocation -> {
+            AchievementEvent event = invocation.getArgument(0);
+            event.setId((long) storedEvents.size() + 1);
+            storedEvents.put(event.getId(), event);
+            return event;
+        });
+        Mockito.when(achievementEventRepository.findById(Mockito.anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(storedEvents.get((Long) invocation.getArgument(0))));
+        Mockito.when(achievementEventRepository.deleteEventById(Mockito.anyLong()))
+                .thenAnswer(invocation -> storedEvents.remove((Long) invocation.getArgument(0)) == null ? 0 : 1);
+        Mockito.when(achievementEventRepository.incrementAttempts(Mockito.anyLong())).thenAnswer(invocation -> {
+            AchievementEvent event = storedEvents.get((Long) invocation.getArgument(0));
+            event.setAttempts(event.getAttempts() + 1);
+            return 1;
+        });
+        Mockito.when(achievementEventRepository.findIdsByTimeBefore(Mockito.any(), Mockito.any(Pageable.class)))
+                .thenAnswer(invocation -> List.copyOf(storedEvents.keySet()));
+
         player = new Player("a", "Player", null);
         user = new User();
         user.setId(1L);
+        Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(user));
 
         user.setPlayer(player);
         player.setUser(user);
@@ -57,6 +112,11 @@ public class AchievementServiceTest {
         achievementService.setup();
     }
 
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        achievementService.shutdown();
+    }
+
     @Test
     void getAchievement_found() {
         Achievement achievement = new CreatedMud();
@@ -76,15 +136,162 @@ public class AchievementServiceTest {
         assertEquals(newAchievement, foundAchievement);
     }
 
+    @Test
+    void loadRegisteredAchievements_containsAllAchievementClasses() {
+        Reflections reflections = new Reflections(new ConfigurationBuilder()
+                .forPackage("ch.uzh.ifi.hase.soprafs24.entity.achievements")
+                .setScanners(Scanners.SubTypes));
+        Set<Class<?>> achievementClasses = new HashSet<>(reflections.getSubTypesOf(Achievement.class));
+
+        Set<Class<?>> registeredClasses = new HashSet<>();
+        AchievementService.loadRegisteredAchievements().forEach(achievement -> registeredClasses.add(achievement.getClass()));
+
+        assertEquals(achievementClasses, registeredClasses);
+    }
+
+    @Test
+    void setup_newAchievements_persistedWithoutFlush() {
+        Mockito.verify(entityManager, Mockito.times(achievementService.getAchievements().size())).persist(Mockito.any(Achievement.class));
+        Mockito.verify(entityManager, Mockito.never()).flush();
+        Mockito.verify(achievementRepository, Mockito.never()).saveAndFlush(Mockito.any(Achievement.class));
+    }
+
     @Test
     void awardMultipleAchievements_success() {
         Combination combination = new Combination(new Word("water"), new Word("earth"), new Word("mud"));
 
-        achievementService.awardAchievements(player, combination);
+        achievementService.processGameEvent(GameEvent.of(GameEventType.COMBINATION_MADE, player, combination));
 
         assert(user.getAchievements().contains(new CreatedMud()));
         assert(user.getAchievements().contains(new MadeFirstCombination()));
         assert(!user.getAchievements().contains((new CreatedZaddy())));
         Mockito.verify(messagingTemplate, Mockito.times(2)).convertAndSend(Mockito.anyString(), Mockito.any(InstructionDTO.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void processGameEvent_alreadyUnlocked_notAwardedAgain() {
+        Combination combination = new Combination(new Word("water"), new Word("earth"), new Word("mud"));
+
+        achievementService.processGameEvent(GameEvent.of(GameEventType.COMBINATION_MADE, player, combination));
+        achievementService.processGameEvent(GameEvent.of(GameEventType.COMBINATION_MADE, player, combination));
+
+        assertEquals(2, user.getAchievements().size());
+        Mockito.verify(messagingTemplate, Mockito.times(2)).convertAndSend(Mockito.anyString(), Mockito.any(InstructionDTO.class));
+    }
+
+    @Test
+    void processGameEvent_onlySubscribedAchievementsEvaluated() {
+        Combination combination = new Combination(new Word("water"), new Word("earth"), new Word("mud"));
+        player.setStatus(PlayerStatus.WON);
+
+        achievementService.processGameEvent(GameEvent.of(GameEventType.COMBINATION_MADE, player, combination));
+        assert(!user.getAchievements().contains(new WonAfter5Seconds()));
+
+        achievementService.processGameEvent(GameEvent.of(GameEventType.GAME_WON, player, null));
+        assert(user.getAchievements().contains(new WonAfter5Seconds()));
+    }
+
+    @Test
+    void processGameEvent_lostBecauseOtherPlayerWon_moveAchievementsNotAwarded() {
+        Player winner = new Player("b", "Winner", player.getLobby());
+        winner.setStatus(PlayerStatus.WON);
+        player.getLobby().setPlayers(List.of(player, winner));
+        player.getLobby().setMode(GameMode.FINITEFUSION);
+        player.addWords(List.of(new Word("water"), new Word("earth"), new Word("fire"), new Word("air")));
+        player.setPoints(5);
+        player.setStatus(PlayerStatus.LOST);
+
+        achievementService.processGameEvent(GameEvent.of(GameEventType.GAME_LOST, player, null));
+
+        assert(!user.getAchievements().contains(new LostFiniteFusionNoUses()));
+        assert(!user.getAchievements().contains(new PlayedSandboxInFiniteFusion()));
+        assert(!user.getAchievements().contains(new MadeNoNewWords()));
+    }
+
+    @Test
+    void processGameEvent_lostWithOwnMove_moveAchievementsAwarded() {
+        Player otherPlayer = new Player("b", "Other", player.getLobby());
+        player.getLobby().setPlayers(List.of(player, otherPlayer));
+        player.getLobby().setMode(GameMode.FINITEFUSION);
+        player.addWords(List.of(new Word("water"), new Word("earth"), new Word("fire"), new Word("air")));
+        player.setPoints(5);
+        player.setStatus(PlayerStatus.LOST);
+        Combination combination = new Combination(new Word("water"), new Word("water"), new Word("water"));
+
+        achievementService.processGameEvent(GameEvent.of(GameEventType.COMBINATION_MADE, player, combination));
+
+        assert(user.getAchievements().contains(new LostFiniteFusionNoUses()));
+        assert(user.getAchievements().contains(new PlayedSandboxInFiniteFusion()));
+        assert(user.getAchievements().contains(new MadeNoNewWords()));
+    }
+
+    @Test
+    void publishGameEvent_outsideTransaction_processedAsynchronously() {
+        Combination combination = new Combination(new Word("water"), new Word("earth"), new Word("mud"));
+
+        achievementService.publishGameEvent(GameEventType.COMBINATION_MADE, player, combination);
+
+        Mockito.verify(messagingTemplate, Mockito.timeout(1000).times(2)).convertAndSend(Mockito.anyString(), Mockito.any(InstructionDTO.class));
+        assert(user.getAchievements().contains(new CreatedMud()));
+        Mockito.verify(achievementEventRepository, Mockito.timeout(1000)).deleteEventById(1L);
+        assertTrue(storedEvents.isEmpty());
+    }
+
+    @Test
+    void publishGameEvent_failedAttempt_keptAndRetriedByPoller() {
+        Mockito.when(userRepository.findById(1L))
+                .thenThrow(new RuntimeException("database unavailable"))
+                .thenReturn(Optional.of(user));
+        Combination combination = new Combination(new Word("water"), new Word("earth"), new Word("mud"));
+
+        achievementService.publishGameEvent(GameEventType.COMBINATION_MADE, player, combination);
+
+        Mockito.verify(achievementEventRepository, Mockito.timeout(1000)).incrementAttempts(1L);
+        assertEquals(1, storedEvents.get(1L).getAttempts());
+        Mockito.verify(messagingTemplate, Mockito.never()).convertAndSend(Mockito.anyString(), Mockito.any(InstructionDTO.class));
+
+        achievementService.processPendingGameEvents();
+
+        Mockito.verify(messagingTemplate, Mockito.timeout(1000).times(2)).convertAndSend(Mockito.anyString(), Mockito.any(InstructionDTO.class));
+        Mockito.verify(achievementEventRepository, Mockito.timeout(1000)).deleteEventById(1L);
+        assertTrue(storedEvents.isEmpty());
+    }
+
+    @Test
+    void processStoredGameEvent_tooManyAttempts_dropped() {
+        Combination combination = new Combination(new Word("water"), new Word("earth"), new Word("mud"));
+        AchievementEvent storedEvent = achievementEventRepository.save(new AchievementEvent(GameEvent.of(GameEventType.COMBINATION_MADE, player, combination)));
+        storedEvent.setAttempts(3);
+
+        achievementService.processStoredGameEvent(storedEvent.getId());
+
+        assertTrue(storedEvents.isEmpty());
+        assertTrue(user.getAchievements().isEmpty());
+    }
+
+    @Test
+    void publishGameEvent_queueShutDown_countedAndLeftStored() throws InterruptedException {
+        achievementService.shutdown();
+        Combination combination = new Combination(new Word("water"), new Word("earth"), new Word("mud"));
+
+        achievementService.publishGameEvent(GameEventType.COMBINATION_MADE, player, combination);
+
+        assertEquals(1.0, meterRegistry.get("achievements.events.dropped").counter().count());
+        assertEquals(1, storedEvents.size());
+        assertTrue(user.getAchievements().isEmpty());
+    }
+
+    @Test
+    void processGameEvent_failedPush_sentAgain() {
+        Mockito.doThrow(new RuntimeException("broker unavailable"))
+                .doNothing()
+                .when(messagingTemplate).convertAndSend(Mockito.anyString(), Mockito.any(InstructionDTO.class));
+        Combination combination = new Combination(new Word("water"), new Word("earth"), new Word("mud"));
+
+        achievementService.processGameEvent(GameEvent.of(GameEventType.COMBINATION_MADE, player, combination));
+
+        // Two achievements are unlocked, the push of the first one fails once
+        Mockito.verify(messagingTemplate, Mockito.timeout(1000).times(3)).convertAndSend(Mockito.anyString(), Mockito.any(InstructionDTO.class));
+        assertEquals(2, user.getAchievements().size());
+    }
+}
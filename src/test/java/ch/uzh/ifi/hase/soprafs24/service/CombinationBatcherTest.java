@@ -0,0 +1,187 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CombinationBatcherTest {
+
+    private final List<List<CombinationBatcher.Pair>> batches = Collections.synchronizedList(new ArrayList<>());
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+    private CombinationBatcher batcher;
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        if (batcher != null) {
+            batcher.close();
+        }
+    }
+
+    private List<String> concatenate(List<CombinationBatcher.Pair> pairs) {
+        batches.add(pairs);
+        return pairs.stream().map(pair -> pair.word1() + pair.word2()).toList();
+    }
+
+    private List<Future<String>> generateConcurrently(int numberOfPairs) {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < numberOfPairs; i++) {
+            String word = "word" + i;
+            results.add(callers.submit(() -> batcher.generate(word, "fire")));
+        }
+        return results;
+    }
+
+    @Test
+    void generate_concurrentPairs_sentInOneBatch() throws Exception {
+        batcher = new CombinationBatcher(this::concatenate, 8, 200, 1, 100, 5000);
+
+        List<Future<String>> results = generateConcurrently(4);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals("word" + i + "fire", results.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, batches.size());
+        assertEquals(4, batches.get(0).size());
+    }
+
+    @Test
+    void generate_morePairsThanBatchSize_splitIntoBatches() throws Exception {
+        batcher = new CombinationBatcher(this::concatenate, 3, 200, 2, 100, 5000);
+
+        List<Future<String>> results = generateConcurrently(7);
+
+        for (int i = 0; i < 7; i++) {
+            assertEquals("word" + i + "fire", results.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertTrue(batches.size() >= 3);
+        assertTrue(batches.stream().allMatch(batch -> batch.size() <= 3));
+    }
+
+    @Test
+    void generate_singlePair_sentAfterWindow() throws IOException {
+        batcher = new CombinationBatcher(this::concatenate, 8, 0, 1, 100, 5000);
+
+        assertEquals("waterfire", batcher.generate("water", "fire"));
+        assertEquals(List.of(new CombinationBatcher.Pair("water", "fire")), batches.get(0));
+    }
+
+    @Test
+    void generate_batchFails_everyCallerFails() throws Exception {
+        batcher = new CombinationBatcher(pairs -> {
+            throw new IOException("unavailable");
+        }, 8, 50, 1, 100, 5000);
+
+        List<Future<String>> results = generateConcurrently(3);
+
+        for (Future<String> result : results) {
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertTrue(exception.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    void generate_missingResults_callersWithoutResultFail() throws Exception {
+        batcher = new CombinationBatcher(pairs -> List.of("steam"), 2, 200, 1, 100, 5000);
+
+        List<Future<String>> results = generateConcurrently(2);
+
+        int failed = 0;
+        for (Future<String> result : results) {
+            try {
+                assertEquals("steam", result.get(5, TimeUnit.SECONDS));
+            }
+            catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IOException);
+                failed += 1;
+            }
+        }
+        assertEquals(1, failed);
+    }
+
+    @Test
+    void generate_resultMissingForOnePair_onlyThatCallerFails() throws Exception {
+        batcher = new CombinationBatcher(pairs -> pairs.stream().map(pair -> pair.word1().equals("word1") ? null : "steam").toList(), 3, 200, 1, 100, 5000);
+
+        List<Future<String>> results = generateConcurrently(3);
+
+        for (int i = 0; i < 3; i++) {
+            Future<String> result = results.get(i);
+            if (i == 1) {
+                ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+                assertTrue(exception.getCause() instanceof IOException);
+            }
+            else {
+                assertEquals("steam", result.get(5, TimeUnit.SECONDS));
+            }
+        }
+    }
+
+    @Test
+    void generate_closed_throws() {
+        batcher = new CombinationBatcher(this::concatenate, 8, 0, 1, 100, 5000);
+        batcher.close();
+
+        assertThrows(IOException.class, () -> batcher.generate("water", "fire"));
+    }
+
+    @Test
+    void generate_noResultWithinTimeout_throws() {
+        CountDownLatch release = new CountDownLatch(1);
+        batcher = new CombinationBatcher(pairs -> {
+            awaitUninterruptibly(release);
+            return concatenate(pairs);
+        }, 8, 0, 1, 100, 100);
+
+        try {
+            assertThrows(IOException.class, () -> batcher.generate("water", "fire"));
+        }
+        finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void generate_queueFull_failsWithoutWaiting() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        batcher = new CombinationBatcher(pairs -> {
+            batches.add(pairs);
+            awaitUninterruptibly(release);
+            return pairs.stream().map(pair -> pair.word1() + pair.word2()).toList();
+        }, 1, 0, 1, 1, 5000);
+
+        try {
+            // The only sender is busy with the first pair and the second one fills the queue
+            Future<String> sent = callers.submit(() -> batcher.generate("water", "fire"));
+            while (batches.isEmpty()) {
+                Thread.sleep(10);
+            }
+            Future<String> queued = callers.submit(() -> batcher.generate("earth", "fire"));
+            Thread.sleep(200);
+
+            assertThrows(IOException.class, () -> batcher.generate("air", "fire"));
+            release.countDown();
+            assertEquals("waterfire", sent.get(5, TimeUnit.SECONDS));
+            assertEquals("earthfire", queued.get(5, TimeUnit.SECONDS));
+        }
+        finally {
+            release.countDown();
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import ch.uzh.ifi.hase.soprafs24.entity.Combination;
+import ch.uzh.ifi.hase.soprafs24.entity.Word;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CombinationSeedTest {
+
+    private CombinationSeed seed;
+
+    private Map<String, Word> words;
+
+    @BeforeEach
+    void setup() {
+        seed = CombinationSeed.load("seed/combinations.txt");
+        words = new HashMap<>();
+        for (String name : seed.getWordNames()) {
+            words.put(name, new Word(name));
+        }
+    }
+
+    @Test
+    void load_success() {
+        assertTrue(seed.getVersion() > 0);
+        assertEquals(List.of("water", "earth", "fire", "air"), seed.getStartingWords());
+        assertFalse(seed.getEntries().isEmpty());
+    }
+
+    @Test
+    void resolve_createsOneCombinationPerEntry() {
+        List<Combination> combinations = seed.resolve(words);
+
+        assertEquals(seed.getEntries().size(), combinations.size());
+        assertEquals(0, words.get("water").getDepth());
+        assertNull(words.get("water").getReachability());
+    }
+
+    @Test
+    void resolve_sumsReachabilityOfAllCombinations() {
+        seed.resolve(words);
+
+        Word plant = words.get("plant");
+        assertEquals(3, plant.getDepth());
+        assertEquals(3.0 / 8, plant.getReachability(), 1e-9);
+    }
+
+    @Test
+    void resolve_propagatesSmallerDepth() {
+        seed.resolve(words);
+
+        assertEquals(5, words.get("life").getDepth());
+        assertEquals(6, words.get("animal").getDepth());
+    }
+}
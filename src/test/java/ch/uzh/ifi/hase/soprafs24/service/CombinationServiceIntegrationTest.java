@@ -4,20 +4,31 @@ import ch.uzh.ifi.hase.soprafs24.entity.Combination;
 import ch.uzh.ifi.hase.soprafs24.entity.Word;
 import ch.uzh.ifi.hase.soprafs24.repository.CombinationRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.WordRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @WebAppConfiguration
-@SpringBootTest
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 class CombinationServiceIntegrationTest {
 
     @Qualifier("combinationRepository")
@@ -31,6 +42,21 @@ class CombinationServiceIntegrationTest {
     @Autowired
     private WordService wordService;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+    private int batchSize;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @Mock
     private APIService apiService;
 
@@ -102,7 +128,7 @@ class CombinationServiceIntegrationTest {
         Word earthquake_new = new Word("earthquake", 1, 1.0 / (1L << 1));
         Combination firstCombination = new Combination(earth, earth, earthquake_new);
 
-        Mockito.when(apiService.generateCombinationResult(earth.getName(), earth.getName())).thenReturn(earthquake_new.getName());
+        Mockito.when(apiService.generateCombinationResult(Mockito.eq(earth.getName()), Mockito.eq(earth.getName()), Mockito.anyInt())).thenReturn(earthquake_new.getName());
 
         Word apocalypse_new = new Word("apocalypse", 4, 1.0 / (1L << 4));
         Combination secondCombination = new Combination(earthquake_new, volcano, apocalypse_new);
@@ -113,4 +139,41 @@ class CombinationServiceIntegrationTest {
         assertEquals(wordService.getWord(apocalypse_new), apocalypse_new);
     }
 
+    @Test
+    void setupCombinationDatabase_emptyDatabase_insertsInBatches() {
+        combinationRepository.deleteAll();
+        wordRepository.deleteAll();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        combinationService.setupCombinationDatabase();
+
+        // Counting the combinations and looking up the seed version and the existing words, then saving the seed version
+        int lookups = 5;
+        long words = wordRepository.count();
+        long combinations = combinationRepository.count();
+        long inserts = ceilDiv(words, batchSize) + ceilDiv(combinations, batchSize) + 1;
+        long sequenceCalls = ceilDiv(combinations, Combination.ID_ALLOCATION_SIZE) + 1;
+        assertTrue(statistics.getPrepareStatementCount() <= lookups + inserts + sequenceCalls);
+    }
+
+    @Test
+    void alignCombinationSequence_sequenceBehindIds_movedPastLargestId() {
+        long maxId = combinationRepository.findMaxId();
+        jdbcTemplate.execute("ALTER SEQUENCE " + Combination.ID_SEQUENCE + " RESTART WITH 1");
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            combinationService.alignCombinationSequence();
+            return null;
+        });
+
+        // The pooled optimizer hands out the ids up to the value it reads
+        Long nextValue = jdbcTemplate.queryForObject("SELECT nextval('" + Combination.ID_SEQUENCE + "')", Long.class);
+        assertNotNull(nextValue);
+        assertTrue(nextValue - Combination.ID_ALLOCATION_SIZE >= maxId);
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
 }
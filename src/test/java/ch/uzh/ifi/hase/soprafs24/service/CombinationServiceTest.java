@@ -4,11 +4,16 @@ import ch.uzh.ifi.hase.soprafs24.entity.Combination;
 import ch.uzh.ifi.hase.soprafs24.entity.Word;
 import ch.uzh.ifi.hase.soprafs24.exceptions.CombinationNotFoundException;
 import ch.uzh.ifi.hase.soprafs24.repository.CombinationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -36,6 +41,12 @@ class CombinationServiceTest {
     @Mock
     private WordService wordService;
 
+    @Mock
+    private DiscoveryService discoveryService;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @Spy
     @InjectMocks
     private CombinationService combinationService;
@@ -59,7 +70,20 @@ class CombinationServiceTest {
         Mockito.when(combinationRepository.saveAndFlush(Mockito.any())).then(AdditionalAnswers.returnsFirstArg());
         Mockito.when(combinationRepository.save(Mockito.any())).then(AdditionalAnswers.returnsFirstArg());
         Mockito.when(combinationRepository.findByWord1AndWord2(word1, word2)).thenReturn(combination1);
-        Mockito.when(apiService.generateCombinationResult(word1.getName(), word2.getName())).thenReturn(result1.getName());
+        Mockito.when(apiService.generateCombinationResult(Mockito.eq(word1.getName()), Mockito.eq(word2.getName()), Mockito.anyInt())).thenReturn(result1.getName());
+    }
+
+    @Test
+    void generateWordWithinReachability_firstResultWithin_restOfBatchNotSaved() {
+        ReflectionTestUtils.setField(combinationService, "generationBatchSize", 2);
+        Mockito.when(wordService.getRandomWordWithinDepth(Mockito.anyInt(), Mockito.anyInt())).thenReturn(word3, word4, word1, word3);
+        Mockito.when(apiService.generateCombinationResult(Mockito.any(), Mockito.any(), Mockito.anyInt())).thenReturn("lava");
+        Mockito.when(apiService.generateCombinationResult(Mockito.eq(word3.getName()), Mockito.eq(word4.getName()), Mockito.anyInt())).thenReturn(result2.getName());
+
+        Word result = combinationService.generateWordWithinReachability(0.0, 1.0);
+
+        assertEquals(result2.getName(), result.getName());
+        Mockito.verify(combinationRepository, Mockito.times(1)).save(Mockito.any());
     }
 
     @Test
@@ -68,6 +92,25 @@ class CombinationServiceTest {
         assertEquals(combination1, foundCombination);
     }
 
+    @Test
+    void setupCombinationDatabaseStartup_inTransaction_startsBackgroundAfterCommit() {
+        Mockito.doNothing().when(combinationService).alignCombinationSequence();
+        Mockito.doNothing().when(combinationService).setupCombinationDatabase();
+        Mockito.doNothing().when(combinationService).makeCombinationsInBackground(Mockito.anyInt());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            combinationService.setupCombinationDatabaseStartup();
+            Mockito.verify(combinationService, Mockito.never()).makeCombinationsInBackground(Mockito.anyInt());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            Mockito.verify(combinationService).makeCombinationsInBackground(Mockito.anyInt());
+        }
+        finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     @Test
     void findSwappedCombination_success() {
         Combination foundCombination = combinationService.findCombination(word2, word1);  // swapped words
@@ -85,6 +128,21 @@ class CombinationServiceTest {
         assertEquals(combination1, foundCombination);
     }
 
+    @Test
+    void getCombination_existingCombination_loggedAsCached() {
+        combinationService.getCombination(word1, word2);
+        Mockito.verify(discoveryService).recordCombination(combination1, false);
+    }
+
+    @Test
+    void getCombination_missingCombination_loggedAsGenerated() {
+        Mockito.when(apiService.generateCombinationResult(Mockito.eq(word3.getName()), Mockito.eq(word4.getName()), Mockito.anyInt())).thenReturn(result2.getName());
+
+        Combination newCombination = combinationService.getCombination(word3, word4);
+
+        Mockito.verify(discoveryService).recordCombination(newCombination, true);
+    }
+
     @Test
     void getCombination_newCombination_success() {
         Combination newCombination = combinationService.getCombination(word1, word2);
@@ -93,7 +151,7 @@ class CombinationServiceTest {
 
     @Test
     void createCombination_whenResultWordFirstTimeSeen_success() {
-        Mockito.when(apiService.generateCombinationResult(word3.getName(), word4.getName())).thenReturn(result2.getName());
+        Mockito.when(apiService.generateCombinationResult(Mockito.eq(word3.getName()), Mockito.eq(word4.getName()), Mockito.anyInt())).thenReturn(result2.getName());
         Combination actualCombination = combinationService.createCombination(word3, word4);
         assertEquals(combination2, actualCombination);
     }
@@ -102,7 +160,7 @@ class CombinationServiceTest {
     void generateResultWord_whenResultWordSeenBefore_addsReachability() {
         Word updatedResultWord = new Word("apocalypse", 5, (double) 1 / (1L << 5) + (double) 1 / (1L << 6));
         Combination expectedCombination = new Combination(word3, word4, updatedResultWord);
-        Mockito.when(apiService.generateCombinationResult(word3.getName(), word4.getName())).thenReturn(result2.getName());
+        Mockito.when(apiService.generateCombinationResult(Mockito.eq(word3.getName()), Mockito.eq(word4.getName()), Mockito.anyInt())).thenReturn(result2.getName());
         Combination actualCombination = combinationService.createCombination(word3, word4);
         assertEquals(expectedCombination, actualCombination);
     }
@@ -115,6 +173,7 @@ class CombinationServiceTest {
         Mockito.when(wordService.getRandomWord()).thenReturn(word1, word2);
 
         Mockito.doThrow(new CombinationNotFoundException(word1.getName(), word2.getName())).when(combinationService).findCombination(word1, word2);
+        Mockito.doReturn(result1).when(combinationService).generateCombinationResult(word1, word2);
 
         Mockito.doAnswer(new Answer() {
                     public Object answer(InvocationOnMock invocation) {
@@ -122,24 +181,45 @@ class CombinationServiceTest {
                         return new Combination(word1, word2, result1);
                     }
                 })
-                .when(combinationService).createCombination(word1, word2);
+                .when(combinationService).createCombination(word1, word2, result1);
 
         combinationService.makeCombinations(1);
 
         assertEquals(expectedResultList, actualResultList);
     }
 
+    @Test
+    void makeCombinations_severalCombinations_skipsRepeatedPairs() {
+        Mockito.when(wordService.getRandomWord()).thenReturn(word1, word2, word2, word1, word3, word4, word1, word3);
+        Mockito.doThrow(new CombinationNotFoundException(word1.getName(), word2.getName())).when(combinationService).findCombination(Mockito.any(), Mockito.any());
+        Mockito.doReturn(result1).when(combinationService).generateCombinationResult(Mockito.any(), Mockito.any());
+        Mockito.doAnswer(invocation -> new Combination(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2)))
+                .when(combinationService).createCombination(Mockito.any(), Mockito.any(), Mockito.any());
+
+        combinationService.makeCombinations(3);
+
+        Mockito.verify(combinationService).createCombination(word1, word2, result1);
+        Mockito.verify(combinationService).createCombination(word3, word4, result1);
+        Mockito.verify(combinationService).createCombination(word1, word3, result1);
+        Mockito.verify(combinationService, Mockito.never()).createCombination(word2, word1, result1);
+    }
+
     @Test
     void generateCombinationResult_invalidResult_picksInput() {
-        Mockito.when(apiService.generateCombinationResult(Mockito.any(), Mockito.any())).thenReturn("          ");
+        Mockito.when(apiService.generateCombinationResult(Mockito.any(), Mockito.any(), Mockito.anyInt())).thenReturn("          ");
         Word result = combinationService.generateCombinationResult(word1, word2);
         assertTrue(result == word1 || result == word2);
+        assertEquals(11, meterRegistry.get("combinations.generate.invalid").counter().count());
+        assertEquals(1, meterRegistry.get("combinations.generate.fallbacks").counter().count());
     }
 
     @Test
     void generateCombinationResult_validResultAfterIterations_success() {
         // Return the result after three tries
-        Mockito.when(apiService.generateCombinationResult(Mockito.any(), Mockito.any())).thenReturn(""," ", result1.getName());
+        Mockito.when(apiService.generateCombinationResult(Mockito.any(), Mockito.any(), Mockito.anyInt())).thenReturn(""," ", result1.getName());
         assertEquals(result1, combinationService.generateCombinationResult(word1, word2));
+        assertEquals(2, meterRegistry.get("combinations.generate.invalid").counter().count());
+        assertEquals(3, meterRegistry.get("combinations.generate.attempts").summary().totalAmount());
+        assertEquals(0, meterRegistry.get("combinations.generate.fallbacks").counter().count());
     }
 }
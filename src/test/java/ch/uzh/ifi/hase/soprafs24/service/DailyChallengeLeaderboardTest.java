@@ -0,0 +1,74 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DailyChallengeLeaderboardTest {
+
+    private DailyChallengeLeaderboard leaderboard;
+
+    @BeforeEach
+    void setup() {
+        leaderboard = new DailyChallengeLeaderboard();
+        leaderboard.reset(Map.of(1L, 5L, 2L, 3L, 3L, 5L, 4L, 10000L));
+    }
+
+    @Test
+    void getEntry_tiedRecords_shareRank() {
+        assertEquals(1, leaderboard.getEntry(2L).orElseThrow().rank());
+        assertEquals(2, leaderboard.getEntry(1L).orElseThrow().rank());
+        assertEquals(2, leaderboard.getEntry(3L).orElseThrow().rank());
+        assertEquals(4, leaderboard.getEntry(4L).orElseThrow().rank());
+        assertTrue(leaderboard.getEntry(5L).isEmpty());
+    }
+
+    @Test
+    void update_lowerRecord_movesUp() {
+        leaderboard.update(4L, 2L);
+
+        assertEquals(1, leaderboard.getEntry(4L).orElseThrow().rank());
+        assertEquals(2, leaderboard.getEntry(2L).orElseThrow().rank());
+        assertEquals(4, leaderboard.size());
+    }
+
+    @Test
+    void update_higherRecord_ignored() {
+        leaderboard.update(2L, 8L);
+
+        assertEquals(3L, leaderboard.getEntry(2L).orElseThrow().numberOfCombinations());
+    }
+
+    @Test
+    void getEntries_pages_inRankOrder() {
+        List<DailyChallengeLeaderboard.Entry> firstPage = leaderboard.getEntries(0, 2);
+        List<DailyChallengeLeaderboard.Entry> secondPage = leaderboard.getEntries(2, 2);
+
+        assertEquals(List.of(2L, 1L), firstPage.stream().map(DailyChallengeLeaderboard.Entry::userId).toList());
+        assertEquals(List.of(3L, 4L), secondPage.stream().map(DailyChallengeLeaderboard.Entry::userId).toList());
+        assertEquals(2, secondPage.get(0).rank());
+        assertEquals(4, secondPage.get(1).rank());
+        assertTrue(leaderboard.getEntries(4, 2).isEmpty());
+    }
+
+    @Test
+    void getEntries_manyUsers_matchesSortedOrder() {
+        for (long userId = 0; userId < 50000; userId++) {
+            leaderboard.update(userId, (userId * 7919) % 300);
+        }
+
+        List<DailyChallengeLeaderboard.Entry> entries = leaderboard.getEntries(25000, 100);
+
+        assertEquals(100, entries.size());
+        for (DailyChallengeLeaderboard.Entry entry : entries) {
+            assertEquals(entry.rank(), leaderboard.getEntry(entry.userId()).orElseThrow().rank());
+        }
+        for (int i = 1; i < entries.size(); i++) {
+            assertTrue(entries.get(i - 1).numberOfCombinations() <= entries.get(i).numberOfCombinations());
+        }
+    }
+}
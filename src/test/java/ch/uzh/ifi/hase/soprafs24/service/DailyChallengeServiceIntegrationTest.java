@@ -3,6 +3,7 @@ package ch.uzh.ifi.hase.soprafs24.service;
 import ch.uzh.ifi.hase.soprafs24.constant.UserStatus;
 import ch.uzh.ifi.hase.soprafs24.entity.*;
 import ch.uzh.ifi.hase.soprafs24.repository.*;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.DailyChallengeRankGetDTO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +13,7 @@ import org.springframework.test.context.web.WebAppConfiguration;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -64,6 +66,77 @@ class DailyChallengeServiceIntegrationTest {
         assertFalse(dailyChallengeRepository.findAll().isEmpty());
     }
 
+    @Test
+    void getDailyChallenge_newChallengeCreated_swapped() {
+        wordService.saveWord(new Word("volcano", 3, 0.125));
+
+        dailyChallengeService.createNewDailyChallenge();
+        DailyChallenge firstChallenge = dailyChallengeService.getDailyChallenge();
+        dailyChallengeService.createNewDailyChallenge();
+        DailyChallenge secondChallenge = dailyChallengeService.getDailyChallenge();
+
+        assertNotEquals(firstChallenge.getId(), secondChallenge.getId());
+        assertSame(secondChallenge, dailyChallengeService.getDailyChallenge());
+        assertEquals(dailyChallengeRepository.findFirstByDateOrderByIdDesc(LocalDate.now()).getId(), secondChallenge.getId());
+    }
+
+    @Test
+    void prepareNextDailyChallenge_tomorrowCreated_expiredHistoryRemoved() {
+        Word word = wordService.saveWord(new Word("volcano", 7, 0.01));
+
+        DailyChallenge expiredChallenge = new DailyChallenge();
+        expiredChallenge.setDate(LocalDate.now().minusDays(40));
+        expiredChallenge.setTargetWord(word);
+        expiredChallenge = dailyChallengeRepository.saveAndFlush(expiredChallenge);
+
+        dailyChallengeService.createNewDailyChallenge();
+        DailyChallenge currentChallenge = dailyChallengeService.getDailyChallenge();
+
+        dailyChallengeService.prepareNextDailyChallenge();
+
+        assertNotNull(dailyChallengeRepository.findFirstByDateOrderByIdDesc(LocalDate.now().plusDays(1)));
+        assertFalse(dailyChallengeRepository.existsById(expiredChallenge.getId()));
+        assertTrue(dailyChallengeRepository.existsById(currentChallenge.getId()));
+        assertEquals(currentChallenge.getId(), dailyChallengeService.getDailyChallenge().getId());
+    }
+
+    @Test
+    void prepareNextDailyChallenge_undatedChallenge_removedWithRecords() {
+        Word word = wordService.saveWord(new Word("volcano", 7, 0.01));
+        User user = new User();
+        user.setUsername("testUsername");
+        user.setPassword("testPassword");
+        user.setStatus(UserStatus.OFFLINE);
+        user.setToken("1234");
+        user.setCreationDate(LocalDate.now());
+        user = userRepository.saveAndFlush(user);
+
+        // A challenge from before the date column was added
+        DailyChallenge undatedChallenge = new DailyChallenge();
+        undatedChallenge.setTargetWord(word);
+        undatedChallenge = dailyChallengeRepository.saveAndFlush(undatedChallenge);
+        dailyChallengeRecordRepository.saveAndFlush(new DailyChallengeRecord(undatedChallenge, user, 4));
+
+        dailyChallengeService.createNewDailyChallenge();
+        DailyChallenge currentChallenge = dailyChallengeService.getDailyChallenge();
+
+        dailyChallengeService.prepareNextDailyChallenge();
+
+        assertFalse(dailyChallengeRepository.existsById(undatedChallenge.getId()));
+        assertTrue(dailyChallengeRecordRepository.findAllByDailyChallenge(undatedChallenge).isEmpty());
+        assertTrue(dailyChallengeRepository.existsById(currentChallenge.getId()));
+    }
+
+    @Test
+    void prepareNextDailyChallengeInBackground_tomorrowCreated() throws Exception {
+        wordService.saveWord(new Word("volcano", 7, 0.01));
+        dailyChallengeService.createNewDailyChallenge();
+
+        dailyChallengeService.prepareNextDailyChallengeInBackground().get(10, TimeUnit.SECONDS);
+
+        assertNotNull(dailyChallengeRepository.findFirstByDateOrderByIdDesc(LocalDate.now().plusDays(1)));
+    }
+
     @Test
     void updateRecords_success() {
         User user = new User();
@@ -93,4 +166,35 @@ class DailyChallengeServiceIntegrationTest {
                 new DailyChallengeRecordId(dailyChallengeService.getDailyChallenge().getId(),
                         user.getId())).get().getNumberOfCombinations());
     }
-}
\ No newline at end of file
+
+    @Test
+    void updateRecords_leaderboardUpdated() {
+        User user = new User();
+        user.setUsername("testUsername");
+        user.setPassword("testPassword");
+        user.setStatus(UserStatus.OFFLINE);
+        user.setToken("1234");
+        user.setCreationDate(LocalDate.now());
+        user = userRepository.saveAndFlush(user);
+
+        wordService.saveWord(new Word("volcano", 3, 0.125));
+        dailyChallengeService.createNewDailyChallenge();
+        dailyChallengeService.loadLeaderboard();
+
+        Lobby lobby = new Lobby(123, "abcd");
+        Player player = new Player("1234", "testUsername", lobby);
+        player.setUser(user);
+        user.setPlayer(player);
+        lobby.setPlayers(List.of(player));
+
+        player.setPoints(7L);
+        dailyChallengeService.updateRecords(lobby);
+        player.setPoints(4L);
+        dailyChallengeService.updateRecords(lobby);
+
+        DailyChallengeRankGetDTO rank = dailyChallengeService.getRank(user);
+        assertEquals(1, rank.getRank());
+        assertEquals(4L, rank.getNumberOfCombinations());
+        assertEquals(List.of(user.getId()), dailyChallengeService.getLeaderboard(0, 10).stream().map(DailyChallengeRankGetDTO::getUserId).toList());
+    }
+}
@@ -0,0 +1,135 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import ch.uzh.ifi.hase.soprafs24.entity.Combination;
+import ch.uzh.ifi.hase.soprafs24.entity.Word;
+import ch.uzh.ifi.hase.soprafs24.repository.*;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.CombinedPairGetDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.CombinedResultGetDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.DiscoveryRollupGetDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@WebAppConfiguration
+@SpringBootTest
+class DiscoveryServiceIntegrationTest {
+
+    @Qualifier("discoveryEventRepository")
+    @Autowired
+    private DiscoveryEventRepository discoveryEventRepository;
+
+    @Qualifier("discoveryRollupRepository")
+    @Autowired
+    private DiscoveryRollupRepository discoveryRollupRepository;
+
+    @Qualifier("discoveryPairRollupRepository")
+    @Autowired
+    private DiscoveryPairRollupRepository discoveryPairRollupRepository;
+
+    @Qualifier("combinationRepository")
+    @Autowired
+    private CombinationRepository combinationRepository;
+
+    @Qualifier("wordRepository")
+    @Autowired
+    private WordRepository wordRepository;
+
+    @Autowired
+    private DiscoveryService discoveryService;
+
+    private Combination waterEarth;
+    private Combination fireWater;
+    private Combination earthFire;
+
+    @BeforeEach
+    void setup() {
+        discoveryService.flushEvents();
+        discoveryEventRepository.deleteAll();
+        discoveryRollupRepository.deleteAll();
+        discoveryPairRollupRepository.deleteAll();
+        combinationRepository.deleteAll();
+        wordRepository.deleteAll();
+
+        Word water = wordRepository.save(new Word("water"));
+        Word earth = wordRepository.save(new Word("earth"));
+        Word fire = wordRepository.save(new Word("fire"));
+        Word mud = wordRepository.save(new Word("mud"));
+        Word steam = wordRepository.save(new Word("steam"));
+        waterEarth = combinationRepository.save(new Combination(water, earth, mud));
+        fireWater = combinationRepository.save(new Combination(fire, water, steam));
+        earthFire = combinationRepository.save(new Combination(earth, fire, mud));
+    }
+
+    @Test
+    void flushEvents_combinations_rolledUpPerMinute() {
+        LocalDateTime from = LocalDateTime.now().minusMinutes(1);
+
+        waterEarth.getResult().setNewlyDiscovered(true);
+        discoveryService.recordCombination(waterEarth, true);
+        discoveryService.flushEvents();
+        waterEarth.getResult().setNewlyDiscovered(false);
+        discoveryService.recordCombination(waterEarth, false);
+        discoveryService.recordCombination(fireWater, false);
+        discoveryService.flushEvents();
+
+        List<DiscoveryRollupGetDTO> rollups = discoveryService.getRollups(from, LocalDateTime.now().plusMinutes(1));
+        assertEquals(3, discoveryEventRepository.count());
+        assertEquals(3, rollups.stream().mapToInt(DiscoveryRollupGetDTO::getCombinations).sum());
+        assertEquals(1, rollups.stream().mapToInt(DiscoveryRollupGetDTO::getNewWords).sum());
+        assertEquals(1, rollups.stream().mapToInt(DiscoveryRollupGetDTO::getGenerated).sum());
+        assertEquals(2, rollups.stream().mapToInt(DiscoveryRollupGetDTO::getCached).sum());
+    }
+
+    @Test
+    void getMostCombinedPairs_combinedInSeveralFlushes_countedTogether() {
+        LocalDateTime from = LocalDateTime.now().minusMinutes(1);
+
+        discoveryService.recordCombination(waterEarth, false);
+        discoveryService.flushEvents();
+        discoveryService.recordCombination(waterEarth, false);
+        discoveryService.recordCombination(fireWater, false);
+        discoveryService.flushEvents();
+
+        List<CombinedPairGetDTO> pairs = discoveryService.getMostCombinedPairs(from, LocalDateTime.now().plusMinutes(1), 10);
+        assertEquals(2, pairs.size());
+        assertEquals("earth", pairs.get(0).getWord1());
+        assertEquals("water", pairs.get(0).getWord2());
+        assertEquals(2, pairs.get(0).getCombinations());
+        assertEquals(1, pairs.get(1).getCombinations());
+    }
+
+    @Test
+    void getMostCombinedResults_pairsWithSameResult_countedTogether() {
+        LocalDateTime from = LocalDateTime.now().minusMinutes(1);
+
+        discoveryService.recordCombination(waterEarth, false);
+        discoveryService.recordCombination(earthFire, false);
+        discoveryService.recordCombination(fireWater, false);
+        discoveryService.flushEvents();
+
+        List<CombinedResultGetDTO> results = discoveryService.getMostCombinedResults(from, LocalDateTime.now().plusMinutes(1), 10);
+        assertEquals(2, results.size());
+        assertEquals("mud", results.get(0).getWord());
+        assertEquals(2, results.get(0).getCombinations());
+        assertEquals("steam", results.get(1).getWord());
+        assertEquals(1, results.get(1).getCombinations());
+    }
+
+    @Test
+    void getRollups_rangeTooLong_throwsBadRequest() {
+        LocalDateTime to = LocalDateTime.now();
+        LocalDateTime from = to.minus(DiscoveryService.MAX_RANGE).minusMinutes(1);
+
+        assertThrows(ResponseStatusException.class, () -> discoveryService.getRollups(from, to));
+        assertThrows(ResponseStatusException.class, () -> discoveryService.getRollups(to, from));
+    }
+}
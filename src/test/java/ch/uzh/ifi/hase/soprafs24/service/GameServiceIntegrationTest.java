@@ -1,18 +1,23 @@
 package ch.uzh.ifi.hase.soprafs24.service;
 
 import ch.uzh.ifi.hase.soprafs24.constant.GameMode;
+import ch.uzh.ifi.hase.soprafs24.constant.UserStatus;
 import ch.uzh.ifi.hase.soprafs24.entity.Lobby;
 import ch.uzh.ifi.hase.soprafs24.entity.Player;
 import ch.uzh.ifi.hase.soprafs24.entity.User;
 import ch.uzh.ifi.hase.soprafs24.entity.Word;
 import ch.uzh.ifi.hase.soprafs24.repository.*;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.web.WebAppConfiguration;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -42,9 +47,19 @@ class GameServiceIntegrationTest {
     @Autowired
     private LobbyRepository lobbyRepository;
 
+    @Qualifier("achievementEventRepository")
+    @Autowired
+    private AchievementEventRepository achievementEventRepository;
+
     @Autowired
     private GameService gameService;
 
+    @Autowired
+    private UserStatisticsService userStatisticsService;
+
+    @MockBean
+    private APIService apiService;
+
     @BeforeEach
     public void setup() {
         combinationRepository.deleteAll();
@@ -52,11 +67,29 @@ class GameServiceIntegrationTest {
         userRepository.deleteAll();
         playerRepository.deleteAll();
         lobbyRepository.deleteAll();
+        Mockito.when(apiService.generateCombinationResult(Mockito.any(), Mockito.any(), Mockito.anyInt())).thenReturn("mud");
+    }
+
+    @AfterEach
+    public void cleanup() throws InterruptedException {
+        // The achievements of a move are awarded asynchronously, remove the user only after they were evaluated
+        long deadline = System.currentTimeMillis() + 5000;
+        while (achievementEventRepository.count() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        achievementEventRepository.deleteAll();
+        userRepository.deleteAll();
     }
 
     @Test
     void play_updatesPlayerStatistics_success() {
         User user = new User();
+        user.setUsername("username");
+        user.setPassword("testPassword");
+        user.setToken("token");
+        user.setStatus(UserStatus.OFFLINE);
+        user.setCreationDate(LocalDate.now());
+        user = userRepository.saveAndFlush(user);
         Player player = new Player();
 
         player.setUser(user);
@@ -72,10 +105,12 @@ class GameServiceIntegrationTest {
         Word word2 = new Word("earth", 0, 100.0);
 
         gameService.play(player, List.of(word1, word2));
+        userStatisticsService.flushAll();
 
-        assertEquals(1, user.getCombinationsMade());
-        assertEquals(1, user.getDiscoveredWords());
-        assertNotSame(word1, user.getRarestWordFound());
-        assertNotSame(word2, user.getRarestWordFound());
+        User updatedUser = userRepository.findById(user.getId()).orElseThrow();
+        assertEquals(1, updatedUser.getCombinationsMade());
+        assertEquals(1, updatedUser.getDiscoveredWords());
+        assertNotNull(updatedUser.getRarestWordFound());
+        assertEquals("mud", updatedUser.getRarestWordFound().getName());
     }
 }
@@ -9,6 +9,8 @@ import ch.uzh.ifi.hase.soprafs24.entity.Lobby;
 import ch.uzh.ifi.hase.soprafs24.entity.Player;
 import ch.uzh.ifi.hase.soprafs24.entity.Word;
 import ch.uzh.ifi.hase.soprafs24.websocket.InstructionDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
@@ -52,9 +54,18 @@ class GameServiceTest {
     @Mock
     private AchievementService achievementService;
 
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    @Mock
+    private UserStatisticsService userStatisticsService;
+
     @Mock
     private PlatformTransactionManager transactionManager;
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private GameService gameService;
 
@@ -124,6 +135,8 @@ class GameServiceTest {
         gameService.play(testPlayer1, playingWords);
 
         assertEquals(mud, testPlayer1.getWords().get(4));
+        assertEquals(1, meterRegistry.get("game.moves").tag("mode", "STANDARD").timer().count());
+        assertEquals(0, meterRegistry.get("game.moves").tag("mode", "FUSIONFRENZY").timer().count());
     }
 
     @Test
@@ -166,7 +179,7 @@ class GameServiceTest {
         gameService.play(testPlayer1, playingWords);
 
         assertEquals(mud, testPlayer1.getWords().get(4));
-        verify(messagingTemplate, Mockito.times(2)).convertAndSend(Mockito.anyString(), (Object) Mockito.any());
+        verify(messagingTemplate, Mockito.times(1)).convertAndSend(Mockito.anyString(), (Object) Mockito.any());
         assertEquals(PlayerStatus.WON, testPlayer1.getStatus());
         assertEquals(LobbyStatus.PREGAME, testLobby.getStatus());
     }
@@ -254,9 +267,9 @@ class GameServiceTest {
 
         gameService.updatePlayerStatistics(player, mud);
 
-        assertEquals(1, user.getCombinationsMade());
-        assertEquals(1, user.getDiscoveredWords());
-        assertEquals(mud, user.getRarestWordFound());
+        // The user row is only written when the counters are flushed
+        Mockito.verify(userStatisticsService).recordCombination(user, mud);
+        assertEquals(0, user.getCombinationsMade());
     }
 
 
@@ -0,0 +1,90 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneratedResponseCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void get_afterPut_returnsResponse() {
+        GeneratedResponseCache cache = new GeneratedResponseCache(directory.resolve("cache.bin"), 4096);
+
+        cache.put("v1\nwater\nfire\n0", "steam");
+
+        assertEquals("steam", cache.get("v1\nwater\nfire\n0"));
+        assertNull(cache.get("v1\nwater\nfire\n1"));
+        assertNull(cache.get("v2\nwater\nfire\n0"));
+    }
+
+    @Test
+    void get_afterReopen_returnsResponse() {
+        Path file = directory.resolve("cache.bin");
+        GeneratedResponseCache cache = new GeneratedResponseCache(file, 4096);
+        cache.put("v1\nwater\nfire\n0", "steam");
+        cache.put("v1\nearth\nwater\n0", "mud");
+        cache.flush();
+
+        GeneratedResponseCache reopenedCache = new GeneratedResponseCache(file, 4096);
+
+        assertEquals(2, reopenedCache.size());
+        assertEquals("steam", reopenedCache.get("v1\nwater\nfire\n0"));
+        assertEquals("mud", reopenedCache.get("v1\nearth\nwater\n0"));
+    }
+
+    @Test
+    void put_full_evictsOldestResponses() {
+        Path file = directory.resolve("cache.bin");
+        GeneratedResponseCache cache = new GeneratedResponseCache(file, 1024);
+
+        // 28 bytes per record and 32 bytes of header, so the file holds 35 of them
+        for (int i = 0; i < 100; i++) {
+            cache.put(String.format("key%03d", i), String.format("value%03d", i));
+        }
+
+        assertNull(cache.get("key000"));
+        assertNull(cache.get("key064"));
+        assertEquals("value065", cache.get("key065"));
+        assertEquals("value099", cache.get("key099"));
+        assertEquals(35, cache.size());
+
+        GeneratedResponseCache reopenedCache = new GeneratedResponseCache(file, 1024);
+        assertEquals(35, reopenedCache.size());
+        assertEquals("value065", reopenedCache.get("key065"));
+        assertEquals("value099", reopenedCache.get("key099"));
+    }
+
+    @Test
+    void open_corruptedFile_startsEmpty() throws IOException {
+        Path file = directory.resolve("cache.bin");
+        GeneratedResponseCache cache = new GeneratedResponseCache(file, 4096);
+        cache.put("v1\nwater\nfire\n0", "steam");
+        cache.flush();
+
+        byte[] content = Files.readAllBytes(file);
+        content[40] ^= 0x7f;
+        Files.write(file, content);
+
+        GeneratedResponseCache reopenedCache = new GeneratedResponseCache(file, 4096);
+        assertEquals(0, reopenedCache.size());
+        assertNull(reopenedCache.get("v1\nwater\nfire\n0"));
+    }
+
+    @Test
+    void open_otherSize_startsEmpty() {
+        Path file = directory.resolve("cache.bin");
+        GeneratedResponseCache cache = new GeneratedResponseCache(file, 4096);
+        cache.put("v1\nwater\nfire\n0", "steam");
+        cache.flush();
+
+        assertNull(new GeneratedResponseCache(file, 8192).get("v1\nwater\nfire\n0"));
+    }
+}
@@ -0,0 +1,69 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import ch.uzh.ifi.hase.soprafs24.repository.UserRepository;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.StatisticRankGetDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+class LeaderboardServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private LeaderboardService leaderboardService;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+
+        UserRepository.UserStatistics first = statistics(1L, 3);
+        UserRepository.UserStatistics second = statistics(2L, 7);
+        Mockito.when(userRepository.findAllStatistics()).thenReturn(List.of(first, second));
+        leaderboardService.loadLeaderboards();
+    }
+
+    private static UserRepository.UserStatistics statistics(long id, int wins) {
+        UserRepository.UserStatistics statistics = Mockito.mock(UserRepository.UserStatistics.class);
+        Mockito.when(statistics.getId()).thenReturn(id);
+        Mockito.when(statistics.getWins()).thenReturn(wins);
+        return statistics;
+    }
+
+    private static UserRepository.UserSummary summary(long id, String username) {
+        UserRepository.UserSummary summary = Mockito.mock(UserRepository.UserSummary.class);
+        Mockito.when(summary.getId()).thenReturn(id);
+        Mockito.when(summary.getUsername()).thenReturn(username);
+        Mockito.when(summary.getProfilePicture()).thenReturn(username + ".png");
+        return summary;
+    }
+
+    @Test
+    void getLeaderboard_wins_readsSummariesInRankOrder() {
+        List<UserRepository.UserSummary> summaries = List.of(summary(1L, "first"), summary(2L, "second"));
+        Mockito.when(userRepository.findSummariesByIdIn(List.of(2L, 1L))).thenReturn(summaries);
+
+        List<StatisticRankGetDTO> ranks = leaderboardService.getLeaderboard("wins", 0, 10);
+
+        assertEquals(List.of("second", "first"), ranks.stream().map(StatisticRankGetDTO::getUsername).toList());
+        assertEquals(1, ranks.get(0).getRank());
+        assertEquals("second.png", ranks.get(0).getProfilePicture());
+        assertEquals(7L, ranks.get(0).getValue());
+        verify(userRepository, Mockito.never()).findAllById(Mockito.any());
+    }
+
+    @Test
+    void getLeaderboard_invalidSize_throwsBadRequest() {
+        assertThrows(ResponseStatusException.class, () -> leaderboardService.getLeaderboard("wins", 0, 0));
+    }
+}
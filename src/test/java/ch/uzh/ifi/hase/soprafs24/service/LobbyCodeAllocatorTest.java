@@ -0,0 +1,56 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LobbyCodeAllocatorTest {
+
+    @Test
+    void allocate_allCodesUsed_widensCodeSpace() {
+        LobbyCodeAllocator allocator = new LobbyCodeAllocator(4);
+        Set<Long> codes = new HashSet<>();
+
+        for (int i = 0; i < 9000; i++) {
+            long code = allocator.allocate();
+            assertTrue(code >= 1000 && code <= 9999);
+            assertTrue(codes.add(code));
+        }
+        long widerCode = allocator.allocate();
+
+        assertTrue(widerCode >= 10000 && widerCode <= 99999);
+    }
+
+    @Test
+    void reserveAll_reservedCodes_notAllocated() {
+        LobbyCodeAllocator allocator = new LobbyCodeAllocator(1);
+        allocator.reserveAll(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L));
+
+        assertFalse(allocator.isFree(8L));
+        assertEquals(9L, allocator.allocate());
+    }
+
+    @Test
+    void release_allocatedCode_canBeAllocatedAgain() {
+        LobbyCodeAllocator allocator = new LobbyCodeAllocator(1);
+        allocator.reserveAll(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L));
+
+        allocator.release(5L);
+
+        assertTrue(allocator.isFree(5L));
+        assertEquals(5L, allocator.allocate());
+        assertFalse(allocator.isFree(5L));
+    }
+
+    @Test
+    void reserveAll_codesOutsideCodeSpace_ignored() {
+        LobbyCodeAllocator allocator = new LobbyCodeAllocator(4);
+
+        assertDoesNotThrow(() -> allocator.reserveAll(List.of(0L, 12L, 1234567L)));
+        assertTrue(allocator.isFree(12L));
+    }
+}
@@ -6,22 +6,35 @@ import ch.uzh.ifi.hase.soprafs24.constant.UserStatus;
 import ch.uzh.ifi.hase.soprafs24.entity.Lobby;
 import ch.uzh.ifi.hase.soprafs24.entity.Player;
 import ch.uzh.ifi.hase.soprafs24.entity.User;
+import ch.uzh.ifi.hase.soprafs24.entity.Word;
+import ch.uzh.ifi.hase.soprafs24.entity.achievements.Achievement;
+import ch.uzh.ifi.hase.soprafs24.repository.AchievementRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.LobbyRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.PlayerRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.UserRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.WordRepository;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.LobbyGetDTO;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.LobbyPutDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.PlayerGetDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.mapper.DTOMapper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.persistence.EntityManagerFactory;
 import javax.transaction.Transactional;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -39,9 +52,26 @@ class LobbyServiceIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Qualifier("wordRepository")
+    @Autowired
+    private WordRepository wordRepository;
+
+    @Qualifier("achievementRepository")
+    @Autowired
+    private AchievementRepository achievementRepository;
+
     @Autowired
     private LobbyService lobbyService;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Mapping a lobby must not issue statements per player, user or word
+    private static final long MAX_BROADCAST_STATEMENTS = 5;
+
     @BeforeEach
     public void setup() {
         lobbyRepository.deleteAll();
@@ -236,6 +266,99 @@ class LobbyServiceIntegrationTest {
         assertEquals(testPlayer.getLobby().getCode(), joinedPlayer.getLobby().getCode());
     }
 
+    @Test
+    void getLobbyForBroadcast_lobbyWithPlayers_mappedWithPlayers() {
+        // given
+        User testUser = new User();
+        testUser.setPassword("testPassword");
+        testUser.setUsername("firstname@lastname");
+        testUser.setStatus(UserStatus.OFFLINE);
+        testUser.setToken("1");
+        testUser.setCreationDate(LocalDate.now());
+
+        // The user is linked to its player while it is managed, like in a request
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Player owner = transactionTemplate.execute(status -> lobbyService.createLobbyFromUser(userRepository.save(testUser), true));
+        User savedTestUser = owner.getUser();
+        long lobbyCode = owner.getLobby().getCode();
+        Player anonymousPlayer = lobbyService.joinLobbyAnonymous("anonymous", lobbyCode);
+
+        // when
+        LobbyGetDTO lobby = transactionTemplate.execute(status -> DTOMapper.INSTANCE.convertEntityToLobbyGetDTO(lobbyService.getLobbyForBroadcast(lobbyCode)));
+        List<PlayerGetDTO> players = transactionTemplate.execute(status -> lobbyService.getPlayersForBroadcast(lobbyCode).stream().map(DTOMapper.INSTANCE::convertEntityToPlayerGetDTO).toList());
+
+        // then
+        assertEquals(lobbyCode, lobby.getCode());
+        assertEquals(owner.getLobby().getName(), lobby.getName());
+        assertEquals(LobbyStatus.PREGAME, lobby.getStatus());
+        assertEquals(owner.getId(), lobby.getOwner().getId());
+        assertEquals(savedTestUser.getUsername(), lobby.getOwner().getUser().getUsername());
+        assertEquals(2, lobby.getPlayers().size());
+        assertEquals(List.of(owner.getId(), anonymousPlayer.getId()), players.stream().map(PlayerGetDTO::getId).toList());
+        assertNull(players.get(1).getUser());
+        assertTrue(players.get(1).getPlayerWords().isEmpty());
+        assertEquals(LobbyStatus.PREGAME, lobbyService.getLobbyStatus(lobbyCode).getStatus());
+    }
+
+    @Test
+    void getLobbyForBroadcast_eightPlayers_boundedStatementCount() {
+        // given
+        List<String> wordNames = List.of("water", "fire", "earth", "air");
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Long lobbyCode = transactionTemplate.execute(status -> {
+            List<Word> words = wordRepository.saveAll(wordNames.stream().map(Word::new).toList());
+            List<Achievement> achievements = achievementRepository.findAll().stream().limit(3).toList();
+            Long createdLobbyCode = null;
+            for (int i = 0; i < 8; i++) {
+                User user = new User();
+                user.setPassword("testPassword");
+                user.setUsername("user" + i);
+                user.setStatus(UserStatus.OFFLINE);
+                user.setToken("token" + i);
+                user.setCreationDate(LocalDate.now());
+                user.setRarestWordFound(words.get(i % words.size()));
+                achievements.forEach(user::addAchievement);
+                User savedUser = userRepository.save(user);
+
+                Player player = createdLobbyCode == null ? lobbyService.createLobbyFromUser(savedUser, true) : lobbyService.joinLobbyFromUser(savedUser, createdLobbyCode);
+                createdLobbyCode = player.getLobby().getCode();
+                player.addWords(words);
+                player.setTargetWord(words.get(0));
+            }
+            return createdLobbyCode;
+        });
+        long code = lobbyCode;
+        int achievementCount = (int) Math.min(3, achievementRepository.count());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        // when
+        statistics.clear();
+        transactionTemplate.execute(status -> {
+            LobbyGetDTO lobby = DTOMapper.INSTANCE.convertEntityToLobbyGetDTO(lobbyService.getLobbyForBroadcast(code));
+            List<PlayerGetDTO> players = lobbyService.getPlayersForBroadcast(code).stream().map(DTOMapper.INSTANCE::convertEntityToPlayerGetDTO).toList();
+
+            assertEquals(8, lobby.getPlayers().size());
+            assertEquals(8, players.size());
+            lobby.getPlayers().forEach(player -> assertEquals(achievementCount, player.getUser().getAchievements().size()));
+            players.forEach(player -> assertEquals(wordNames.size(), player.getPlayerWords().size()));
+            return null;
+        });
+
+        // then
+        long statements = statistics.getPrepareStatementCount();
+        statistics.setStatisticsEnabled(false);
+        assertTrue(statements <= MAX_BROADCAST_STATEMENTS, String.format("Mapping the lobby took %d statements", statements));
+    }
+
+    @Test
+    void getLobbyForBroadcast_invalidCode_throwsNotFoundException() {
+        assertThrows(ResponseStatusException.class, () -> lobbyService.getLobbyForBroadcast(234));
+        assertThrows(ResponseStatusException.class, () -> lobbyService.getPlayersForBroadcast(234));
+        assertThrows(ResponseStatusException.class, () -> lobbyService.getLobbyStatus(234));
+    }
+
     @Test
     void joinLobbyAnonymous_invalidCode_throwsNotFoundException() {
         // given
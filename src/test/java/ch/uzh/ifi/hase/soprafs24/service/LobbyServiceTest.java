@@ -9,12 +9,18 @@ import ch.uzh.ifi.hase.soprafs24.entity.User;
 import ch.uzh.ifi.hase.soprafs24.repository.LobbyRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.PlayerRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.UserRepository;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.LobbyDirectoryGetDTO;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.LobbyPutDTO;
+import ch.uzh.ifi.hase.soprafs24.websocket.InstructionDTO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.data.domain.Pageable;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
@@ -307,10 +313,118 @@ class LobbyServiceTest {
     void testCheckLobbies() {
         testLobby.setLastModified(LocalDateTime.now().minusMinutes(10));
         List<Lobby> lobbies = List.of(testLobby);
-        Mockito.when(lobbyRepository.findAll()).thenReturn(lobbies);
+        Mockito.when(lobbyRepository.findCodesByLastModifiedBefore(Mockito.any())).thenReturn(List.of(testLobby.getCode()));
+        Mockito.when(lobbyRepository.findAllById(List.of(testLobby.getCode()))).thenReturn(lobbies);
         Mockito.doNothing().when(lobbyRepository).delete(Mockito.any());
         lobbyService.checkAndRemoveInactiveLobbies(1);
         verify(lobbyRepository, Mockito.times(1)).delete(testLobby);
-        verify(messagingTemplate, Mockito.times(2)).convertAndSend(Mockito.anyString(), (Object) Mockito.any());
+        verify(lobbyRepository, Mockito.never()).findAll();
+        verify(messagingTemplate, Mockito.times(1)).convertAndSend(Mockito.anyString(), (Object) Mockito.any());
+    }
+
+    @Test
+    void checkLobbies_touchedSinceSelection_notRemoved() {
+        testLobby.setLastModified(LocalDateTime.now());
+        Mockito.when(lobbyRepository.findCodesByLastModifiedBefore(Mockito.any())).thenReturn(List.of(testLobby.getCode()));
+        Mockito.when(lobbyRepository.findAllById(List.of(testLobby.getCode()))).thenReturn(List.of(testLobby));
+
+        lobbyService.checkAndRemoveInactiveLobbies(1);
+
+        verify(lobbyRepository, Mockito.never()).delete(Mockito.any());
+        verify(messagingTemplate, Mockito.never()).convertAndSend(Mockito.anyString(), (Object) Mockito.any());
+    }
+
+    @Test
+    void getLobbyDirectory_moreLobbiesThanLimit_returnsNextCursor() {
+        LobbyRepository.LobbySummary first = Mockito.mock(LobbyRepository.LobbySummary.class);
+        Mockito.when(first.getCode()).thenReturn(1234L);
+        LobbyRepository.LobbySummary second = Mockito.mock(LobbyRepository.LobbySummary.class);
+        Mockito.when(second.getCode()).thenReturn(5678L);
+        Mockito.when(lobbyRepository.findPublicLobbySummaries(Mockito.eq(0L), Mockito.eq(GameMode.STANDARD), Mockito.isNull(),
+                Mockito.eq(0), Mockito.eq(Integer.MAX_VALUE), Mockito.any(Pageable.class))).thenReturn(List.of(first, second));
+
+        LobbyDirectoryGetDTO directory = lobbyService.getLobbyDirectory(GameMode.STANDARD, null, null, null, null, 1);
+
+        assertEquals(1, directory.getLobbies().size());
+        assertEquals(1234L, directory.getLobbies().get(0).getCode());
+        assertEquals(1234L, directory.getNextCursor());
+    }
+
+    @Test
+    void getLobbyDirectory_invalidLimit_throwsBadRequest() {
+        assertThrows(ResponseStatusException.class, () -> lobbyService.getLobbyDirectory(null, null, null, null, null, 0));
+        assertThrows(ResponseStatusException.class, () -> lobbyService.getLobbyDirectory(null, null, 3, 2, null, 20));
+    }
+
+    @Test
+    void publishDirectoryUpdate_statusChanged_removesFromPreviousTopics() {
+        testLobby.setPublicAccess(true);
+        lobbyService.publishDirectoryUpdate(testLobby);
+
+        verify(messagingTemplate, Mockito.times(4)).convertAndSend(Mockito.anyString(), Mockito.any(InstructionDTO.class));
+        verify(messagingTemplate).convertAndSend(Mockito.eq("/topic/lobbies/directory/STANDARD/PREGAME"), Mockito.any(InstructionDTO.class));
+        verify(messagingTemplate).convertAndSend(Mockito.eq("/topic/lobbies/directory/all/all"), Mockito.any(InstructionDTO.class));
+
+        Mockito.clearInvocations(messagingTemplate);
+        testLobby.setStatus(LobbyStatus.INGAME);
+        lobbyService.publishDirectoryUpdate(testLobby);
+
+        ArgumentCaptor<InstructionDTO> removal = ArgumentCaptor.forClass(InstructionDTO.class);
+        verify(messagingTemplate).convertAndSend(Mockito.eq("/topic/lobbies/directory/STANDARD/PREGAME"), removal.capture());
+        assertEquals("remove_directory_entry", removal.getValue().getInstruction());
+        verify(messagingTemplate).convertAndSend(Mockito.eq("/topic/lobbies/directory/all/PREGAME"), Mockito.any(InstructionDTO.class));
+        verify(messagingTemplate).convertAndSend(Mockito.eq("/topic/lobbies/directory/all/all"), Mockito.any(InstructionDTO.class));
+        verify(messagingTemplate).convertAndSend(Mockito.eq("/topic/lobbies/directory/STANDARD/INGAME"), Mockito.any(InstructionDTO.class));
+
+        Mockito.clearInvocations(messagingTemplate);
+        lobbyService.publishDirectoryRemoval(testLobby.getCode());
+        verify(messagingTemplate, Mockito.times(4)).convertAndSend(Mockito.anyString(), Mockito.any(InstructionDTO.class));
+    }
+
+    @Test
+    void publishDirectoryUpdate_rolledBack_nothingSentOrRemembered() {
+        testLobby.setPublicAccess(true);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            lobbyService.publishDirectoryUpdate(testLobby);
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        }
+        finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // The entry was never sent, so there is nothing to remove either
+        lobbyService.publishDirectoryRemoval(testLobby.getCode());
+        verify(messagingTemplate, Mockito.never()).convertAndSend(Mockito.anyString(), Mockito.any(InstructionDTO.class));
+    }
+
+    @Test
+    void createLobbyFromUser_codesInDatabase_notReused() {
+        List<Long> usedCodes = new ArrayList<>();
+        for (long code = 1000; code < 10000; code++) {
+            if (code != 4321) usedCodes.add(code);
+        }
+        Mockito.when(lobbyRepository.findAllCodes()).thenReturn(usedCodes);
+        Mockito.when(lobbyRepository.saveAndFlush(Mockito.any())).thenAnswer(invocation -> invocation.getArgument(0));
+        lobbyService.loadLobbyCodes();
+
+        Player createdPlayer = lobbyService.createLobbyFromUser(testUser, true);
+
+        assertEquals(4321, createdPlayer.getLobby().getCode());
+        verify(lobbyRepository, Mockito.never()).existsByCode(Mockito.anyLong());
+    }
+
+    @Test
+    void createLobbyFromUser_codesNotLoaded_loadedWithConfiguredDigits() {
+        ReflectionTestUtils.setField(lobbyService, "lobbyCodeDigits", 5);
+        Mockito.when(lobbyRepository.findAllCodes()).thenReturn(List.of());
+        Mockito.when(lobbyRepository.saveAndFlush(Mockito.any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Player createdPlayer = lobbyService.createLobbyFromUser(testUser, true);
+
+        assertEquals(5, Long.toString(createdPlayer.getLobby().getCode()).length());
+        verify(lobbyRepository).findAllCodes();
     }
 }
@@ -0,0 +1,73 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalCombinationGeneratorTest {
+
+    private final LocalCombinationGenerator generator = new LocalCombinationGenerator();
+
+    @Test
+    void generateCombinationResult_samePair_sameResult() throws IOException {
+        String result = generator.generateCombinationResult("water", "fire");
+
+        assertEquals(result, generator.generateCombinationResult("water", "fire"));
+        assertEquals(result, new LocalCombinationGenerator().generateCombinationResult("water", "fire"));
+    }
+
+    @Test
+    void generateCombinationResult_swappedPair_sameResult() throws IOException {
+        assertEquals(generator.generateCombinationResult("water", "fire"), generator.generateCombinationResult("Fire ", "water"));
+    }
+
+    @Test
+    void generateCombinationResult_fromVocabulary_neverAnInput() throws IOException {
+        List<String> vocabulary = List.of("water", "fire", "steam");
+        LocalCombinationGenerator smallGenerator = new LocalCombinationGenerator(vocabulary);
+
+        assertEquals("steam", smallGenerator.generateCombinationResult("water", "fire"));
+        assertTrue(vocabulary.contains(smallGenerator.generateCombinationResult("earth", "air")));
+    }
+
+    @Test
+    void generateCombinationResult_otherSeed_otherResults() throws IOException {
+        LocalCombinationGenerator seededGenerator = new LocalCombinationGenerator();
+        ReflectionTestUtils.setField(seededGenerator, "seed", 42L);
+
+        boolean anyDifferent = false;
+        for (int i = 0; i < 20; i++) {
+            String word = "word" + i;
+            anyDifferent |= !generator.generateCombinationResult(word, "fire").equals(seededGenerator.generateCombinationResult(word, "fire"));
+        }
+        assertTrue(anyDifferent);
+    }
+
+    @Test
+    void generateCombinationResult_latency_delaysResult() throws IOException {
+        ReflectionTestUtils.setField(generator, "latencyMedianMs", 50.0);
+
+        long start = System.nanoTime();
+        generator.generateCombinationResult("water", "fire");
+
+        assertTrue(System.nanoTime() - start >= 50_000_000L);
+    }
+
+    @Test
+    void getRandomWord_sameSequenceForSameSeed() {
+        LocalCombinationGenerator otherGenerator = new LocalCombinationGenerator();
+        for (int i = 0; i < 5; i++) {
+            assertEquals(generator.getRandomWord(), otherGenerator.getRandomWord());
+        }
+    }
+
+    @Test
+    void constructor_tooSmallVocabulary_throws() {
+        List<String> vocabulary = List.of("water", "fire");
+        assertThrows(IllegalArgumentException.class, () -> new LocalCombinationGenerator(vocabulary));
+    }
+}
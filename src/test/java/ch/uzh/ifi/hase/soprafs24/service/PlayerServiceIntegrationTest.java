@@ -5,20 +5,29 @@ import ch.uzh.ifi.hase.soprafs24.constant.UserStatus;
 import ch.uzh.ifi.hase.soprafs24.entity.Lobby;
 import ch.uzh.ifi.hase.soprafs24.entity.Player;
 import ch.uzh.ifi.hase.soprafs24.entity.User;
+import ch.uzh.ifi.hase.soprafs24.entity.Word;
 import ch.uzh.ifi.hase.soprafs24.repository.LobbyRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.PlayerRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.PlayerWordRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.UserRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.WordRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.persistence.EntityManagerFactory;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -38,9 +47,23 @@ class PlayerServiceIntegrationTest {
     @Autowired
     LobbyRepository lobbyRepository;
 
+    @Qualifier("playerWordRepository")
+    @Autowired
+    PlayerWordRepository playerWordRepository;
+
+    @Qualifier("wordRepository")
+    @Autowired
+    WordRepository wordRepository;
+
     @Autowired
     PlayerService playerService;
 
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
     @BeforeEach
     public void setup() {
         playerRepository.deleteAll();
@@ -97,4 +120,42 @@ class PlayerServiceIntegrationTest {
 
         assertNull(playerRepository.findByToken("678"));
     }
+
+    @Test
+    void resetPlayers_bulkDeletesWords() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.execute(status -> {
+            Word water = wordRepository.saveAndFlush(new Word("water", 0, null));
+            Word fire = wordRepository.saveAndFlush(new Word("fire", 0, null));
+
+            Player player1 = new Player("456", "player1", null);
+            player1.addWords(List.of(water, fire));
+            Player player2 = new Player("567", "player2", null);
+            player2.addWords(List.of(water));
+            playerRepository.saveAndFlush(player1);
+            playerRepository.saveAndFlush(player2);
+            return null;
+        });
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        transactionTemplate.execute(status -> {
+            Player foundPlayer1 = playerRepository.findByToken("456");
+            Player foundPlayer2 = playerRepository.findByToken("567");
+            // The words of the first player are loaded, the ones of the second are not
+            assertEquals(2, foundPlayer1.getWords().size());
+
+            statistics.clear();
+            playerService.resetPlayers(List.of(foundPlayer1, foundPlayer2));
+            playerRepository.flush();
+
+            assertEquals(0, statistics.getEntityDeleteCount());
+            assertTrue(foundPlayer1.getWords().isEmpty());
+            return null;
+        });
+        statistics.setStatisticsEnabled(false);
+
+        assertTrue(playerWordRepository.findAllByPlayer(playerRepository.findByToken("456")).isEmpty());
+        assertTrue(playerWordRepository.findAllByPlayer(playerRepository.findByToken("567")).isEmpty());
+    }
 }
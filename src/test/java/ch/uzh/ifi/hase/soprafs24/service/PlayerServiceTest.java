@@ -4,8 +4,11 @@ import ch.uzh.ifi.hase.soprafs24.constant.GameMode;
 import ch.uzh.ifi.hase.soprafs24.constant.UserStatus;
 import ch.uzh.ifi.hase.soprafs24.entity.Lobby;
 import ch.uzh.ifi.hase.soprafs24.entity.Player;
+import ch.uzh.ifi.hase.soprafs24.entity.PlayerWord;
 import ch.uzh.ifi.hase.soprafs24.entity.User;
+import ch.uzh.ifi.hase.soprafs24.entity.Word;
 import ch.uzh.ifi.hase.soprafs24.repository.PlayerRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.PlayerWordRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -14,8 +17,10 @@ import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.persistence.EntityManager;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -24,6 +29,12 @@ class PlayerServiceTest {
     @Mock
     private PlayerRepository playerRepository;
 
+    @Mock
+    private PlayerWordRepository playerWordRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private PlayerService playerService;
 
@@ -92,4 +103,20 @@ class PlayerServiceTest {
         // then
         Mockito.verify(playerRepository, Mockito.times(1)).delete(Mockito.any());
     }
+
+    @Test
+    void resetPlayers_loadedWords_bulkDeletedAndClearedInMemory() {
+        testPlayer1.addWords(List.of(new Word("water"), new Word("fire")));
+        testPlayer2.addWords(List.of(new Word("earth")));
+
+        playerService.resetPlayers(List.of(testPlayer1, testPlayer2));
+
+        assertEquals(0, testPlayer1.getPoints());
+        assertEquals(0, testPlayer2.getPoints());
+        assertTrue(testPlayer1.getWords().isEmpty());
+        assertTrue(testPlayer2.getWords().isEmpty());
+        Mockito.verify(playerWordRepository, Mockito.times(1)).deleteAllByPlayers(List.of(testPlayer1, testPlayer2));
+        Mockito.verify(entityManager, Mockito.times(3)).detach(Mockito.any(PlayerWord.class));
+        Mockito.verify(playerRepository, Mockito.never()).flush();
+    }
 }
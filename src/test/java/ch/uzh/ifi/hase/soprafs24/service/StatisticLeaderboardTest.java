@@ -0,0 +1,86 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatisticLeaderboardTest {
+
+    private StatisticLeaderboard leaderboard;
+
+    @BeforeEach
+    void setup() {
+        leaderboard = new StatisticLeaderboard();
+        leaderboard.reset(Map.of(1L, 5L, 2L, 9L, 3L, 5L, 4L, 0L));
+    }
+
+    @Test
+    void getEntry_tiedScores_shareRank() {
+        assertEquals(1, leaderboard.getEntry(2L).orElseThrow().rank());
+        assertEquals(2, leaderboard.getEntry(1L).orElseThrow().rank());
+        assertEquals(2, leaderboard.getEntry(3L).orElseThrow().rank());
+        assertEquals(4, leaderboard.getEntry(4L).orElseThrow().rank());
+        assertTrue(leaderboard.getEntry(5L).isEmpty());
+    }
+
+    @Test
+    void update_higherScore_movesUp() {
+        leaderboard.update(4L, 12L);
+
+        assertEquals(1, leaderboard.getEntry(4L).orElseThrow().rank());
+        assertEquals(2, leaderboard.getEntry(2L).orElseThrow().rank());
+        assertEquals(4, leaderboard.size());
+    }
+
+    @Test
+    void remove_user_ranksFollowingUsersHigher() {
+        leaderboard.remove(2L);
+
+        assertTrue(leaderboard.getEntry(2L).isEmpty());
+        assertEquals(1, leaderboard.getEntry(1L).orElseThrow().rank());
+        assertEquals(3, leaderboard.size());
+    }
+
+    @Test
+    void getEntries_pages_inRankOrder() {
+        List<StatisticLeaderboard.Entry> firstPage = leaderboard.getEntries(0, 2);
+        List<StatisticLeaderboard.Entry> secondPage = leaderboard.getEntries(2, 2);
+
+        assertEquals(List.of(2L, 1L), firstPage.stream().map(StatisticLeaderboard.Entry::userId).toList());
+        assertEquals(List.of(3L, 4L), secondPage.stream().map(StatisticLeaderboard.Entry::userId).toList());
+        assertEquals(2, secondPage.get(0).rank());
+        assertEquals(4, secondPage.get(1).rank());
+        assertTrue(leaderboard.getEntries(4, 2).isEmpty());
+    }
+
+    @Test
+    void getEntries_manyUpdates_matchesSortedOrder() {
+        for (long userId = 0; userId < 50000; userId++) {
+            leaderboard.update(userId, (userId * 7919) % 100000);
+        }
+        for (long userId = 0; userId < 50000; userId += 3) {
+            leaderboard.update(userId, (userId * 104729) % 100000);
+        }
+
+        List<StatisticLeaderboard.Entry> entries = leaderboard.getEntries(25000, 100);
+
+        assertEquals(50000, leaderboard.size());
+        assertEquals(100, entries.size());
+        for (StatisticLeaderboard.Entry entry : entries) {
+            assertEquals(entry.rank(), leaderboard.getEntry(entry.userId()).orElseThrow().rank());
+        }
+        for (int i = 1; i < entries.size(); i++) {
+            assertTrue(entries.get(i - 1).score() >= entries.get(i).score());
+        }
+    }
+
+    @Test
+    void rarityScore_rarerWord_ranksHigher() {
+        assertTrue(LeaderboardService.rarityScore(0.001) > LeaderboardService.rarityScore(0.5));
+        assertEquals(0.001, LeaderboardService.reachability(LeaderboardService.rarityScore(0.001)));
+    }
+}
@@ -0,0 +1,59 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionCallbacksTest {
+
+    private final List<String> actions = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void afterCommit_noTransaction_runsImmediately() {
+        TransactionCallbacks.afterCommit(() -> actions.add("committed"));
+        TransactionCallbacks.afterRollback(() -> actions.add("rolled back"));
+
+        assertEquals(List.of("committed"), actions);
+    }
+
+    @Test
+    void afterCommit_committed_runsOnlyCommitAction() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionCallbacks.afterCommit(() -> actions.add("committed"));
+        TransactionCallbacks.afterRollback(() -> actions.add("rolled back"));
+        assertTrue(actions.isEmpty());
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+        assertEquals(List.of("committed"), actions);
+    }
+
+    @Test
+    void afterRollback_rolledBack_runsOnlyRollbackAction() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionCallbacks.afterCommit(() -> actions.add("committed"));
+        TransactionCallbacks.afterRollback(() -> actions.add("rolled back"));
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        assertEquals(List.of("rolled back"), actions);
+    }
+}
@@ -3,6 +3,8 @@ package ch.uzh.ifi.hase.soprafs24.service;
 import ch.uzh.ifi.hase.soprafs24.constant.UserStatus;
 import ch.uzh.ifi.hase.soprafs24.entity.User;
 import ch.uzh.ifi.hase.soprafs24.repository.UserRepository;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.UserPageGetDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.UserSummaryGetDTO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +14,8 @@ import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -36,6 +40,47 @@ class UserServiceIntegrationTest {
         userRepository.deleteAll();
     }
 
+    @Test
+    void getUserPage_sortedByWins_pagesThroughTies() {
+        // given
+        int[] wins = {5, 2, 5, 0, 7};
+        for (int i = 0; i < wins.length; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setPassword("testPassword");
+            user.setToken("token" + i);
+            user.setStatus(UserStatus.OFFLINE);
+            user.setCreationDate(LocalDate.now());
+            user.setWins(wins[i]);
+            userRepository.saveAndFlush(user);
+        }
+
+        // when
+        List<Integer> pagedWins = new ArrayList<>();
+        List<Long> pagedIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            UserPageGetDTO page = userService.getUserPage("wins", cursor, 2);
+            for (UserSummaryGetDTO user : page.getUsers()) {
+                pagedWins.add(user.getWins());
+                pagedIds.add(user.getId());
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // then
+        assertEquals(List.of(7, 5, 5, 2, 0), pagedWins);
+        assertEquals(5, pagedIds.stream().distinct().count());
+        assertTrue(pagedIds.get(1) > pagedIds.get(2));
+    }
+
+    @Test
+    void getUserPage_invalidSortOrCursor_throwsBadRequest() {
+        assertThrows(ResponseStatusException.class, () -> userService.getUserPage("password", null, 20));
+        assertThrows(ResponseStatusException.class, () -> userService.getUserPage("wins", "five", 20));
+        assertThrows(ResponseStatusException.class, () -> userService.getUserPage("id", null, 0));
+    }
+
     @Test
     void createUser_validInputs_success() {
         // given
@@ -33,6 +33,12 @@ class UserServiceTest {
     @Mock
     private LobbyService lobbyService;
 
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    @Mock
+    private UserStatisticsService userStatisticsService;
+
     @InjectMocks
     private UserService userService;
 
@@ -0,0 +1,116 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import ch.uzh.ifi.hase.soprafs24.entity.User;
+import ch.uzh.ifi.hase.soprafs24.entity.Word;
+import ch.uzh.ifi.hase.soprafs24.repository.UserRepository;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.UserGetDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.mapper.DTOMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserStatisticsServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    @InjectMocks
+    private UserStatisticsService userStatisticsService;
+
+    private final Word water = new Word("water", 0, 1e6);
+    private final Word mud = new Word("mud", 1, 0.5);
+    private final Word lava = new Word("lava", 2, 0.25);
+
+    private User user;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+
+        user = new User();
+        user.setId(1L);
+        user.setUsername("username");
+        user.setCombinationsMade(10);
+        user.setDiscoveredWords(2);
+        user.setRarestWordFound(mud);
+    }
+
+    @Test
+    void recordCombination_doesNotWriteUser() {
+        lava.setNewlyDiscovered(true);
+
+        userStatisticsService.recordCombination(user, water);
+        userStatisticsService.recordCombination(user, lava);
+
+        assertEquals(2, userStatisticsService.getPendingCombinationsMade(1L));
+        assertEquals(1, userStatisticsService.getPendingDiscoveredWords(1L));
+        assertEquals(10, user.getCombinationsMade());
+        Mockito.verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void addPendingStatistics_pendingCombinations_addedToDTO() {
+        lava.setNewlyDiscovered(true);
+        userStatisticsService.recordCombination(user, lava);
+
+        UserGetDTO userGetDTO = userStatisticsService.addPendingStatistics(user, DTOMapper.INSTANCE.convertEntityToUserGetDTO(user));
+
+        assertEquals(11, userGetDTO.getCombinationsMade());
+        assertEquals(3, userGetDTO.getDiscoveredWords());
+        assertEquals("lava", userGetDTO.getRarestWordFound().getName());
+    }
+
+    @Test
+    void flush_pendingCombinations_incrementedOnce() {
+        userStatisticsService.recordCombination(user, water);
+        userStatisticsService.recordCombination(user, water);
+
+        userStatisticsService.flush(List.of(1L));
+        userStatisticsService.flush(List.of(1L));
+
+        Mockito.verify(userRepository).addStatistics(1L, 2, 0);
+        Mockito.verify(userRepository).updateRarestWordFoundIfRarer(1L, water, water.getReachability());
+        Mockito.verify(leaderboardService).addStatistics(1L, 2, 0, water);
+        assertEquals(0, userStatisticsService.getPendingCombinationsMade(1L));
+    }
+
+    @Test
+    void flush_flushedUser_removedUntilNextCombination() {
+        userStatisticsService.recordCombination(user, water);
+
+        userStatisticsService.flush(List.of(1L));
+        assertEquals(0, userStatisticsService.getPendingUserCount());
+
+        userStatisticsService.recordCombination(user, lava);
+        assertEquals(1, userStatisticsService.getPendingUserCount());
+        assertEquals(1, userStatisticsService.getPendingCombinationsMade(1L));
+    }
+
+    @Test
+    void discard_deletedUser_notFlushed() {
+        userStatisticsService.recordCombination(user, water);
+
+        userStatisticsService.discard(1L);
+        userStatisticsService.flushAll();
+
+        Mockito.verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void rarerWord_lowerReachability_wins() {
+        assertSame(lava, UserStatisticsService.rarerWord(mud, lava));
+        assertSame(lava, UserStatisticsService.rarerWord(lava, water));
+        assertSame(mud, UserStatisticsService.rarerWord(null, mud));
+        assertSame(mud, UserStatisticsService.rarerWord(mud, new Word("fire")));
+    }
+}